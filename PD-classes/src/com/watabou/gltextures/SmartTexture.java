@@ -52,6 +52,26 @@ public class SmartTexture extends Texture {
 		
 	}
 	
+	// Texture with the size of an image but nothing behind it, it
+	// can't be drawn but film frames and sprites can be built on it
+	public SmartTexture( int width, int height ) {
+		
+		super( null );
+		this.width = width;
+		this.height = height;
+		
+		fModeMin = fModeMax = TextureFilter.Nearest;
+		wModeH = wModeV = TextureWrap.ClampToEdge;
+	}
+	
+	// A stand-in has nothing to bind, it's only drawn onto a stub GL
+	@Override
+	public void bind() {
+		if (bitmap != null) {
+			super.bind();
+		}
+	}
+	
 	@Override
 	public void filter(TextureFilter minMode, TextureFilter maxMode) {
 		super.filter( fModeMin = minMode, fModeMax = maxMode);
@@ -80,6 +100,9 @@ public class SmartTexture extends Texture {
 	}
 	
 	public void reload() {
+		if (bitmap == null) {
+			return;
+		}
 		// FIXME: Not sure if we need to do anything here
 //		id = new SmartTexture( bitmap ).id;
 		filter( fModeMin, fModeMax );
@@ -89,6 +112,10 @@ public class SmartTexture extends Texture {
 	@Override
 	public void delete() {
 		
+		if (bitmap == null) {
+			return;
+		}
+		
 		super.delete();
 		
 		bitmap.dispose();
@@ -17,14 +17,21 @@
 
 package com.watabou.gltextures;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.watabou.gdx.GdxTexture;
 import com.watabou.glwrap.Texture;
 
+import java.io.DataInputStream;
 import java.util.HashMap;
 
 public class TextureCache {
 
+	// When set, no image is decoded or sent to GL: every texture is a 
+	// stand-in of the size of its image, so the game can run without
+	// a display while sprites and effects are still created as usual
+	public static boolean headless = false;
+	
 	private static HashMap<Object,SmartTexture> all = new HashMap<Object, SmartTexture>();
 	
 	public static SmartTexture createSolid( int color ) {
@@ -34,6 +41,13 @@ public class TextureCache {
 			
 			return all.get( key );
 			
+		} else if (headless) {
+			
+			SmartTexture tx = new SmartTexture( 1, 1 );
+			all.put( key, tx );
+			
+			return tx;
+			
 		} else {
 
 			final Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
@@ -63,6 +77,12 @@ public class TextureCache {
 			
 			return (SmartTexture)src;
 			
+		} else if (headless) {
+			
+			SmartTexture tx = standIn( src );
+			all.put( src, tx );
+			return tx;
+			
 		} else {
 
 			SmartTexture tx = new SmartTexture( getBitmap( src ) );
@@ -72,6 +92,28 @@ public class TextureCache {
 		
 	}
 	
+	private static SmartTexture standIn( Object src ) {
+		
+		if (src instanceof String) {
+			// Width and height are the first fields of the PNG header
+			try {
+				DataInputStream in = new DataInputStream( Gdx.files.internal( (String)src ).read() );
+				try {
+					in.skipBytes( 16 );
+					int width = in.readInt();
+					int height = in.readInt();
+					return new SmartTexture( width, height );
+				} finally {
+					in.close();
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		
+		return new SmartTexture( 1, 1 );
+	}
+	
 	public static void clear() {
 		
 		for (Texture txt:all.values()) {
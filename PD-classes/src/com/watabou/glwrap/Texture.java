@@ -32,6 +32,8 @@ public class Texture {
 
 	public boolean premultiplied = false;
 	public GdxTexture bitmap;
+	
+	private IntBuffer subImageBuffer;
 
 	protected Texture(GdxTexture bitmap) {
 		this.bitmap = bitmap;
@@ -87,6 +89,38 @@ public class Texture {
 			imageBuffer );
 	}
 	
+	// Uploads the w x h rectangle at (x, y) of an image which rows are
+	// "stride" pixels long. The texture must have been filled by pixels()
+	public void pixels( int[] pixels, int stride, int x, int y, int w, int h ) {
+		
+		bind();
+		
+		if (subImageBuffer == null || subImageBuffer.capacity() < w * h) {
+			subImageBuffer = ByteBuffer.
+				allocateDirect( w * h * 4 ).
+				order( ByteOrder.nativeOrder() ).
+				asIntBuffer();
+		}
+		
+		// There is no row length to unpack with in GLES 2.0
+		subImageBuffer.clear();
+		for (int row=0; row < h; row++) {
+			subImageBuffer.put( pixels, (y + row) * stride + x, w );
+		}
+		subImageBuffer.position( 0 );
+		
+		Gdx.gl.glTexSubImage2D(
+			GL20.GL_TEXTURE_2D,
+			0,
+			x,
+			y,
+			w,
+			h,
+			GL20.GL_RGBA,
+			GL20.GL_UNSIGNED_BYTE,
+			subImageBuffer );
+	}
+	
 	public void pixels( int w, int h, byte[] pixels ) {
 		
 		bind();
@@ -18,23 +18,23 @@
 package com.watabou.noosa;
 
 import java.util.ArrayList;
-import java.util.regex.Pattern;
 
 import com.watabou.glwrap.Quad;
 import com.watabou.utils.PointF;
 
 import com.watabou.utils.RectF;
 import net.whitegem.pixeldungeon.LanguageFactory;
+import net.whitegem.pixeldungeon.WordSplitter;
 
 public class BitmapTextMultiline extends BitmapText {
 
 	public int maxWidth = Integer.MAX_VALUE;
 	
-	protected static final Pattern PARAGRAPH	= Pattern.compile( "\n" );
-	protected static final Pattern WORD			= Pattern.compile( "\\s+" );
-	
 	protected float spaceSize;
 	
+	// Words of the text, split again only when the text changes
+	protected WordSplitter words = new WordSplitter();
+	
 	public boolean[] mask;
 	
 	public BitmapTextMultiline( Font font ) {
@@ -62,89 +62,86 @@ public class BitmapTextMultiline extends BitmapText {
 		// Word size
 		PointF metrics = new PointF();
 		
-		String paragraphs[] = PARAGRAPH.split( text );
+		int count = splitWords();
+		char[] chars = words.chars;
 		
 		// Current character (used in masking)
 		int pos = 0;
 		
-		for (int i=0; i < paragraphs.length; i++) {
+		for (int j=0; j < count; j++) {
 			
-			String[] words = LanguageFactory.INSTANCE.splitWords(paragraphs[i]);
+			int start = words.start( j );
+			if (start == WordSplitter.NEWLINE) {
+				writer.newLine( 0, font.lineHeight );
+				continue;
+			}
 			
-			for (int j=0; j < words.length; j++) {
-				
-				String word = words[j];
-				if (word.length() == 0) {
-					// This case is possible when there are
-					// several spaces coming along
-					continue;
-				}
-				
-				
-				getWordMetrics( word, metrics );	
-				writer.addSymbol( metrics.x, metrics.y );
-				
-				int length = word.length();
-				float shift = 0;	// Position in pixels relative to the beginning of the word
-
-				for (int k=0; k < length; k++) {
-					RectF rect = font.get( word.charAt( k ) );
+			int end = words.end( j );
+			if (start == end) {
+				// This case is possible when there are
+				// several spaces coming along
+				continue;
+			}
 			
-					float w = font.width( rect );
-					float h = font.height( rect );
-					
-					if (mask == null || (pos < mask.length && mask[pos])) {
-						vertices[0] 	= writer.x + shift;
-						vertices[1] 	= writer.y;
-						
-						vertices[2]		= rect.left;
-						vertices[3]		= rect.top;
-						
-						vertices[4] 	= writer.x + shift + w;
-						vertices[5] 	= writer.y;
-						
-						vertices[6]		= rect.right;
-						vertices[7]		= rect.top;
-						
-						vertices[8] 	= writer.x + shift + w;
-						vertices[9] 	= writer.y + h;
-						
-						vertices[10]	= rect.right;
-						vertices[11]	= rect.bottom;
-						
-						vertices[12]	= writer.x + shift;
-						vertices[13]	= writer.y + h;
-						
-						vertices[14]	= rect.left;
-						vertices[15]	= rect.bottom;
+			getWordMetrics( chars, start, end, metrics );	
+			writer.addSymbol( metrics.x, metrics.y );
+			
+			float shift = 0;	// Position in pixels relative to the beginning of the word
 
-						quads.put( vertices );
-						realLength++;
-					}
+			for (int k=start; k < end; k++) {
+				RectF rect = font.get( chars[k] );
+		
+				float w = font.width( rect );
+				float h = font.height( rect );
+				
+				if (mask == null || (pos < mask.length && mask[pos])) {
+					vertices[0] 	= writer.x + shift;
+					vertices[1] 	= writer.y;
+					
+					vertices[2]		= rect.left;
+					vertices[3]		= rect.top;
+					
+					vertices[4] 	= writer.x + shift + w;
+					vertices[5] 	= writer.y;
 					
-					shift += w + font.tracking;
+					vertices[6]		= rect.right;
+					vertices[7]		= rect.top;
 					
-					pos++;
+					vertices[8] 	= writer.x + shift + w;
+					vertices[9] 	= writer.y + h;
+					
+					vertices[10]	= rect.right;
+					vertices[11]	= rect.bottom;
+					
+					vertices[12]	= writer.x + shift;
+					vertices[13]	= writer.y + h;
+					
+					vertices[14]	= rect.left;
+					vertices[15]	= rect.bottom;
+
+					quads.put( vertices );
+					realLength++;
 				}
 				
-				// writer.addSpace( spaceSize );
+				shift += w + font.tracking;
+				
+				pos++;
 			}
-
-			writer.newLine( 0, font.lineHeight );
+			
+			// writer.addSpace( spaceSize );
 		}
 		
 		dirty = false;
 	}
 	
-	private void getWordMetrics( String word, PointF metrics ) {
+	private void getWordMetrics( char[] chars, int start, int end, PointF metrics ) {
 		
 		float w = 0;
 		float h = 0;
 		
-		int length = word.length();
-		for (int i=0; i < length; i++) {
+		for (int i=start; i < end; i++) {
 			
-			RectF rect = font.get( word.charAt( i ) );
+			RectF rect = font.get( chars[i] );
 			w += font.width( rect ) + (w > 0 ? font.tracking : 0);
 			h = Math.max( h, font.height( rect ) );
 		}
@@ -152,6 +149,10 @@ public class BitmapTextMultiline extends BitmapText {
 		metrics.set( w, h );
 	}
 	
+	private int splitWords() {
+		return LanguageFactory.INSTANCE.splitWords( text, words );
+	}
+	
 	@Override
 	public void measure() {
 		
@@ -159,25 +160,25 @@ public class BitmapTextMultiline extends BitmapText {
 		
 		PointF metrics = new PointF();
 		
-		String paragraphs[] = PARAGRAPH.split( text );
+		int count = splitWords();
+		char[] chars = words.chars;
 		
-		for (int i=0; i < paragraphs.length; i++) {
+		for (int j=0; j < count; j++) {
 			
-			String[] words = LanguageFactory.INSTANCE.splitWords(paragraphs[i]);
+			int start = words.start( j );
+			if (start == WordSplitter.NEWLINE) {
+				writer.newLine( 0, font.lineHeight );
+				continue;
+			}
 			
-			for (int j=0; j < words.length; j++) {
-				
-				String word = words[j];
-				if (word.length() == 0) {
-					continue;
-				}
-				
-				getWordMetrics( word, metrics );	
-				writer.addSymbol( metrics.x, metrics.y );
-				// writer.addSpace( spaceSize );
+			int end = words.end( j );
+			if (start == end) {
+				continue;
 			}
 			
-			writer.newLine( 0, font.lineHeight );
+			getWordMetrics( chars, start, end, metrics );	
+			writer.addSymbol( metrics.x, metrics.y );
+			// writer.addSpace( spaceSize );
 		}
 		
 		width = writer.width;
@@ -243,20 +244,15 @@ public class BitmapTextMultiline extends BitmapText {
 		
 		private PointF metrics = new PointF();
 		
-		private void newLine( String str, float width ) {
+		private void newLine( float width ) {
 			BitmapText txt = new BitmapText( curLine.toString(), font );
 			txt.scale.set( scale.x );
 			lines.add( txt );
 			
-			curLine = new StringBuilder( str );
+			curLine = new StringBuilder();
 			curLineWidth = width;
 		}
 		
-		private void append( String str, float width ) {
-			curLineWidth += (curLineWidth > 0 ? font.tracking : 0) + width;
-			curLine.append( str );
-		}
-		
 		public ArrayList<BitmapText> split() {
 			
 			lines = new ArrayList<BitmapText>();
@@ -264,35 +260,36 @@ public class BitmapTextMultiline extends BitmapText {
 			curLine = new StringBuilder();
 			curLineWidth = 0;
 			
-			String paragraphs[] = PARAGRAPH.split( text );
+			int count = splitWords();
+			char[] chars = words.chars;
 			
-			for (int i=0; i < paragraphs.length; i++) {
+			for (int j=0; j < count; j++) {
 				
-				String[] words = LanguageFactory.INSTANCE.splitWords(paragraphs[i]);
+				int start = words.start( j );
+				if (start == WordSplitter.NEWLINE) {
+					newLine( 0 );
+					continue;
+				}
 				
-				for (int j=0; j < words.length; j++) {
-					
-					String word = words[j];
-					if (word.length() == 0) {
-						continue;
-					}
-					
-					getWordMetrics( word, metrics );	
+				int end = words.end( j );
+				if (start == end) {
+					continue;
+				}
+				
+				getWordMetrics( chars, start, end, metrics );	
 
-					if (curLineWidth > 0 && curLineWidth + font.tracking + metrics.x > maxWidth / scale.x) {
-						newLine( word, metrics.x );				
-					} else {				
-						append( word,  metrics.x );			
-					}
-					
-					if (curLineWidth > 0 && curLineWidth + font.tracking + spaceSize > maxWidth / scale.x) {						
-						newLine( "", 0 );
-					} else {		
-						// append( " ", spaceSize );
-					}
+				if (curLineWidth > 0 && curLineWidth + font.tracking + metrics.x > maxWidth / scale.x) {
+					newLine( metrics.x );
+				} else {
+					curLineWidth += (curLineWidth > 0 ? font.tracking : 0) + metrics.x;
 				}
+				curLine.append( chars, start, end - start );
 				
-				newLine( "", 0 );
+				if (curLineWidth > 0 && curLineWidth + font.tracking + spaceSize > maxWidth / scale.x) {						
+					newLine( 0 );
+				} else {		
+					// append( " ", spaceSize );
+				}
 			}
 			
 			return lines;
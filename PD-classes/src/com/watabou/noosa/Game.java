@@ -112,6 +112,7 @@ public abstract class Game<GameActionType> implements ApplicationListener {
 	
 	@Override
 	public void dispose() {
+		WriteQueue.await();
 		destroyGame();
 		
 		Music.INSTANCE.mute();
@@ -136,6 +137,7 @@ public abstract class Game<GameActionType> implements ApplicationListener {
 		Gdx.gl.glScissor( 0, 0, width, height );
 		Gdx.gl.glClear( GL20.GL_COLOR_BUFFER_BIT );
 		draw();
+		NoosaScript.batch().flush();
 	}
 
 	@Override
@@ -232,12 +234,15 @@ public abstract class Game<GameActionType> implements ApplicationListener {
 		Gdx.input.vibrate(milliseconds);
 	}
 
+	// Reading and deleting files waits for the ones being written, see WriteQueue
 	public boolean deleteFile(String fileName) {
+		WriteQueue.await();
 		final FileHandle fh = Gdx.files.external(basePath != null ? basePath + fileName : fileName);
 		return fh.exists() && fh.delete();
 	}
 
 	public InputStream openFileInput(String fileName) throws IOException {
+		WriteQueue.await();
 		final FileHandle fh = Gdx.files.external(basePath != null ? basePath + fileName : fileName);
 		if (!fh.exists())
 			throw new IOException("File " + fileName + " doesn't exist");
@@ -249,6 +254,20 @@ public abstract class Game<GameActionType> implements ApplicationListener {
 		return fh.write(false);
 	}
 
+	// Replaces the file "to" with the file "from". Renaming replaces it at once
+	// on Android and POSIX systems, Windows doesn't rename over an existing
+	// file, so there it's copied instead, as FileHandle.moveTo() always does.
+	public boolean renameFile(String from, String to) {
+		final FileHandle source = Gdx.files.external(basePath != null ? basePath + from : from);
+		final FileHandle target = Gdx.files.external(basePath != null ? basePath + to : to);
+		if (!source.exists())
+			return false;
+		if (source.file().renameTo(target.file()))
+			return true;
+		source.moveTo(target);
+		return true;
+	}
+
 	public void finish() {
 		if (Gdx.app.getType() == Application.ApplicationType.Android)
 		{
@@ -28,6 +28,9 @@ public class Gizmo {
 	
 	public Camera camera;
 	
+	// Slot in the parent's members, kept by Group
+	int index = -1;
+	
 	public Gizmo() {
 		exists	= true;
 		alive	= true;
@@ -46,8 +49,14 @@ public class Gizmo {
 	}
 	
 	public void kill() {
+		boolean existed = exists;
+		
 		alive = false;
 		exists = false;
+		
+		if (existed && parent != null) {
+			parent.killed( this );
+		}
 	}
 	
 	// Not exactly opposite to "kill" method
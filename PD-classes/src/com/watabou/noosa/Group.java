@@ -20,6 +20,7 @@ package com.watabou.noosa;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 public class Group extends Gizmo {
 
@@ -29,6 +30,13 @@ public class Group extends Gizmo {
 	// than calling memebers.getSize()
 	public int length;
 	
+	// Empty slots, the lowest one is filled first
+	private Slots empty = new Slots();
+	// Slots of dead members by their class, for recycling
+	private HashMap<Class<?>,Slots> dead = new HashMap<Class<?>, Slots>();
+	// Whether the slot is already in the list of dead members
+	private boolean[] listed = new boolean[16];
+	
 	public Group() {
 		members = new ArrayList<Gizmo>();
 		length = 0;
@@ -46,6 +54,9 @@ public class Group extends Gizmo {
 		members.clear();
 		members = null;
 		length = 0;
+		
+		empty.clear();
+		dead.clear();
 	}
 	
 	@Override
@@ -83,7 +94,12 @@ public class Group extends Gizmo {
 	}
 	
 	public int indexOf( Gizmo g ) {
-		return members.indexOf( g );
+		int index = g.index;
+		if (index >= 0 && index < length && members.get( index ) == g) {
+			return index;
+		} else {
+			return members.indexOf( g );
+		}
 	}
 	
 	public Gizmo add( Gizmo g ) {
@@ -97,17 +113,19 @@ public class Group extends Gizmo {
 		}
 		
 		// Trying to find an empty space for a new member
-		for (int i=0; i < length; i++) {
-			if (members.get( i ) == null) {
+		while (!empty.isEmpty()) {
+			int i = empty.poll();
+			if (i < length && members.get( i ) == null) {
 				members.set( i, g );
 				g.parent = this;
+				placed( g, i );
 				return g;
 			}
 		}
 		
 		members.add( g );
 		g.parent = this;
-		length++;
+		placed( g, length++ );
 		return g;
 	}
 	
@@ -125,12 +143,14 @@ public class Group extends Gizmo {
 		if (members.get( 0 ) == null) {
 			members.set( 0, g );
 			g.parent = this;
+			placed( g, 0 );
 			return g;
 		}
 		
 		members.add( 0, g );
 		g.parent = this;
 		length++;
+		reindex();
 		return g;
 	}
 	
@@ -139,6 +159,9 @@ public class Group extends Gizmo {
 		Gizmo g = getFirstAvailable( c );
 		if (g != null) {
 			
+			// It's expected to be revived
+			dead.get( c ).poll();
+			listed[g.index] = false;
 			return g;
 			
 		} else if (c == null) {
@@ -159,10 +182,12 @@ public class Group extends Gizmo {
 	
 	// Fast removal - replacing with null
 	public Gizmo erase( Gizmo g ) {
-		int index = members.indexOf( g );
+		int index = indexOf( g );
 		if (index != -1) {
 			members.set( index, null );
 			g.parent = null;
+			g.index = -1;
+			empty.add( index );
 			return g;
 		} else {
 			return null;
@@ -171,9 +196,13 @@ public class Group extends Gizmo {
 	
 	// Real removal
 	public Gizmo remove( Gizmo g ) {
-		if (members.remove( g )) {
+		int index = indexOf( g );
+		if (index != -1) {
+			members.remove( index );
 			length--;
 			g.parent = null;
+			g.index = -1;
+			reindex();
 			return g;
 		} else {
 			return null;
@@ -181,11 +210,13 @@ public class Group extends Gizmo {
 	}
 	
 	public Gizmo replace( Gizmo oldOne, Gizmo newOne ) {
-		int index = members.indexOf( oldOne );
+		int index = indexOf( oldOne );
 		if (index != -1) {
 			members.set( index, newOne );
 			newOne.parent = this;
 			oldOne.parent = null;
+			oldOne.index = -1;
+			placed( newOne, index );
 			return newOne;
 		} else {
 			return null;
@@ -194,16 +225,88 @@ public class Group extends Gizmo {
 	
 	public Gizmo getFirstAvailable( Class<? extends Gizmo> c ) {
 		
-		for (int i=0; i < length; i++) {
-			Gizmo g = members.get( i );
-			if (g != null && !g.exists && ((c == null) || g.getClass() == c)) {
+		if (c == null) {
+			for (int i=0; i < length; i++) {
+				Gizmo g = members.get( i );
+				if (g != null && !g.exists) {
+					return g;
+				}
+			}
+			return null;
+		}
+		
+		Slots slots = dead.get( c );
+		if (slots == null) {
+			return null;
+		}
+		
+		// Slots which were revived or reused since are dropped on the way
+		while (!slots.isEmpty()) {
+			int i = slots.peek();
+			Gizmo g = i < length ? members.get( i ) : null;
+			if (g != null && !g.exists && g.getClass() == c && listed[i]) {
 				return g;
 			}
+			slots.poll();
+			if (g != null && g.getClass() == c) {
+				listed[i] = false;
+			}
 		}
 		
 		return null;
 	}
 	
+	// Called by a member when it's killed
+	void killed( Gizmo g ) {
+		int i = indexOf( g );
+		if (i != -1 && !listed[i]) {
+			listed[i] = true;
+			Slots slots = dead.get( g.getClass() );
+			if (slots == null) {
+				slots = new Slots();
+				dead.put( g.getClass(), slots );
+			}
+			slots.add( i );
+		}
+	}
+	
+	// Bookkeeping for a member which took the slot
+	private void placed( Gizmo g, int i ) {
+		g.index = i;
+		if (i >= listed.length) {
+			boolean[] grown = new boolean[Math.max( i + 1, listed.length * 2 )];
+			System.arraycopy( listed, 0, grown, 0, listed.length );
+			listed = grown;
+		}
+		listed[i] = false;
+		if (!g.exists) {
+			killed( g );
+		}
+	}
+	
+	// Members have moved, all the slots are found again
+	private void reindex() {
+		
+		empty.clear();
+		dead.clear();
+		if (listed.length < length) {
+			listed = new boolean[Math.max( length, listed.length * 2 )];
+		}
+		
+		for (int i=0; i < length; i++) {
+			Gizmo g = members.get( i );
+			listed[i] = false;
+			if (g == null) {
+				empty.add( i );
+			} else {
+				g.index = i;
+				if (!g.exists) {
+					killed( g );
+				}
+			}
+		}
+	}
+	
 	public int countLiving() {
 		
 		int count = 0;
@@ -245,16 +348,22 @@ public class Group extends Gizmo {
 			Gizmo g = members.get( i );
 			if (g != null) {
 				g.parent = null;
+				g.index = -1;
 			}
 		}
 		members.clear();
 		length = 0;
+		
+		empty.clear();
+		dead.clear();
 	}
 	
 	public Gizmo bringToFront( Gizmo g ) {
-		if (members.contains( g )) {
-			members.remove( g );
+		int index = indexOf( g );
+		if (index != -1) {
+			members.remove( index );
 			members.add( g );
+			reindex();
 			return g;
 		} else {
 			return null;
@@ -262,12 +371,74 @@ public class Group extends Gizmo {
 	}
 	
 	public Gizmo sendToBack( Gizmo g ) {
-		if (members.contains( g )) {
-			members.remove( g );
+		int index = indexOf( g );
+		if (index != -1) {
+			members.remove( index );
 			members.add( 0, g );
+			reindex();
 			return g;
 		} else {
 			return null;
 		}
 	}
+	
+	// Min-heap of slot indices
+	private static class Slots {
+		
+		private int[] heap = new int[8];
+		private int size;
+		
+		public boolean isEmpty() {
+			return size == 0;
+		}
+		
+		public void clear() {
+			size = 0;
+		}
+		
+		public int peek() {
+			return heap[0];
+		}
+		
+		public void add( int slot ) {
+			if (size == heap.length) {
+				int[] grown = new int[size * 2];
+				System.arraycopy( heap, 0, grown, 0, size );
+				heap = grown;
+			}
+			
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >> 1;
+				if (heap[parent] <= slot) {
+					break;
+				}
+				heap[i] = heap[parent];
+				i = parent;
+			}
+			heap[i] = slot;
+		}
+		
+		public int poll() {
+			int result = heap[0];
+			int last = heap[--size];
+			
+			int i = 0;
+			int half = size >> 1;
+			while (i < half) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && heap[child + 1] < heap[child]) {
+					child++;
+				}
+				if (last <= heap[child]) {
+					break;
+				}
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = last;
+			
+			return result;
+		}
+	}
 }
@@ -42,7 +42,6 @@ public class Image extends Visual {
 		super( 0, 0, 0, 0 );
 		
 		vertices = new float[16];
-		verticesBuffer = Quad.create();
 	}
 	
 	public Image( Image src ) {
@@ -144,6 +143,11 @@ public class Image extends Visual {
 	public void draw() {
 		
 		super.draw();
+		
+		if (NoosaScript.batching) {
+			NoosaScript.batch().batchQuad( this, texture, vertices );
+			return;
+		}
 
 		NoosaScript script = NoosaScript.get();
 		
@@ -156,6 +160,11 @@ public class Image extends Visual {
 			rm, gm, bm, am, 
 			ra, ga, ba, aa );
 		
+		if (verticesBuffer == null) {
+			// Only needed when the image isn't batched
+			verticesBuffer = Quad.create();
+			dirty = true;
+		}
 		if (dirty) {
 			verticesBuffer.position( 0 );
 			verticesBuffer.put( vertices );
@@ -25,11 +25,30 @@ import com.badlogic.gdx.graphics.GL20;
 
 import com.watabou.glscripts.Script;
 import com.watabou.glwrap.Attribute;
+import com.watabou.glwrap.Matrix;
 import com.watabou.glwrap.Quad;
+import com.watabou.glwrap.Texture;
 import com.watabou.glwrap.Uniform;
 
 public class NoosaScript extends Script {
 	
+	// When set, images are queued with their vertices already transformed
+	// and drawn together until the texture, the camera or the blending
+	// changes. Everything else is drawn right away, as before
+	public static boolean batching = true;
+	
+	// Quads in a single batch, limited by the 16 bit indices
+	public static final int MAX_QUADS		= 1024;
+	
+	// x, y, u, v, color multiplier, color addition
+	public static final int VERTEX_SIZE	= 12;
+	public static final int QUAD_SIZE	= VERTEX_SIZE * 4;
+	
+	private static final float[] IDENTITY = new float[16];
+	static {
+		Matrix.setIdentity( IDENTITY );
+	}
+	
 	public Uniform uCamera;
 	public Uniform uModel;
 	public Uniform uTex;
@@ -37,9 +56,20 @@ public class NoosaScript extends Script {
 	public Uniform uColorA;
 	public Attribute aXY;
 	public Attribute aUV;
+	public Attribute aColorM;
+	public Attribute aColorA;
 	
 	private Camera lastCamera;
 	
+	private float[] batch = new float[MAX_QUADS * QUAD_SIZE];
+	private FloatBuffer batchBuffer = Quad.createSet( MAX_QUADS * QUAD_SIZE / 16 );
+	private int batchSize;
+	private Texture batchTexture;
+	private Camera batchCamera;
+	
+	private int blendSrc = GL20.GL_SRC_ALPHA;
+	private int blendDst = GL20.GL_ONE_MINUS_SRC_ALPHA;
+	
 	public NoosaScript() {
 		
 		super();
@@ -52,6 +82,8 @@ public class NoosaScript extends Script {
 		uColorA	= uniform( "uColorA" );
 		aXY		= attribute( "aXYZW" );
 		aUV		= attribute( "aUV" );
+		aColorM	= attribute( "aColorM" );
+		aColorA	= attribute( "aColorA" );
 		
 	}
 	
@@ -63,6 +95,127 @@ public class NoosaScript extends Script {
 		aXY.enable();
 		aUV.enable();
 		
+		neutralColors();
+	}
+	
+	@Override
+	public void unuse() {
+		flush();
+	}
+	
+	// Outside of batches the per vertex colors are constant,
+	// so only the lighting uniforms have an effect
+	private void neutralColors() {
+		Gdx.gl.glVertexAttrib4f( aColorM.location(), 1, 1, 1, 1 );
+		Gdx.gl.glVertexAttrib4f( aColorA.location(), 0, 0, 0, 0 );
+	}
+	
+	// Queues a quad of the visual, the vertices are laid out as for drawQuad()
+	public void batchQuad( Visual visual, Texture texture, float[] vertices ) {
+		
+		float[] m = visual.matrix;
+		float[] b = batch;
+		int pos = reserve( texture, visual.camera() );
+		
+		for (int i=0; i < 16; i += 4) {
+			
+			float x = vertices[i];
+			float y = vertices[i + 1];
+			
+			b[pos++] = m[0] * x + m[4] * y + m[12];
+			b[pos++] = m[1] * x + m[5] * y + m[13];
+			b[pos++] = vertices[i + 2];
+			b[pos++] = vertices[i + 3];
+			
+			b[pos++] = visual.rm;
+			b[pos++] = visual.gm;
+			b[pos++] = visual.bm;
+			b[pos++] = visual.am;
+			b[pos++] = visual.ra;
+			b[pos++] = visual.ga;
+			b[pos++] = visual.ba;
+			b[pos++] = visual.aa;
+		}
+	}
+	
+	// Queues a quad given in the batch layout: QUAD_SIZE floats
+	// with the vertices already transformed
+	public void batchQuad( Texture texture, Camera camera, float[] quad ) {
+		System.arraycopy( quad, 0, batch, reserve( texture, camera ), QUAD_SIZE );
+	}
+	
+	// Position of a new quad in the batch
+	private int reserve( Texture texture, Camera camera ) {
+		
+		if (camera == null) {
+			camera = Camera.main;
+		}
+		
+		if (texture != batchTexture || camera != batchCamera || batchSize == MAX_QUADS) {
+			flush();
+			batchTexture = texture;
+			batchCamera = camera;
+		}
+		
+		return batchSize++ * QUAD_SIZE;
+	}
+	
+	// Draws the queued quads
+	public void flush() {
+		
+		if (batchSize == 0) {
+			return;
+		}
+		
+		batchTexture.bind();
+		camera( batchCamera );
+		uModel.valueM4( IDENTITY );
+		lighting( 
+			1, 1, 1, 1, 
+			0, 0, 0, 0 );
+		
+		batchBuffer.position( 0 );
+		batchBuffer.put( batch, 0, batchSize * QUAD_SIZE );
+		
+		batchBuffer.position( 0 );
+		aXY.vertexPointer( 2, VERTEX_SIZE, batchBuffer );
+		
+		batchBuffer.position( 2 );
+		aUV.vertexPointer( 2, VERTEX_SIZE, batchBuffer );
+		
+		batchBuffer.position( 4 );
+		aColorM.vertexPointer( 4, VERTEX_SIZE, batchBuffer );
+		
+		batchBuffer.position( 8 );
+		aColorA.vertexPointer( 4, VERTEX_SIZE, batchBuffer );
+		
+		aColorM.enable();
+		aColorA.enable();
+		
+		Gdx.gl.glDrawElements(
+			GL20.GL_TRIANGLES,
+			Quad.SIZE * batchSize,
+			GL20.GL_UNSIGNED_SHORT,
+			Quad.getIndices( MAX_QUADS ) );
+		
+		aColorM.disable();
+		aColorA.disable();
+		neutralColors();
+		
+		batchSize = 0;
+		batchTexture = null;
+		batchCamera = null;
+	}
+	
+	// Blending must be changed through the script,
+	// the queued quads are drawn with the old one
+	public void blend( int src, int dst ) {
+		if (src != blendSrc || dst != blendDst) {
+			flush();
+			blendSrc = src;
+			blendDst = dst;
+			Gdx.gl.glBlendFunc( src, dst );
+		}
 	}
 
 	public void drawElements( FloatBuffer vertices, ShortBuffer indices, int size ) {
@@ -90,15 +243,20 @@ public class NoosaScript extends Script {
 	}
 	
 	public void drawQuadSet( FloatBuffer vertices, int size ) {
+		drawQuadSet( vertices, 0, size );
+	}
+	
+	// Draws size quads of the set, starting with the quad number offset
+	public void drawQuadSet( FloatBuffer vertices, int offset, int size ) {
 		
 		if (size == 0) {
 			return;
 		}
 		
-		vertices.position( 0 );
+		vertices.position( 16 * offset );
 		aXY.vertexPointer( 2, 4, vertices );
 		
-		vertices.position( 2 );
+		vertices.position( 16 * offset + 2 );
 		aUV.vertexPointer( 2, 4, vertices );
 
 		Gdx.gl.glDrawElements(
@@ -134,7 +292,16 @@ public class NoosaScript extends Script {
 		}
 	}
 	
+	// For drawing right away: the queued quads are drawn first,
+	// so the state can be changed freely afterwards
 	public static NoosaScript get() {
+		NoosaScript script = Script.use( NoosaScript.class );
+		script.flush();
+		return script;
+	}
+	
+	// For adding to the current batch
+	public static NoosaScript batch() {
 		return Script.use( NoosaScript.class );
 	}
 	
@@ -149,10 +316,16 @@ public class NoosaScript extends Script {
 		"uniform mat4 uModel;" +
 		"attribute vec4 aXYZW;" +
 		"attribute vec2 aUV;" +
+		"attribute vec4 aColorM;" +
+		"attribute vec4 aColorA;" +
 		"varying vec2 vUV;" +
+		"varying vec4 vColorM;" +
+		"varying vec4 vColorA;" +
 		"void main() {" +
 		"  gl_Position = uCamera * uModel * aXYZW;" +
 		"  vUV = aUV;" +
+		"  vColorM = aColorM;" +
+		"  vColorA = aColorA;" +
 		"}" +
 		
 		"//\n" +
@@ -160,10 +333,12 @@ public class NoosaScript extends Script {
 		"precision mediump float;\n" +
 		"#endif\n" +
 		"varying vec2 vUV;" +
+		"varying vec4 vColorM;" +
+		"varying vec4 vColorA;" +
 		"uniform sampler2D uTex;" +
 		"uniform vec4 uColorM;" +
 		"uniform vec4 uColorA;" +
 		"void main() {" +
-		"  gl_FragColor = texture2D( uTex, vUV ) * uColorM + uColorA;" +
+		"  gl_FragColor = texture2D( uTex, vUV ) * (uColorM * vColorM) + (uColorA + vColorA);" +
 		"}";
 }
@@ -22,6 +22,7 @@ import java.nio.FloatBuffer;
 import com.watabou.gltextures.SmartTexture;
 import com.watabou.gltextures.TextureCache;
 import com.watabou.glwrap.Quad;
+import com.watabou.utils.CellSet;
 import com.watabou.utils.Rect;
 
 import com.watabou.utils.RectF;
@@ -42,8 +43,13 @@ public class Tilemap extends Visual {
 	protected float[] vertices;
 	protected FloatBuffer quads;
 	
+	// Everything in it is rewritten, which is what a change of
+	// the whole map needs. Single tiles go to updateCell()
 	public Rect updated;
 	
+	// Tiles changed since the last draw
+	protected CellSet dirty;
+	
 	public Tilemap( Object tx, TextureFilm tileset ) {
 		
 		super( 0, 0, 0, 0 );
@@ -72,63 +78,70 @@ public class Tilemap extends Visual {
 		height = cellH * mapHeight;
 		
 		quads = Quad.createSet( size );
+		dirty = new CellSet( size );
 		
 		updated.set( 0, 0, mapWidth, mapHeight );
 	}
 	
+	public void updateCell( int pos ) {
+		dirty.set( pos );
+	}
+	
 	protected void updateVertices() {
 		
-		float y1 = cellH * updated.top;
-		float y2 = y1 + cellH;
-		
 		for (int i=updated.top; i < updated.bottom; i++) {
 			
-			float x1 = cellW * updated.left;
-			float x2 = x1 + cellW;
-			
 			int pos = i * mapWidth + updated.left;
 			quads.position( 16 * pos );
 			
 			for (int j=updated.left; j < updated.right; j++) {
-
-				RectF uv = tileset.get( data[pos++] );
-			
-				vertices[0] 	= x1;
-				vertices[1] 	= y1;
-				
-				vertices[2]		= uv.left;
-				vertices[3]		= uv.top;
-				
-				vertices[4] 	= x2;
-				vertices[5] 	= y1;
-				
-				vertices[6]		= uv.right;
-				vertices[7]		= uv.top;
-				
-				vertices[8] 	= x2;
-				vertices[9] 	= y2;
-				
-				vertices[10]	= uv.right;
-				vertices[11]	= uv.bottom;
-				
-				vertices[12]	= x1;
-				vertices[13]	= y2;
-				
-				vertices[14]	= uv.left;
-				vertices[15]	= uv.bottom;
-				
-				quads.put( vertices );
-				
-				x1 = x2;
-				x2 += cellW;
-				
+				quads.put( vertices( pos++ ) );
 			}
-			
-			y1 = y2;
-			y2 += cellH;
+		}
+		
+		for (int pos=dirty.next( 0 ); pos >= 0; pos=dirty.next( pos + 1 )) {
+			quads.position( 16 * pos );
+			quads.put( vertices( pos ) );
 		}
 		
 		updated.setEmpty();
+		dirty.clear();
+	}
+	
+	private float[] vertices( int pos ) {
+		
+		float x1 = cellW * (pos % mapWidth);
+		float x2 = x1 + cellW;
+		float y1 = cellH * (pos / mapWidth);
+		float y2 = y1 + cellH;
+		
+		RectF uv = tileset.get( data[pos] );
+		
+		vertices[0] 	= x1;
+		vertices[1] 	= y1;
+		
+		vertices[2]		= uv.left;
+		vertices[3]		= uv.top;
+		
+		vertices[4] 	= x2;
+		vertices[5] 	= y1;
+		
+		vertices[6]		= uv.right;
+		vertices[7]		= uv.top;
+		
+		vertices[8] 	= x2;
+		vertices[9] 	= y2;
+		
+		vertices[10]	= uv.right;
+		vertices[11]	= uv.bottom;
+		
+		vertices[12]	= x1;
+		vertices[13]	= y2;
+		
+		vertices[14]	= uv.left;
+		vertices[15]	= uv.bottom;
+		
+		return vertices;
 	}
 	
 	@Override
@@ -145,12 +158,27 @@ public class Tilemap extends Visual {
 			rm, gm, bm, am, 
 			ra, ga, ba, aa );
 		
-		if (!updated.isEmpty()) {
+		if (!updated.isEmpty() || !dirty.isEmpty()) {
 			updateVertices();
 		}
 		
 		script.camera( camera );
-		script.drawQuadSet( quads, size );
+		
+		// Only the rows the camera sees are drawn, the quads
+		// of a row range follow each other in the buffer
+		int top = 0;
+		int bottom = mapHeight;
+		Camera c = camera();
+		if (c != null && angle == 0) {
+			float rowH = cellH * scale.y;
+			float y0 = y + origin.y * (1 - scale.y);
+			// A row more on both sides for the camera shake
+			top = Math.max( (int)Math.floor( (c.scroll.y - y0) / rowH ) - 1, 0 );
+			bottom = Math.min( (int)Math.ceil( (c.scroll.y + c.height - y0) / rowH ) + 1, mapHeight );
+		}
+		if (top < bottom) {
+			script.drawQuadSet( quads, top * mapWidth, (bottom - top) * mapWidth );
+		}
 
 	}
 }
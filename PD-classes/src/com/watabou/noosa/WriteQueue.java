@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package com.watabou.noosa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Writes files on a thread of its own, so the game doesn't wait for the
+ * storage. Each file is written to a temporary one first, which then takes
+ * its place, so a write cut short leaves the previous version intact. The
+ * files are written in the order they were queued. Game waits for all of
+ * them before a file is read or deleted, see await(). A write which fails
+ * can't be reported to the code which queued it, see failed().
+ */
+public class WriteQueue {
+
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	// The thread isn't a daemon, so the VM doesn't exit before the queue
+	// is written, and it ends when there's nothing left to write
+	private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+		1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			@Override
+			public Thread newThread( Runnable runnable ) {
+				return new Thread( runnable, "WriteQueue" );
+			}
+		} );
+	static {
+		executor.allowCoreThreadTimeOut( true );
+	}
+
+	private static final Object lock = new Object();
+	private static int pending = 0;
+	private static boolean failed = false;
+
+	// The data mustn't be changed afterwards. It's written out as it
+	// is, without copying it into an array of its own first.
+	public static void write( final String fileName, final ByteArrayOutputStream data ) {
+
+		synchronized (lock) {
+			pending++;
+		}
+
+		executor.execute( new Runnable() {
+			@Override
+			public void run() {
+				try {
+
+					String temp = fileName + TEMP_SUFFIX;
+					OutputStream output = Game.instance.openFileOutput( temp );
+					try {
+						data.writeTo( output );
+					} finally {
+						output.close();
+					}
+
+					if (!Game.instance.renameFile( temp, fileName )) {
+						throw new IOException( "Can't replace " + fileName );
+					}
+
+				} catch (Exception e) {
+					// The previous version of the file is still there
+					e.printStackTrace();
+					synchronized (lock) {
+						failed = true;
+					}
+				} finally {
+					synchronized (lock) {
+						pending--;
+						lock.notifyAll();
+					}
+				}
+			}
+		} );
+	}
+
+	// Waits for the queue, then tells whether any file failed to be
+	// written since the last call
+	public static boolean failed() {
+		synchronized (lock) {
+			await();
+			boolean result = failed;
+			failed = false;
+			return result;
+		}
+	}
+
+	// Blocks until everything queued so far is written
+	public static void await() {
+		synchronized (lock) {
+			while (pending > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					// The files have to be written anyway
+				}
+			}
+		}
+	}
+}
@@ -53,6 +53,11 @@ public enum Sample {
 	
 	public void load( String... assets ) {
 		
+		if (Gdx.audio == null) {
+			// No audio device to play them on
+			return;
+		}
+		
 		for (int i=0; i < assets.length; i++) {
 			
 			String asset = assets[i];
@@ -17,10 +17,10 @@
 
 package com.watabou.noosa.particles;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Game;
 import com.watabou.noosa.Group;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.Visual;
 import com.watabou.utils.PointF;
 import com.watabou.utils.Random;
@@ -48,6 +48,9 @@ public class Emitter extends Group {
 	
 	protected Factory factory;
 	
+	// Pixel particles which don't need to be Visuals
+	protected ParticlePool particles;
+	
 	public void pos( float x, float y ) {
 		pos( x, y, 0, 0 );
 	}
@@ -109,6 +112,37 @@ public class Emitter extends Group {
 		}
 		
 		super.update();
+		
+		if (particles != null) {
+			particles.update();
+		}
+	}
+	
+	public ParticlePool particles() {
+		if (particles == null) {
+			particles = new ParticlePool( 32 );
+		}
+		return particles;
+	}
+	
+	@Override
+	public int countLiving() {
+		return super.countLiving() + (particles != null ? particles.length : 0);
+	}
+	
+	@Override
+	public void kill() {
+		super.kill();
+		
+		if (particles != null) {
+			particles.clear();
+		}
+	}
+	
+	@Override
+	public void destroy() {
+		super.destroy();
+		particles = null;
 	}
 	
 	protected void emit( int index ) {
@@ -130,12 +164,19 @@ public class Emitter extends Group {
 	@Override
 	public void draw() {
 		if (lightMode) {
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
-			super.draw();
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+			drawParticles();
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 		} else {
-			super.draw();
+			drawParticles();
+		}
+	}
+	
+	protected void drawParticles() {
+		if (particles != null) {
+			particles.draw( camera() );
 		}
+		super.draw();
 	}
 	
 	abstract public static class Factory {
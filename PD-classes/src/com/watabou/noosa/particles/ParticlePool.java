@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package com.watabou.noosa.particles;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.watabou.gltextures.SmartTexture;
+import com.watabou.gltextures.TextureCache;
+import com.watabou.glwrap.Matrix;
+import com.watabou.noosa.Camera;
+import com.watabou.noosa.Game;
+import com.watabou.noosa.NoosaScript;
+import com.watabou.utils.GameMath;
+
+// Pixel particles of an emitter kept in parallel arrays instead of
+// a Visual for each of them. Live particles take the first "length"
+// slots, in the order they were added. The arrays only grow when
+// there is no room left, so emitting doesn't allocate.
+public class ParticlePool {
+	
+	public int length;
+	
+	public Kind[] kind;
+	
+	public float[] x;
+	public float[] y;
+	public float[] speedX;
+	public float[] speedY;
+	public float[] accX;
+	public float[] accY;
+	public float[] angle;
+	public float[] angularSpeed;
+	public float[] scaleX;
+	public float[] scaleY;
+	
+	public float[] rm;
+	public float[] gm;
+	public float[] bm;
+	public float[] am;
+	public float[] ra;
+	public float[] ga;
+	public float[] ba;
+	public float[] aa;
+	
+	// Base size of a shrinking particle
+	public float[] size;
+	public float[] lifespan;
+	public float[] left;
+	
+	private SmartTexture texture;
+	private float[] quad = new float[NoosaScript.QUAD_SIZE];
+	
+	public ParticlePool( int capacity ) {
+		allocate( capacity );
+	}
+	
+	public int capacity() {
+		return x.length;
+	}
+	
+	// Adds a particle at (x, y) in the state of a new PixelParticle
+	// and returns its slot
+	public int add( Kind kind, float x, float y ) {
+		
+		if (length == this.x.length) {
+			allocate( length * 2 );
+		}
+		
+		int i = length++;
+		
+		this.kind[i] = kind;
+		this.x[i] = x;
+		this.y[i] = y;
+		speedX[i] = speedY[i] = 0;
+		accX[i] = accY[i] = 0;
+		angle[i] = angularSpeed[i] = 0;
+		scaleX[i] = scaleY[i] = 1;
+		
+		rm[i] = gm[i] = bm[i] = am[i] = 1;
+		ra[i] = ga[i] = ba[i] = aa[i] = 0;
+		
+		size[i] = 0;
+		lifespan[i] = left[i] = 0;
+		
+		return i;
+	}
+	
+	public void clear() {
+		for (int i=0; i < length; i++) {
+			kind[i] = null;
+		}
+		length = 0;
+	}
+	
+	// The same as Visual.color()
+	public void color( int i, int color ) {
+		rm[i] = gm[i] = bm[i] = 0;
+		ra[i] = ((color >> 16) & 0xFF) / 255f;
+		ga[i] = ((color >> 8) & 0xFF) / 255f;
+		ba[i] = (color & 0xFF) / 255f;
+	}
+	
+	public void scale( int i, float value ) {
+		scaleX[i] = scaleY[i] = value;
+	}
+	
+	public void speed( int i, float x, float y ) {
+		speedX[i] = x;
+		speedY[i] = y;
+	}
+	
+	// The same as PointF.polar()
+	public void polar( int i, float a, float l ) {
+		speedX[i] = l * MathUtils.cos( a );
+		speedY[i] = l * MathUtils.sin( a );
+	}
+	
+	public void acc( int i, float x, float y ) {
+		accX[i] = x;
+		accY[i] = y;
+	}
+	
+	// Moves the particles the way Visual.updateMotion() does, lets their
+	// kinds update them and drops the ones which have run out of time
+	public void update() {
+		
+		float elapsed = Game.elapsed;
+		int alive = 0;
+		
+		for (int i=0; i < length; i++) {
+			
+			float d = (GameMath.speed( speedX[i], accX[i] ) - speedX[i]) / 2;
+			speedX[i] += d;
+			x[i] += speedX[i] * elapsed;
+			speedX[i] += d;
+			
+			d = (GameMath.speed( speedY[i], accY[i] ) - speedY[i]) / 2;
+			speedY[i] += d;
+			y[i] += speedY[i] * elapsed;
+			speedY[i] += d;
+			
+			angle[i] += angularSpeed[i] * elapsed;
+			
+			left[i] -= elapsed;
+			
+			kind[i].update( this, i );
+			
+			if (left[i] > 0) {
+				if (alive != i) {
+					move( i, alive );
+				}
+				alive++;
+			}
+		}
+		
+		for (int i=alive; i < length; i++) {
+			kind[i] = null;
+		}
+		length = alive;
+	}
+	
+	// Queues all the particles in a single batch
+	public void draw( Camera camera ) {
+		
+		if (length == 0) {
+			return;
+		}
+		
+		if (texture == null) {
+			texture = TextureCache.createSolid( 0xFFFFFFFF );
+		}
+		
+		NoosaScript script = NoosaScript.batch();
+		float[] q = quad;
+		
+		for (int i=0; i < length; i++) {
+			
+			// PixelParticle is a 1x1 image with its origin in the center
+			float hw = scaleX[i] / 2;
+			float hh = scaleY[i] / 2;
+			float cx = x[i] + 0.5f;
+			float cy = y[i] + 0.5f;
+			
+			float ux, uy, vx, vy;
+			if (angle[i] != 0) {
+				float a = angle[i] * Matrix.G2RAD;
+				float cos = (float)Math.cos( a );
+				float sin = (float)Math.sin( a );
+				ux = cos * hw;
+				uy = sin * hw;
+				vx = -sin * hh;
+				vy = cos * hh;
+			} else {
+				ux = hw;
+				uy = 0;
+				vx = 0;
+				vy = hh;
+			}
+			
+			vertex( q, 0, i, cx - ux - vx, cy - uy - vy, 0, 0 );
+			vertex( q, 1, i, cx + ux - vx, cy + uy - vy, 1, 0 );
+			vertex( q, 2, i, cx + ux + vx, cy + uy + vy, 1, 1 );
+			vertex( q, 3, i, cx - ux + vx, cy - uy + vy, 0, 1 );
+			
+			script.batchQuad( texture, camera, q );
+		}
+	}
+	
+	private void vertex( float[] q, int v, int i, float x, float y, float u, float uv ) {
+		int pos = v * NoosaScript.VERTEX_SIZE;
+		q[pos++] = x;
+		q[pos++] = y;
+		q[pos++] = u;
+		q[pos++] = uv;
+		q[pos++] = rm[i];
+		q[pos++] = gm[i];
+		q[pos++] = bm[i];
+		q[pos++] = am[i];
+		q[pos++] = ra[i];
+		q[pos++] = ga[i];
+		q[pos++] = ba[i];
+		q[pos] = aa[i];
+	}
+	
+	private void move( int from, int to ) {
+		kind[to]			= kind[from];
+		x[to]				= x[from];
+		y[to]				= y[from];
+		speedX[to]			= speedX[from];
+		speedY[to]			= speedY[from];
+		accX[to]			= accX[from];
+		accY[to]			= accY[from];
+		angle[to]			= angle[from];
+		angularSpeed[to]	= angularSpeed[from];
+		scaleX[to]			= scaleX[from];
+		scaleY[to]			= scaleY[from];
+		rm[to]				= rm[from];
+		gm[to]				= gm[from];
+		bm[to]				= bm[from];
+		am[to]				= am[from];
+		ra[to]				= ra[from];
+		ga[to]				= ga[from];
+		ba[to]				= ba[from];
+		aa[to]				= aa[from];
+		size[to]			= size[from];
+		lifespan[to]		= lifespan[from];
+		left[to]			= left[from];
+	}
+	
+	private void allocate( int capacity ) {
+		kind			= grow( kind, capacity );
+		x				= grow( x, capacity );
+		y				= grow( y, capacity );
+		speedX			= grow( speedX, capacity );
+		speedY			= grow( speedY, capacity );
+		accX			= grow( accX, capacity );
+		accY			= grow( accY, capacity );
+		angle			= grow( angle, capacity );
+		angularSpeed	= grow( angularSpeed, capacity );
+		scaleX			= grow( scaleX, capacity );
+		scaleY			= grow( scaleY, capacity );
+		rm				= grow( rm, capacity );
+		gm				= grow( gm, capacity );
+		bm				= grow( bm, capacity );
+		am				= grow( am, capacity );
+		ra				= grow( ra, capacity );
+		ga				= grow( ga, capacity );
+		ba				= grow( ba, capacity );
+		aa				= grow( aa, capacity );
+		size			= grow( size, capacity );
+		lifespan		= grow( lifespan, capacity );
+		left			= grow( left, capacity );
+	}
+	
+	private float[] grow( float[] a, int capacity ) {
+		float[] result = new float[capacity];
+		if (a != null) {
+			System.arraycopy( a, 0, result, 0, length );
+		}
+		return result;
+	}
+	
+	private Kind[] grow( Kind[] a, int capacity ) {
+		Kind[] result = new Kind[capacity];
+		if (a != null) {
+			System.arraycopy( a, 0, result, 0, length );
+		}
+		return result;
+	}
+	
+	// What a particle does besides moving, the counterpart
+	// of PixelParticle.update() for the pooled particles
+	public static abstract class Kind {
+		
+		public void update( ParticlePool pool, int i ) {
+		}
+	}
+	
+	// The counterpart of PixelParticle.Shrinking
+	public static class Shrinking extends Kind {
+		
+		@Override
+		public void update( ParticlePool pool, int i ) {
+			pool.scale( i, pool.size[i] * pool.left[i] / pool.lifespan[i] );
+		}
+	}
+}
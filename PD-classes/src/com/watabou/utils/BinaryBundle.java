@@ -0,0 +1,495 @@
+/*
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package com.watabou.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Compact binary encoding of a bundle tree. Every value is preceded by
+// a type tag, keys are written in full only once and referred to by
+// their index afterwards, arrays of ints are packed as variable length
+// numbers and arrays of booleans as bits.
+final class BinaryBundle {
+
+	static final byte[] MAGIC = {'P', 'D', 'B'};
+	static final int VERSION = 1;
+
+	private static final int END			= 0;
+	private static final int NULL			= 1;
+	private static final int FALSE			= 2;
+	private static final int TRUE			= 3;
+	private static final int INT			= 4;
+	private static final int LONG			= 5;
+	private static final int FLOAT			= 6;
+	private static final int DOUBLE			= 7;
+	private static final int STRING			= 8;
+	private static final int OBJECT			= 9;
+	private static final int ARRAY			= 10;
+	private static final int INT_ARRAY		= 11;
+	private static final int BOOLEAN_ARRAY	= 12;
+	private static final int STRING_ARRAY	= 13;
+
+	private BinaryBundle() {
+	}
+
+	static boolean hasMagic( byte[] header ) {
+		for (int i=0; i < MAGIC.length; i++) {
+			if (header[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static class Writer extends BundleSink {
+
+		private DataOutputStream out;
+		private HashMap<String,Integer> keys = new HashMap<String, Integer>();
+
+		Writer( DataOutputStream out ) {
+			this.out = out;
+		}
+
+		@Override
+		void beginRoot() throws IOException {
+			out.write( MAGIC );
+			out.writeByte( VERSION );
+		}
+
+		@Override
+		void endRoot() throws IOException {
+			out.writeByte( END );
+		}
+
+		@Override
+		void beginObject( String key ) throws IOException {
+			out.writeByte( OBJECT );
+			if (key != null) {
+				writeKey( key );
+			}
+		}
+
+		@Override
+		void endObject() throws IOException {
+			out.writeByte( END );
+		}
+
+		@Override
+		void beginArray( String key ) throws IOException {
+			out.writeByte( ARRAY );
+			if (key != null) {
+				writeKey( key );
+			}
+		}
+
+		@Override
+		void endArray() throws IOException {
+			out.writeByte( END );
+		}
+
+		@Override
+		void value( String key, Object value ) throws IOException {
+
+			int tag;
+			if (value instanceof int[]) {
+				tag = INT_ARRAY;
+			} else if (value instanceof boolean[]) {
+				tag = BOOLEAN_ARRAY;
+			} else if (value instanceof String[]) {
+				tag = hasNulls( (String[])value ) ? ARRAY : STRING_ARRAY;
+			} else {
+				try {
+					writeValue( key, value );
+				} catch (JSONException e) {
+					throw new IOException( e.getMessage() );
+				}
+				return;
+			}
+
+			out.writeByte( tag );
+			if (key != null) {
+				writeKey( key );
+			}
+
+			switch (tag) {
+			case INT_ARRAY:
+				writeIntArray( (int[])value );
+				break;
+			case BOOLEAN_ARRAY:
+				writeBooleanArray( (boolean[])value );
+				break;
+			case ARRAY:
+				// Strings with gaps, the elements are tagged one by one
+				for (String string : (String[])value) {
+					if (string == null) {
+						out.writeByte( NULL );
+					} else {
+						out.writeByte( STRING );
+						writeString( string );
+					}
+				}
+				out.writeByte( END );
+				break;
+			default:
+				String[] strings = (String[])value;
+				writeVarInt( strings.length );
+				for (int i=0; i < strings.length; i++) {
+					writeString( strings[i] );
+				}
+				break;
+			}
+		}
+
+		@Override
+		void close() throws IOException {
+			out.close();
+		}
+
+		private static boolean hasNulls( String[] strings ) {
+			for (int i=0; i < strings.length; i++) {
+				if (strings[i] == null) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void writeObject( JSONObject object ) throws IOException {
+			values( object );
+			out.writeByte( END );
+		}
+
+		private void writeValue( String key, Object value ) throws IOException, JSONException {
+
+			int tag = tagOf( value );
+
+			out.writeByte( tag );
+			if (key != null) {
+				writeKey( key );
+			}
+
+			switch (tag) {
+			case INT:
+				writeVarInt( zigzag( (Integer)value ) );
+				break;
+			case LONG:
+				out.writeLong( (Long)value );
+				break;
+			case FLOAT:
+				out.writeFloat( ((Double)value).floatValue() );
+				break;
+			case DOUBLE:
+				out.writeDouble( ((Number)value).doubleValue() );
+				break;
+			case STRING:
+				writeString( (String)value );
+				break;
+			case OBJECT:
+				writeObject( (JSONObject)value );
+				break;
+			case ARRAY:
+				JSONArray array = (JSONArray)value;
+				for (int i=0; i < array.length(); i++) {
+					writeValue( null, array.opt( i ) );
+				}
+				out.writeByte( END );
+				break;
+			case INT_ARRAY:
+				writeIntArray( (JSONArray)value );
+				break;
+			case BOOLEAN_ARRAY:
+				writeBooleanArray( (JSONArray)value );
+				break;
+			case STRING_ARRAY:
+				JSONArray strings = (JSONArray)value;
+				writeVarInt( strings.length() );
+				for (int i=0; i < strings.length(); i++) {
+					writeString( strings.getString( i ) );
+				}
+				break;
+			}
+		}
+
+		private void writeKey( String key ) throws IOException {
+			Integer index = keys.get( key );
+			if (index != null) {
+				writeVarInt( index );
+			} else {
+				// A new key is announced with the next free index
+				int size = keys.size();
+				keys.put( key, size );
+				writeVarInt( size );
+				writeString( key );
+			}
+		}
+
+		private void writeIntArray( JSONArray array ) throws IOException, JSONException {
+			int[] ints = new int[array.length()];
+			for (int i=0; i < ints.length; i++) {
+				ints[i] = array.getInt( i );
+			}
+			writeIntArray( ints );
+		}
+
+		private void writeIntArray( int[] array ) throws IOException {
+			writeVarInt( array.length );
+			for (int i=0; i < array.length; i++) {
+				writeVarInt( zigzag( array[i] ) );
+			}
+		}
+
+		private void writeBooleanArray( JSONArray array ) throws IOException, JSONException {
+			boolean[] booleans = new boolean[array.length()];
+			for (int i=0; i < booleans.length; i++) {
+				booleans[i] = array.getBoolean( i );
+			}
+			writeBooleanArray( booleans );
+		}
+
+		private void writeBooleanArray( boolean[] array ) throws IOException {
+			writeVarInt( array.length );
+			int bits = 0;
+			for (int i=0; i < array.length; i++) {
+				if (array[i]) {
+					bits |= 1 << (i & 7);
+				}
+				if ((i & 7) == 7) {
+					out.writeByte( bits );
+					bits = 0;
+				}
+			}
+			if ((array.length & 7) != 0) {
+				out.writeByte( bits );
+			}
+		}
+
+		private void writeString( String value ) throws IOException {
+			byte[] bytes = value.getBytes( "UTF-8" );
+			writeVarInt( bytes.length );
+			out.write( bytes );
+		}
+
+		private void writeVarInt( int value ) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte( (value & 0x7F) | 0x80 );
+				value >>>= 7;
+			}
+			out.writeByte( value );
+		}
+
+		private static int zigzag( int value ) {
+			return (value << 1) ^ (value >> 31);
+		}
+
+		private static int tagOf( Object value ) throws JSONException {
+
+			if (value == null || value == JSONObject.NULL) {
+				return NULL;
+			} else if (value instanceof Boolean) {
+				return (Boolean)value ? TRUE : FALSE;
+			} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+				return INT;
+			} else if (value instanceof Long) {
+				return LONG;
+			} else if (value instanceof Double) {
+				// Bundle stores floats widened to doubles
+				double d = (Double)value;
+				return (double)(float)d == d ? FLOAT : DOUBLE;
+			} else if (value instanceof Number) {
+				return DOUBLE;
+			} else if (value instanceof JSONObject) {
+				return OBJECT;
+			} else if (value instanceof JSONArray) {
+				return arrayTagOf( (JSONArray)value );
+			} else {
+				return STRING;
+			}
+		}
+
+		private static int arrayTagOf( JSONArray array ) throws JSONException {
+
+			int length = array.length();
+			if (length == 0) {
+				return ARRAY;
+			}
+
+			// Nulls are only written by the generic array
+			Object first = array.opt( 0 );
+			Class<?> cl;
+			int tag;
+			if (first instanceof Integer) {
+				cl = Integer.class;
+				tag = INT_ARRAY;
+			} else if (first instanceof Boolean) {
+				cl = Boolean.class;
+				tag = BOOLEAN_ARRAY;
+			} else if (first instanceof String) {
+				cl = String.class;
+				tag = STRING_ARRAY;
+			} else {
+				return ARRAY;
+			}
+
+			for (int i=1; i < length; i++) {
+				Object element = array.opt( i );
+				if (element == null || element.getClass() != cl) {
+					return ARRAY;
+				}
+			}
+			return tag;
+		}
+	}
+
+	static class Reader {
+
+		private DataInputStream in;
+		private ArrayList<String> keys = new ArrayList<String>();
+
+		Reader( DataInputStream in ) {
+			this.in = in;
+		}
+
+		void readHeader() throws IOException {
+			byte[] header = new byte[MAGIC.length];
+			in.readFully( header );
+			if (!hasMagic( header )) {
+				throw new IOException( "Not a binary bundle" );
+			}
+			int version = in.readUnsignedByte();
+			if (version > VERSION) {
+				throw new IOException( "Unsupported bundle version " + version );
+			}
+		}
+
+		JSONObject readObject() throws IOException, JSONException {
+			JSONObject object = new JSONObject();
+			int tag;
+			while ((tag = in.readUnsignedByte()) != END) {
+				String key = readKey();
+				object.put( key, readValue( tag ) );
+			}
+			return object;
+		}
+
+		private Object readValue( int tag ) throws IOException, JSONException {
+
+			switch (tag) {
+			case NULL:
+				return JSONObject.NULL;
+			case FALSE:
+				return Boolean.FALSE;
+			case TRUE:
+				return Boolean.TRUE;
+			case INT:
+				return unzigzag( readVarInt() );
+			case LONG:
+				return in.readLong();
+			case FLOAT:
+				return (double)in.readFloat();
+			case DOUBLE:
+				return in.readDouble();
+			case STRING:
+				return readString();
+			case OBJECT:
+				return readObject();
+			case ARRAY:
+				JSONArray array = new JSONArray();
+				int element;
+				while ((element = in.readUnsignedByte()) != END) {
+					array.put( readValue( element ) );
+				}
+				return array;
+			case INT_ARRAY:
+				return readIntArray();
+			case BOOLEAN_ARRAY:
+				return readBooleanArray();
+			case STRING_ARRAY:
+				JSONArray strings = new JSONArray();
+				int length = readVarInt();
+				for (int i=0; i < length; i++) {
+					strings.put( readString() );
+				}
+				return strings;
+			default:
+				throw new IOException( "Unknown tag " + tag );
+			}
+		}
+
+		private String readKey() throws IOException {
+			int index = readVarInt();
+			if (index < keys.size()) {
+				return keys.get( index );
+			} else {
+				String key = readString();
+				keys.add( key );
+				return key;
+			}
+		}
+
+		private JSONArray readIntArray() throws IOException {
+			JSONArray array = new JSONArray();
+			int length = readVarInt();
+			for (int i=0; i < length; i++) {
+				array.put( unzigzag( readVarInt() ) );
+			}
+			return array;
+		}
+
+		private JSONArray readBooleanArray() throws IOException {
+			JSONArray array = new JSONArray();
+			int length = readVarInt();
+			int bits = 0;
+			for (int i=0; i < length; i++) {
+				if ((i & 7) == 0) {
+					bits = in.readUnsignedByte();
+				}
+				array.put( (bits & (1 << (i & 7))) != 0 );
+			}
+			return array;
+		}
+
+		private String readString() throws IOException {
+			byte[] bytes = new byte[readVarInt()];
+			in.readFully( bytes );
+			return new String( bytes, "UTF-8" );
+		}
+
+		private int readVarInt() throws IOException {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		private static int unzigzag( int value ) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+}
@@ -19,16 +19,19 @@ package com.watabou.utils;
 
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -43,44 +46,67 @@ public class Bundle {
 	
 	private JSONObject data;
 	
+	// Set for bundles which pass everything put into them
+	// straight to a stream instead of keeping it
+	private BundleSink sink;
+	// Keys already streamed, a value can't be replaced once it's written
+	private HashSet<String> streamed;
+	
 	public Bundle() {
 		this( new JSONObject() );
 	}
 	
 	public String toString() {
-		return data.toString();
+		return data().toString();
 	}
 	
 	private Bundle( JSONObject data ) {
 		this.data = data;
 	}
 	
+	private Bundle( BundleSink sink ) {
+		this.sink = sink;
+		streamed = new HashSet<String>();
+	}
+	
 	public boolean isNull() {
-		return data == null;
+		return data == null && sink == null;
+	}
+	
+	// Bundles which write to a stream can't be read, see writer()
+	private JSONObject data() {
+		if (sink != null) {
+			throw new IllegalStateException( "Can't read a bundle which is written to a stream" );
+		}
+		return data;
 	}
 	
 	public boolean contains( String key ) {
-		return !data.isNull( key );
+		return !data().isNull( key );
 	}
 	
 	public boolean getBoolean( String key ) {
-		return data.optBoolean( key );
+		return data().optBoolean( key );
 	}
 	
 	public int getInt( String key ) {
-		return data.optInt( key );
+		return data().optInt( key );
+	}
+	
+	public long getLong( String key ) {
+		return data().optLong( key );
 	}
 	
 	public float getFloat( String key ) {
-		return (float)data.optDouble( key );
+		return (float)data().optDouble( key );
 	}
 	
 	public String getString( String key ) {
-		return data.optString( key );
+		return data().optString( key );
 	}
 	
 	public Bundle getBundle( String key ) {
-		return new Bundle( data.optJSONObject( key ) );
+		return new Bundle( data().optJSONObject( key ) );
 	}
 	
 	private Bundlable get() {
@@ -110,7 +136,7 @@ public class Bundle {
 	
 	public <E extends Enum<E>> E getEnum( String key, Class<E> enumClass ) {
 		try {
-			return (E)Enum.valueOf( enumClass, data.getString( key ) );
+			return (E)Enum.valueOf( enumClass, data().getString( key ) );
 		} catch (JSONException e) {
 			return enumClass.getEnumConstants()[0];
 		}
@@ -118,7 +144,7 @@ public class Bundle {
 	
 	public int[] getIntArray( String key ) {
 		try {
-			JSONArray array = data.getJSONArray( key );
+			JSONArray array = data().getJSONArray( key );
 			int length = array.length();
 			int[] result = new int[length];
 			for (int i=0; i < length; i++) {
@@ -132,7 +158,7 @@ public class Bundle {
 	
 	public boolean[] getBooleanArray( String key ) {
 		try {
-			JSONArray array = data.getJSONArray( key );
+			JSONArray array = data().getJSONArray( key );
 			int length = array.length();
 			boolean[] result = new boolean[length];
 			for (int i=0; i < length; i++) {
@@ -146,7 +172,7 @@ public class Bundle {
 	
 	public String[] getStringArray( String key ) {
 		try {
-			JSONArray array = data.getJSONArray( key );
+			JSONArray array = data().getJSONArray( key );
 			int length = array.length();
 			String[] result = new String[length];
 			for (int i=0; i < length; i++) {
@@ -163,7 +189,7 @@ public class Bundle {
 		ArrayList<Bundlable> list = new ArrayList<Bundlable>();
 		
 		try {
-			JSONArray array = data.getJSONArray( key );
+			JSONArray array = data().getJSONArray( key );
 			for (int i=0; i < array.length(); i++) {
 				list.add( new Bundle( array.getJSONObject( i ) ).get() );
 			}
@@ -175,6 +201,10 @@ public class Bundle {
 	}
 	
 	public void put( String key, boolean value ) {
+		if (sink != null) {
+			stream( key, value );
+			return;
+		}
 		try {
 			data.put( key, value );
 		} catch (JSONException e) {
@@ -183,6 +213,22 @@ public class Bundle {
 	}
 	
 	public void put( String key, int value ) {
+		if (sink != null) {
+			stream( key, value );
+			return;
+		}
+		try {
+			data.put( key, value );
+		} catch (JSONException e) {
+
+		}
+	}
+	
+	public void put( String key, long value ) {
+		if (sink != null) {
+			stream( key, value );
+			return;
+		}
 		try {
 			data.put( key, value );
 		} catch (JSONException e) {
@@ -191,6 +237,11 @@ public class Bundle {
 	}
 	
 	public void put( String key, float value ) {
+		if (sink != null) {
+			// Widened the same way JSONObject stores it
+			stream( key, (double)value );
+			return;
+		}
 		try {
 			data.put( key, value );
 		} catch (JSONException e) {
@@ -199,6 +250,12 @@ public class Bundle {
 	}
 	
 	public void put( String key, String value ) {
+		if (sink != null) {
+			if (value != null) {
+				stream( key, value );
+			}
+			return;
+		}
 		try {
 			data.put( key, value );
 		} catch (JSONException e) {
@@ -207,8 +264,12 @@ public class Bundle {
 	}
 	
 	public void put( String key, Bundle bundle ) {
+		if (sink != null) {
+			stream( key, bundle.data() );
+			return;
+		}
 		try {
-			data.put( key, bundle.data );
+			data.put( key, bundle.data() );
 		} catch (JSONException e) {
 
 		}
@@ -216,6 +277,10 @@ public class Bundle {
 	
 	public void put( String key, Bundlable object ) {
 		if (object != null) {
+			if (sink != null) {
+				streamObject( key, object );
+				return;
+			}
 			try {
 				Bundle bundle = new Bundle();
 				bundle.put( CLASS_NAME, object.getClass().getName() );
@@ -228,6 +293,10 @@ public class Bundle {
 	
 	public void put( String key, Enum<?> value ) {
 		if (value != null) {
+			if (sink != null) {
+				stream( key, value.name() );
+				return;
+			}
 			try {
 				data.put( key, value.name() );
 			} catch (JSONException e) {
@@ -236,6 +305,10 @@ public class Bundle {
 	}
 	
 	public void put( String key, int[] array ) {
+		if (sink != null) {
+			stream( key, array );
+			return;
+		}
 		try {
 			JSONArray jsonArray = new JSONArray();
 			for (int i=0; i < array.length; i++) {
@@ -248,6 +321,10 @@ public class Bundle {
 	}
 	
 	public void put( String key, boolean[] array ) {
+		if (sink != null) {
+			stream( key, array );
+			return;
+		}
 		try {
 			JSONArray jsonArray = new JSONArray();
 			for (int i=0; i < array.length; i++) {
@@ -260,6 +337,10 @@ public class Bundle {
 	}
 	
 	public void put( String key, String[] array ) {
+		if (sink != null) {
+			stream( key, array );
+			return;
+		}
 		try {
 			JSONArray jsonArray = new JSONArray();
 			for (int i=0; i < array.length; i++) {
@@ -272,6 +353,20 @@ public class Bundle {
 	}
 	
 	public void put( String key, Collection<? extends Bundlable> collection ) {
+		if (sink != null) {
+			if (claim( key )) {
+				try {
+					sink.beginArray( key );
+					for (Bundlable object : collection) {
+						streamObject( null, object );
+					}
+					sink.endArray();
+				} catch (IOException e) {
+					sink.error = e;
+				}
+			}
+			return;
+		}
 		JSONArray array = new JSONArray();
 		for (Bundlable object : collection) {
 			Bundle bundle = new Bundle();
@@ -285,13 +380,71 @@ public class Bundle {
 			
 		}
 	}
-
+	
+	private void stream( String key, Object value ) {
+		if (claim( key )) {
+			try {
+				sink.value( key, value );
+			} catch (IOException e) {
+				sink.error = e;
+			}
+		}
+	}
+	
+	// The object writes its fields into a nested bundle 
+	// which passes them to the same sink right away
+	private void streamObject( String key, Bundlable object ) {
+		if (claim( key )) {
+			try {
+				sink.beginObject( key );
+				Bundle bundle = new Bundle( sink );
+				bundle.put( CLASS_NAME, object.getClass().getName() );
+				object.storeInBundle( bundle );
+				sink.endObject();
+			} catch (IOException e) {
+				sink.error = e;
+			}
+		}
+	}
+	
+	// A key put twice would be written twice, which the reader of
+	// the file rejects, so the whole stream fails instead. Elements
+	// of arrays have no keys.
+	private boolean claim( String key ) {
+		if (sink.error == null && key != null && !streamed.add( key )) {
+			sink.error = new IOException( "Duplicate key " + key );
+		}
+		return sink.error == null;
+	}
+	
 	private static final char XOR_KEY = 0x1F;
 
+	// Reads both binary bundles and the legacy XOR-encoded JSON ones
 	public static Bundle read( InputStream stream ) {
 		
 		try {
-			BufferedReader reader = new BufferedReader( new InputStreamReader( stream ) );
+			BufferedInputStream input = new BufferedInputStream( stream );
+			
+			byte[] header = new byte[BinaryBundle.MAGIC.length];
+			input.mark( header.length );
+			int length = 0;
+			int n;
+			while (length < header.length && (n = input.read( header, length, header.length - length )) > 0) {
+				length += n;
+			}
+			input.reset();
+			
+			if (length == header.length && BinaryBundle.hasMagic( header )) {
+				
+				BinaryBundle.Reader reader = new BinaryBundle.Reader( new DataInputStream( input ) );
+				reader.readHeader();
+				JSONObject json = reader.readObject();
+				input.close();
+				
+				return new Bundle( json );
+			}
+			
+			BufferedReader reader = new BufferedReader( new InputStreamReader( input ) );
 
 			StringBuilder builder = new StringBuilder();
 
@@ -326,20 +479,68 @@ public class Bundle {
 	}
 	
 	public static boolean write( Bundle bundle, OutputStream stream ) {
+		Bundle writer = writer( stream );
+		writer.putAll( bundle );
+		return writer.close();
+	}
+	
+	public static boolean writeBinary( Bundle bundle, OutputStream stream ) {
+		Bundle writer = binaryWriter( stream );
+		writer.putAll( bundle );
+		return writer.close();
+	}
+	
+	// Returns a bundle which writes everything put into it to the stream
+	// in the same format as write(), without keeping it in memory. 
+	// Nothing can be read back from it and a key can't be put twice,
+	// close() finishes the file and tells whether it was written.
+	public static Bundle writer( OutputStream stream ) {
+		return new Bundle( new JsonBundleSink( stream, XOR_KEY ) ).open();
+	}
+	
+	// Same as writer(), but in the format of writeBinary(). The memory
+	// stays the same only as long as the stream doesn't keep what's
+	// written, a ByteArrayOutputStream holds the whole file.
+	public static Bundle binaryWriter( OutputStream stream ) {
+		return new Bundle( new BinaryBundle.Writer( 
+			new DataOutputStream( new BufferedOutputStream( stream ) ) ) ).open();
+	}
+	
+	private Bundle open() {
 		try {
-			BufferedWriter writer = new BufferedWriter( new OutputStreamWriter( stream ) );
-
-			char[] chars = bundle.data.toString().toCharArray();
-			for (int i=0; i < chars.length; i++) {
-				chars[i] ^= XOR_KEY;
+			sink.beginRoot();
+		} catch (IOException e) {
+			sink.error = e;
+		}
+		return this;
+	}
+	
+	private void putAll( Bundle bundle ) {
+		if (sink.error == null) {
+			try {
+				sink.values( bundle.data() );
+			} catch (IOException e) {
+				sink.error = e;
 			}
-			writer.write( chars );
-			writer.close();
-			
-			return true;
+		}
+	}
+	
+	public boolean close() {
+		if (sink.error == null) {
+			try {
+				sink.endRoot();
+			} catch (IOException e) {
+				sink.error = e;
+			}
+		}
+		try {
+			sink.close();
 		} catch (IOException e) {
-			return false;
+			if (sink.error == null) {
+				sink.error = e;
+			}
 		}
+		return sink.error == null;
 	}
 	
 	public static void addAlias( Class<?> cl, String alias ) {
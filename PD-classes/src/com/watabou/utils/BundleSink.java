@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package com.watabou.utils;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Receives the contents of a bundle as they are put into it, so they can
+// be written out without building the whole tree in memory first
+abstract class BundleSink {
+
+	// The first failure, nothing is written after it
+	IOException error;
+
+	// The top level object, opened before anything else is written
+	abstract void beginRoot() throws IOException;
+	abstract void endRoot() throws IOException;
+
+	// Keys are null for the elements of arrays
+	abstract void beginObject( String key ) throws IOException;
+	abstract void endObject() throws IOException;
+
+	abstract void beginArray( String key ) throws IOException;
+	abstract void endArray() throws IOException;
+
+	// A Boolean, Integer, Double, String, int[], boolean[], String[],
+	// or a JSONObject holding a bundle built in memory
+	abstract void value( String key, Object value ) throws IOException;
+
+	abstract void close() throws IOException;
+
+	void values( JSONObject object ) throws IOException {
+		Iterator<?> keys = object.keys();
+		while (keys.hasNext()) {
+			String key = (String)keys.next();
+			try {
+				value( key, object.get( key ) );
+			} catch (JSONException e) {
+				throw new IOException( e.getMessage() );
+			}
+		}
+	}
+}
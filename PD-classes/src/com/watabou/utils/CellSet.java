@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package com.watabou.utils;
+
+import java.util.Arrays;
+
+// Set of map cells packed 64 to a long, so the operations on whole
+// sets work on a word at a time. Code which still indexes a boolean[]
+// can ask for view(): the array is kept in sync with every change made
+// through the set, but must not be written to directly.
+public class CellSet {
+
+	public final int size;
+
+	public final long[] words;
+
+	private boolean[] view;
+
+	public CellSet( int size ) {
+		this.size = size;
+		words = new long[(size + 63) >> 6];
+	}
+
+	public boolean[] view() {
+		if (view == null) {
+			view = new boolean[size];
+			for (int i=0; i < words.length; i++) {
+				flip( i, words[i] );
+			}
+		}
+		return view;
+	}
+
+	public boolean get( int cell ) {
+		return (words[cell >> 6] & (1L << cell)) != 0;
+	}
+
+	public void set( int cell ) {
+		words[cell >> 6] |= 1L << cell;
+		if (view != null) {
+			view[cell] = true;
+		}
+	}
+
+	public void clear( int cell ) {
+		words[cell >> 6] &= ~(1L << cell);
+		if (view != null) {
+			view[cell] = false;
+		}
+	}
+
+	public void set( int cell, boolean value ) {
+		if (value) {
+			set( cell );
+		} else {
+			clear( cell );
+		}
+	}
+
+	public void clear() {
+		Arrays.fill( words, 0 );
+		if (view != null) {
+			Arrays.fill( view, false );
+		}
+	}
+
+	public void fill() {
+		for (int i=0; i < words.length; i++) {
+			update( i, -1L );
+		}
+	}
+
+	public int count() {
+		int count = 0;
+		for (int i=0; i < words.length; i++) {
+			count += Long.bitCount( words[i] );
+		}
+		return count;
+	}
+
+	public boolean isEmpty() {
+		for (int i=0; i < words.length; i++) {
+			if (words[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// First cell of the set starting from "from", or -1
+	public int next( int from ) {
+		if (from >= size) {
+			return -1;
+		}
+		int i = from >> 6;
+		long word = words[i] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (i << 6) + Long.numberOfTrailingZeros( word );
+			}
+			if (++i == words.length) {
+				return -1;
+			}
+			word = words[i];
+		}
+	}
+
+	public CellSet copy( CellSet a ) {
+		for (int i=0; i < words.length; i++) {
+			update( i, a.words[i] );
+		}
+		return this;
+	}
+
+	public CellSet copy( boolean[] a ) {
+		for (int i=0; i < words.length; i++) {
+			long word = 0;
+			int base = i << 6;
+			int end = Math.min( base + 64, size );
+			for (int j=base; j < end; j++) {
+				if (a[j]) {
+					word |= 1L << j;
+				}
+			}
+			update( i, word );
+		}
+		return this;
+	}
+
+	public boolean[] toArray( boolean[] result ) {
+		if (result == null) {
+			result = new boolean[size];
+		}
+		for (int i=0; i < size; i++) {
+			result[i] = (words[i >> 6] & (1L << i)) != 0;
+		}
+		return result;
+	}
+
+	// this = a & b
+	public CellSet and( CellSet a, CellSet b ) {
+		for (int i=0; i < words.length; i++) {
+			update( i, a.words[i] & b.words[i] );
+		}
+		return this;
+	}
+
+	// this = a | b
+	public CellSet or( CellSet a, CellSet b ) {
+		for (int i=0; i < words.length; i++) {
+			update( i, a.words[i] | b.words[i] );
+		}
+		return this;
+	}
+
+	// this = a & ~b
+	public CellSet andNot( CellSet a, CellSet b ) {
+		for (int i=0; i < words.length; i++) {
+			update( i, a.words[i] & ~b.words[i] );
+		}
+		return this;
+	}
+
+	// this = a ^ b
+	public CellSet xor( CellSet a, CellSet b ) {
+		for (int i=0; i < words.length; i++) {
+			update( i, a.words[i] ^ b.words[i] );
+		}
+		return this;
+	}
+
+	// this = ~a
+	public CellSet not( CellSet a ) {
+		for (int i=0; i < words.length; i++) {
+			update( i, ~a.words[i] );
+		}
+		return this;
+	}
+
+	private void update( int i, long word ) {
+		// Cells past the end are never set
+		if (i == words.length - 1 && (size & 63) != 0) {
+			word &= (1L << size) - 1;
+		}
+		long changed = words[i] ^ word;
+		if (changed != 0) {
+			words[i] = word;
+			if (view != null) {
+				flip( i, changed );
+			}
+		}
+	}
+
+	// Only the cells which changed are written to the view
+	private void flip( int i, long changed ) {
+		int base = i << 6;
+		while (changed != 0) {
+			int bit = Long.numberOfTrailingZeros( changed );
+			view[base + bit] = !view[base + bit];
+			changed &= changed - 1;
+		}
+	}
+}
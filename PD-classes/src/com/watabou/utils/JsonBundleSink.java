@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package com.watabou.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Writes the same XOR-encoded JSON text as JSONObject.toString() would,
+// one value at a time
+class JsonBundleSink extends BundleSink {
+
+	private Writer writer;
+
+	private char[] buffer = new char[0x400];
+
+	// Whether anything was written on each level of nesting
+	private boolean[] started = new boolean[16];
+	private int depth = 0;
+
+	JsonBundleSink( OutputStream stream, char xorKey ) {
+		writer = new XorWriter( new BufferedWriter( new OutputStreamWriter( stream ) ), xorKey );
+	}
+
+	@Override
+	void beginRoot() throws IOException {
+		beginObject( null );
+	}
+
+	@Override
+	void endRoot() throws IOException {
+		endObject();
+	}
+
+	@Override
+	void beginObject( String key ) throws IOException {
+		separate( key );
+		writer.write( '{' );
+		push();
+	}
+
+	@Override
+	void endObject() throws IOException {
+		depth--;
+		writer.write( '}' );
+	}
+
+	@Override
+	void beginArray( String key ) throws IOException {
+		separate( key );
+		writer.write( '[' );
+		push();
+	}
+
+	@Override
+	void endArray() throws IOException {
+		depth--;
+		writer.write( ']' );
+	}
+
+	@Override
+	void value( String key, Object value ) throws IOException {
+
+		separate( key );
+
+		if (value instanceof int[]) {
+			int[] array = (int[])value;
+			writer.write( '[' );
+			for (int i=0; i < array.length; i++) {
+				if (i > 0) {
+					writer.write( ',' );
+				}
+				writer.write( Integer.toString( array[i] ) );
+			}
+			writer.write( ']' );
+		} else if (value instanceof boolean[]) {
+			boolean[] array = (boolean[])value;
+			writer.write( '[' );
+			for (int i=0; i < array.length; i++) {
+				if (i > 0) {
+					writer.write( ',' );
+				}
+				writer.write( array[i] ? "true" : "false" );
+			}
+			writer.write( ']' );
+		} else if (value instanceof String[]) {
+			String[] array = (String[])value;
+			writer.write( '[' );
+			for (int i=0; i < array.length; i++) {
+				if (i > 0) {
+					writer.write( ',' );
+				}
+				// quote() would turn a null into an empty string
+				writer.write( array[i] != null ? JSONObject.quote( array[i] ) : JSONObject.NULL.toString() );
+			}
+			writer.write( ']' );
+		} else {
+			try {
+				tree( value );
+			} catch (JSONException e) {
+				throw new IOException( e.getMessage() );
+			}
+		}
+	}
+
+	private void tree( Object value ) throws IOException, JSONException {
+
+		if (value instanceof JSONObject) {
+
+			JSONObject object = (JSONObject)value;
+			writer.write( '{' );
+			Iterator<?> keys = object.keys();
+			boolean first = true;
+			while (keys.hasNext()) {
+				String key = (String)keys.next();
+				if (!first) {
+					writer.write( ',' );
+				}
+				first = false;
+				writer.write( JSONObject.quote( key ) );
+				writer.write( ':' );
+				tree( object.get( key ) );
+			}
+			writer.write( '}' );
+
+		} else if (value instanceof JSONArray) {
+
+			JSONArray array = (JSONArray)value;
+			writer.write( '[' );
+			for (int i=0; i < array.length(); i++) {
+				if (i > 0) {
+					writer.write( ',' );
+				}
+				// get() throws on the gaps, valueToString() writes them as null
+				tree( array.opt( i ) );
+			}
+			writer.write( ']' );
+
+		} else {
+			writer.write( JSONObject.valueToString( value ) );
+		}
+	}
+
+	@Override
+	void close() throws IOException {
+		writer.close();
+	}
+
+	private void separate( String key ) throws IOException {
+
+		if (depth > 0) {
+			if (started[depth - 1]) {
+				writer.write( ',' );
+			} else {
+				started[depth - 1] = true;
+			}
+		}
+
+		if (key != null) {
+			writer.write( JSONObject.quote( key ) );
+			writer.write( ':' );
+		}
+	}
+
+	private void push() {
+		if (depth == started.length) {
+			boolean[] grown = new boolean[depth * 2];
+			System.arraycopy( started, 0, grown, 0, depth );
+			started = grown;
+		}
+		started[depth++] = false;
+	}
+
+	private class XorWriter extends Writer {
+
+		private Writer out;
+		private char key;
+
+		public XorWriter( Writer out, char key ) {
+			this.out = out;
+			this.key = key;
+		}
+
+		@Override
+		public void write( char[] chars, int offset, int length ) throws IOException {
+			while (length > 0) {
+				int count = Math.min( length, buffer.length );
+				for (int i=0; i < count; i++) {
+					buffer[i] = (char)(chars[offset + i] ^ key);
+				}
+				out.write( buffer, 0, count );
+				offset += count;
+				length -= count;
+			}
+		}
+
+		@Override
+		public void write( String str ) throws IOException {
+			int length = str.length();
+			int offset = 0;
+			while (length > 0) {
+				int count = Math.min( length, buffer.length );
+				str.getChars( offset, offset + count, buffer, 0 );
+				for (int i=0; i < count; i++) {
+					buffer[i] ^= key;
+				}
+				out.write( buffer, 0, count );
+				offset += count;
+				length -= count;
+			}
+		}
+
+		@Override
+		public void write( int c ) throws IOException {
+			out.write( c ^ key );
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+}
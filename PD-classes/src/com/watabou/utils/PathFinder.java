@@ -21,179 +21,77 @@ import java.util.Arrays;
 import java.util.LinkedList;
 
 public class PathFinder {
-	
+
 	public static int[] distance;
-	
-	private static boolean[] goals;
+
 	private static int[] queue;
-	
+
 	private static int size = 0;
 
 	private static int[] dir;
-	
+
+	// Shared workspace behind the static methods
+	private static Workspace shared;
+
 	public static void setMapSize( int width, int height ) {
-		
+
 		int size = width * height;
-		
+
 		if (PathFinder.size != size) {
-			
+
 			PathFinder.size = size;
 			distance = new int[size];
-			goals = new boolean[size];
 			queue = new int[size];
-			
+
 			dir = new int[]{-1, +1, -width, +width, -width-1, -width+1, +width-1, +width+1};
+
+			shared = new Workspace( width, height );
 		}
 	}
-	
+
 	public static Path find( int from, int to, boolean[] passable ) {
 
-		if (!buildDistanceMap( from, to, passable )) {
+		int length = shared.find( from, to, passable );
+		if (length < 0) {
 			return null;
 		}
-		
-		Path result = new Path();
-		int s = from;
 
-		// From the starting position we are moving downwards, 
-		// until we reach the ending point
-		do {
-			int minD = distance[s];
-			int mins = s;
-			
-			for (int i=0; i < dir.length; i++) {
-				
-				int n = s + dir[i];
-				
-				int thisD = distance[n];
-				if (thisD < minD) {
-					minD = thisD;
-					mins = n;
-				}
-			}
-			s = mins;
-			result.add( s );
-		} while (s != to);
-		
+		Path result = new Path();
+		for (int i=0; i < length; i++) {
+			result.add( shared.path[i] );
+		}
 		return result;
 	}
-	
-	public static int getStep( int from, int to, boolean[] passable ) {
-		
-		if (!buildDistanceMap( from, to, passable )) {
-			return -1;
-		}
-		
-		// From the starting position we are making one step downwards
-		int minD = distance[from];
-		int best = from;
-		
-		int step, stepD;
-		
-		for (int i=0; i < dir.length; i++) {
-
-			if ((stepD = distance[step = from + dir[i]]) < minD) {
-				minD = stepD;
-				best = step;
-			}
-		}
 
-		return best;
+	public static int getStep( int from, int to, boolean[] passable ) {
+		return shared.getStep( from, to, passable );
 	}
-	
-	public static int getStepBack( int cur, int from, boolean[] passable ) {
-
-		int d = buildEscapeDistanceMap( cur, from, 2f, passable );
-		for (int i=0; i < size; i++) {
-			goals[i] = distance[i] == d; 
-		}
-		if (!buildDistanceMap( cur, goals, passable )) {
-			return -1;
-		}
 
-		int s = cur;
-		
-		// From the starting position we are making one step downwards
-		int minD = distance[s];
-		int mins = s;
-		
-		for (int i=0; i < dir.length; i++) {
-
-			int n = s + dir[i];
-			int thisD = distance[n];
-			
-			if (thisD < minD) {
-				minD = thisD;
-				mins = n;
-			}
-		}
-
-		return mins;
+	public static int getStepBack( int cur, int from, boolean[] passable ) {
+		return shared.getStepBack( cur, from, passable );
 	}
-	
-	private static boolean buildDistanceMap( int from, int to, boolean[] passable ) {
-		
-		if (from == to) {
-			return false;
-		}
-		
-		Arrays.fill( distance, Integer.MAX_VALUE );
-		
-		boolean pathFound = false;
-		
-		int head = 0;
-		int tail = 0;
-		
-		// Add to queue
-		queue[tail++] = to;
-		distance[to] = 0;
-		
-		while (head < tail) {
-			
-			// Remove from queue
-			int step = queue[head++];
-			if (step == from) {
-				pathFound = true;
-				break;
-			}
-			int nextDistance = distance[step] + 1;
-			
-			for (int i=0; i < dir.length; i++) {
 
-				int n = step + dir[i];
-				if (n == from || (n >= 0 && n < size && passable[n] && (distance[n] > nextDistance))) {
-					// Add to queue
-					queue[tail++] = n;
-					distance[n] = nextDistance;
-				}
-					
-			}
-		}
-		
-		return pathFound;
-	}
-	
 	public static void buildDistanceMap( int to, boolean[] passable, int limit ) {
-		
+
 		Arrays.fill( distance, Integer.MAX_VALUE );
-		
+
 		int head = 0;
 		int tail = 0;
-		
+
 		// Add to queue
 		queue[tail++] = to;
 		distance[to] = 0;
-		
+
 		while (head < tail) {
-			
+
 			// Remove from queue
 			int step = queue[head++];
-			
+
 			int nextDistance = distance[step] + 1;
 			if (nextDistance > limit) {
 				return;
 			}
-			
+
 			for (int i=0; i < dir.length; i++) {
 
 				int n = step + dir[i];
@@ -202,135 +100,390 @@ public class PathFinder {
 					queue[tail++] = n;
 					distance[n] = nextDistance;
 				}
-					
+
 			}
 		}
 	}
-	
-	private static boolean buildDistanceMap( int from, boolean[] to, boolean[] passable ) {
-		
-		if (to[from]) {
-			return false;
+
+	@SuppressWarnings("serial")
+	public static class Path extends LinkedList<Integer> {
+	}
+
+	// All the state a search needs. Distances are valid only for cells
+	// stamped with the current generation, so starting a new search
+	// doesn't require clearing the whole map. A caller which searches
+	// often can keep its own workspace instead of sharing the static one.
+	public static class Workspace {
+
+		// When set, getStep and find use A* instead of a full BFS
+		public boolean astar = true;
+
+		// Result of the last find(), valid up to its returned length
+		public final int[] path;
+
+		public final int width;
+		public final int size;
+
+		private final int[] dir;
+
+		private final int[] distance;
+		private final int[] stamp;
+		private final int[] closed;
+		private int generation = 0;
+
+		private final int[] queue;
+
+		// Binary heap of cells for A*, a cell may be in it several times
+		private final int[] heap;
+		private final int[] heapKeys;
+		private int heapSize;
+
+		public Workspace( int width, int height ) {
+
+			this.width = width;
+			size = width * height;
+
+			dir = new int[]{-1, +1, -width, +width, -width-1, -width+1, +width-1, +width+1};
+
+			path = new int[size];
+
+			distance = new int[size];
+			stamp = new int[size];
+			closed = new int[size];
+
+			queue = new int[size];
+
+			heap = new int[size * dir.length + 1];
+			heapKeys = new int[heap.length];
 		}
-		
-		Arrays.fill( distance, Integer.MAX_VALUE );
-		
-		boolean pathFound = false;
-		
-		int head = 0;
-		int tail = 0;
-		
-		// Add to queue
-		for (int i=0; i < size; i++) {
-			if (to[i]) {
-				queue[tail++] = i;
-				distance[i] = 0;
+
+		public int distance( int cell ) {
+			return stamp[cell] == generation ? distance[cell] : Integer.MAX_VALUE;
+		}
+
+		public int getStep( int from, int to, boolean[] passable ) {
+
+			if (!(astar ?
+				buildPath( from, to, passable ) :
+				buildDistanceMap( from, to, passable ))) {
+
+				return -1;
 			}
+
+			return stepDown( from );
 		}
-		
-		while (head < tail) {
-			
-			// Remove from queue
-			int step = queue[head++];
-			if (step == from) {
-				pathFound = true;
-				break;
+
+		// Fills "path" with the cells from "from" (exclusive) to "to"
+		// (inclusive) and returns their number, or -1 if there is no path
+		public int find( int from, int to, boolean[] passable ) {
+
+			if (!(astar ?
+				buildPath( from, to, passable ) :
+				buildDistanceMap( from, to, passable ))) {
+
+				return -1;
 			}
-			int nextDistance = distance[step] + 1;
-			
+
+			int length = 0;
+			int s = from;
+
+			// From the starting position we are moving downwards,
+			// until we reach the ending point
+			do {
+				s = stepDown( s );
+				path[length++] = s;
+			} while (s != to);
+
+			return length;
+		}
+
+		public int getStepBack( int cur, int from, boolean[] passable ) {
+
+			int goals = buildEscapeDistanceMap( cur, from, 2f, passable );
+			if (!buildEscapePath( cur, goals, passable )) {
+				return -1;
+			}
+
+			return stepDown( cur );
+		}
+
+		// Neighbour of the cell with the smallest distance
+		// or the cell itself if there is no closer neighbour
+		private int stepDown( int s ) {
+
+			int minD = distance( s );
+			int mins = s;
+
 			for (int i=0; i < dir.length; i++) {
 
-				int n = step + dir[i];
-				if (n == from || (n >= 0 && n < size && passable[n] && (distance[n] > nextDistance))) {
-					// Add to queue
-					queue[tail++] = n;
-					distance[n] = nextDistance;
+				int n = s + dir[i];
+
+				int thisD = distance( n );
+				if (thisD < minD) {
+					minD = thisD;
+					mins = n;
 				}
-					
 			}
+
+			return mins;
 		}
-		
-		return pathFound;
-	}
-	
-	private static int buildEscapeDistanceMap( int cur, int from, float factor, boolean[] passable ) {
-		
-		Arrays.fill( distance, Integer.MAX_VALUE );
-		
-		int destDist = Integer.MAX_VALUE;
-		
-		int head = 0;
-		int tail = 0;
-		
-		// Add to queue
-		queue[tail++] = from;
-		distance[from] = 0;
-		
-		int dist = 0;
-		
-		while (head < tail) {
-			
-			// Remove from queue
-			int step = queue[head++];
-			dist = distance[step];
-			
-			if (dist > destDist) {
-				return destDist;
+
+		private void nextGeneration() {
+			if (++generation == Integer.MAX_VALUE) {
+				Arrays.fill( stamp, 0 );
+				Arrays.fill( closed, 0 );
+				generation = 1;
 			}
-			
-			if (step == cur) {
-				destDist = (int)(dist * factor) + 1;
+		}
+
+		// Breadth-first search from "to" which stops as soon as "from" is reached
+		private boolean buildDistanceMap( int from, int to, boolean[] passable ) {
+
+			if (from == to) {
+				return false;
 			}
-			
-			int nextDistance = dist + 1;
-			
-			for (int i=0; i < dir.length; i++) {
 
-				int n = step + dir[i];
-				if (n >= 0 && n < size && passable[n] && distance[n] > nextDistance) {
-					// Add to queue
-					queue[tail++] = n;
-					distance[n] = nextDistance;
+			nextGeneration();
+
+			int head = 0;
+			int tail = 0;
+
+			// Add to queue
+			queue[tail++] = to;
+			distance[to] = 0;
+			stamp[to] = generation;
+
+			while (head < tail) {
+
+				// Remove from queue
+				int step = queue[head++];
+				if (step == from) {
+					return true;
+				}
+				int nextDistance = distance[step] + 1;
+
+				for (int i=0; i < dir.length; i++) {
+
+					int n = step + dir[i];
+					if (n >= 0 && n < size && (n == from || passable[n]) && distance( n ) > nextDistance) {
+						// Add to queue
+						queue[tail++] = n;
+						distance[n] = nextDistance;
+						stamp[n] = generation;
+					}
 				}
-					
 			}
+
+			return false;
 		}
-		
-		return dist;
-	}
-	
-	@SuppressWarnings("unused")
-	private static void buildDistanceMap( int to, boolean[] passable ) {
-		
-		Arrays.fill( distance, Integer.MAX_VALUE );
-		
-		int head = 0;
-		int tail = 0;
-		
-		// Add to queue
-		queue[tail++] = to;
-		distance[to] = 0;
-		
-		while (head < tail) {
-			
-			// Remove from queue
-			int step = queue[head++];
-			int nextDistance = distance[step] + 1;
-			
-			for (int i=0; i < dir.length; i++) {
 
-				int n = step + dir[i];
-				if (n >= 0 && n < size && passable[n] && (distance[n] > nextDistance)) {
-					// Add to queue
-					queue[tail++] = n;
-					distance[n] = nextDistance;
+		// A* search from "to" towards "from". A step in any of 8 directions
+		// costs the same, so the octile heuristic degenerates to Chebyshev
+		// distance, which is consistent: a closed cell never gets a
+		// shorter distance later and the cells around "from" have exact
+		// distances when it's reached.
+		private boolean buildPath( int from, int to, boolean[] passable ) {
+
+			if (from == to) {
+				return false;
+			}
+
+			nextGeneration();
+
+			int fx = from % width;
+			int fy = from / width;
+
+			heapSize = 0;
+			distance[to] = 0;
+			stamp[to] = generation;
+			push( to, heuristic( to, fx, fy ), 0 );
+
+			while (heapSize > 0) {
+
+				int step = pop();
+				if (closed[step] == generation) {
+					continue;
+				}
+				closed[step] = generation;
+
+				if (step == from) {
+					return true;
+				}
+				int nextDistance = distance[step] + 1;
+
+				for (int i=0; i < dir.length; i++) {
+
+					int n = step + dir[i];
+					if (n >= 0 && n < size && (n == from || passable[n]) &&
+						closed[n] != generation && distance( n ) > nextDistance) {
+
+						distance[n] = nextDistance;
+						stamp[n] = generation;
+						push( n, nextDistance + heuristic( n, fx, fy ), nextDistance );
+					}
 				}
-					
 			}
+
+			return false;
+		}
+
+		private int heuristic( int cell, int fx, int fy ) {
+			int dx = Math.abs( cell % width - fx );
+			int dy = Math.abs( cell / width - fy );
+			return Math.max( dx, dy );
+		}
+
+		// Cells with the same estimate are ordered by the distance
+		// already travelled, the longest first
+		private void push( int cell, int estimate, int travelled ) {
+
+			int key = (estimate << 16) - travelled;
+
+			int i = heapSize++;
+			while (i > 0) {
+				int parent = (i - 1) >> 1;
+				if (heapKeys[parent] <= key) {
+					break;
+				}
+				heap[i] = heap[parent];
+				heapKeys[i] = heapKeys[parent];
+				i = parent;
+			}
+			heap[i] = cell;
+			heapKeys[i] = key;
+		}
+
+		private int pop() {
+
+			int result = heap[0];
+
+			int cell = heap[--heapSize];
+			int key = heapKeys[heapSize];
+
+			int i = 0;
+			int half = heapSize >> 1;
+			while (i < half) {
+				int child = (i << 1) + 1;
+				if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+					child++;
+				}
+				if (key <= heapKeys[child]) {
+					break;
+				}
+				heap[i] = heap[child];
+				heapKeys[i] = heapKeys[child];
+				i = child;
+			}
+			heap[i] = cell;
+			heapKeys[i] = key;
+
+			return result;
+		}
+
+		// Multi-source breadth-first search from the first "goals" cells
+		// of the queue, stops as soon as "from" is reached
+		private boolean buildEscapePath( int from, int goals, boolean[] passable ) {
+
+			nextGeneration();
+
+			for (int i=0; i < goals; i++) {
+				int g = queue[i];
+				if (g == from) {
+					return false;
+				}
+				distance[g] = 0;
+				stamp[g] = generation;
+			}
+
+			int head = 0;
+			int tail = goals;
+
+			while (head < tail) {
+
+				// Remove from queue
+				int step = queue[head++];
+				if (step == from) {
+					return true;
+				}
+				int nextDistance = distance[step] + 1;
+
+				for (int i=0; i < dir.length; i++) {
+
+					int n = step + dir[i];
+					if (n >= 0 && n < size && (n == from || passable[n]) && distance( n ) > nextDistance) {
+						// Add to queue
+						queue[tail++] = n;
+						distance[n] = nextDistance;
+						stamp[n] = generation;
+					}
+				}
+			}
+
+			return false;
+		}
+
+		// Breadth-first search from "from" which goes "factor" times further
+		// than "cur" is. Cells at the resulting distance become the goals
+		// of the escape, they are moved to the head of the queue and
+		// their number is returned.
+		private int buildEscapeDistanceMap( int cur, int from, float factor, boolean[] passable ) {
+
+			nextGeneration();
+
+			int destDist = Integer.MAX_VALUE;
+
+			int head = 0;
+			int tail = 0;
+
+			// Add to queue
+			queue[tail++] = from;
+			distance[from] = 0;
+			stamp[from] = generation;
+
+			int dist = 0;
+
+			while (head < tail) {
+
+				// Remove from queue
+				int step = queue[head++];
+				dist = distance[step];
+
+				if (dist > destDist) {
+					dist = destDist;
+					break;
+				}
+
+				if (step == cur) {
+					destDist = (int)(dist * factor) + 1;
+				}
+
+				int nextDistance = dist + 1;
+
+				for (int i=0; i < dir.length; i++) {
+
+					int n = step + dir[i];
+					if (n >= 0 && n < size && passable[n] && distance( n ) > nextDistance) {
+						// Add to queue
+						queue[tail++] = n;
+						distance[n] = nextDistance;
+						stamp[n] = generation;
+					}
+				}
+			}
+
+			// Cells are queued in the order of their distances,
+			// so the goals form a single run of the queue
+			int first = tail;
+			while (first > 0 && distance[queue[first - 1]] >= dist) {
+				first--;
+			}
+			int last = first;
+			while (last < tail && distance[queue[last]] == dist) {
+				last++;
+			}
+
+			System.arraycopy( queue, first, queue, 0, last - first );
+			return last - first;
 		}
-	}
-	
-	@SuppressWarnings("serial")
-	public static class Path extends LinkedList<Integer> {
 	}
 }
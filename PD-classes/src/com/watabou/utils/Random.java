@@ -17,37 +17,118 @@
 
 package com.watabou.utils;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Random {
 
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	
+	// A SplitMix64 generator. Streams seeded with different seeds are
+	// independent enough for a game, so each thread and each purpose 
+	// can have its own one instead of sharing Math.random()
+	public static class Stream {
+		
+		private long state;
+		
+		public Stream( long seed ) {
+			state = seed;
+		}
+		
+		// It can be saved and passed back to the constructor to continue the stream
+		public long state() {
+			return state;
+		}
+		
+		public long nextLong() {
+			return mix( state += GOLDEN_GAMMA );
+		}
+		
+		public double nextDouble() {
+			return (nextLong() >>> 11) * 0x1.0p-53;
+		}
+		
+		// A new stream independent from this one
+		public Stream split() {
+			return new Stream( nextLong() );
+		}
+	}
+	
+	private static final AtomicLong seeds = new AtomicLong( System.nanoTime() );
+	
+	// Streams pushed on each thread, the bottom one isn't seeded
+	private static final ThreadLocal<ArrayDeque<Stream>> streams = new ThreadLocal<ArrayDeque<Stream>>() {
+		@Override
+		protected ArrayDeque<Stream> initialValue() {
+			ArrayDeque<Stream> stack = new ArrayDeque<Stream>();
+			stack.push( new Stream( mix( seeds.addAndGet( GOLDEN_GAMMA ) ) ) );
+			return stack;
+		}
+	};
+	
+	private static long mix( long z ) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	// The seed of the stream with the index among the ones derived from the seed
+	public static long seed( long seed, int index ) {
+		return mix( seed + index * GOLDEN_GAMMA );
+	}
+	
+	// Everything below takes numbers from the stream pushed last on the calling thread
+	public static void pushGenerator( long seed ) {
+		pushGenerator( new Stream( seed ) );
+	}
+	
+	public static void pushGenerator( Stream stream ) {
+		streams.get().push( stream );
+	}
+	
+	public static void popGenerator() {
+		ArrayDeque<Stream> stack = streams.get();
+		if (stack.size() > 1) {
+			stack.pop();
+		}
+	}
+	
+	private static double random() {
+		return streams.get().peek().nextDouble();
+	}
+	
+	public static long Long() {
+		return streams.get().peek().nextLong();
+	}
+	
 	public static float Float( float min, float max ) {
-		return (float)(min + Math.random() * (max - min)); 
+		return (float)(min + random() * (max - min)); 
 	}
 	
 	public static float Float( float max ) {
-		return (float)(Math.random() * max);
+		return (float)(random() * max);
 	}
 	
 	public static float Float() {
-		return (float)Math.random();
+		return (float)random();
 	}
 	
 	public static int Int( int max ) {
-		return max > 0 ? (int)(Math.random() * max) : 0;
+		return max > 0 ? (int)(random() * max) : 0;
 	}
 	
 	public static int Int( int min, int max ) {
-		return min + (int)(Math.random() * (max - min));
+		return min + (int)(random() * (max - min));
 	}
 	
 	public static int IntRange( int min, int max ) {
-		return min + (int)(Math.random() * (max - min + 1));
+		return min + (int)(random() * (max - min + 1));
 	}
 	
 	public static int NormalIntRange( int min, int max ) {
-		return min + (int)((Math.random() + Math.random()) * (max - min + 1) / 2f);
+		return min + (int)((random() + random()) * (max - min + 1) / 2f);
 	}
 	
 	public static int chances( float[] chances ) {
@@ -98,11 +179,11 @@ public class Random {
 	}
 	
 	public static int index( Collection<?> collection ) {
-		return (int)(Math.random() * collection.size());
+		return (int)(random() * collection.size());
 	}
 	
 	public static<T> T oneOf( T... array ) {
-		return array[(int)(Math.random() * array.length)];
+		return array[(int)(random() * array.length)];
 	}
 	
 	public static<T> T element( T[] array ) {
@@ -110,7 +191,7 @@ public class Random {
 	}
 	
 	public static<T> T element( T[] array, int max ) {
-		return array[(int)(Math.random() * max)];
+		return array[(int)(random() * max)];
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,217 @@
+package net.whitegem.pixeldungeon;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Format string split once into literal text and conversions, so formatting a
+ * message only appends its pieces. Only the conversions used by the game and
+ * the translation files are handled here: %s, %d and %+d, optionally with an
+ * explicit argument index, as well as %% and %n. A template with anything else
+ * in it, or arguments it can't render the same way, is passed to String.format.
+ */
+public class FormatTemplate
+{
+    private static final int LITERAL = 0;
+    private static final int STRING = 1;
+    private static final int DECIMAL = 2;
+    private static final int SIGNED_DECIMAL = 3;
+
+    private static final LruCache<String, FormatTemplate> templates = new LruCache<String, FormatTemplate>(256);
+
+    private String format;
+
+    // null when the format has to go through String.format
+    private int[] kinds;
+    private String[] literals;
+    private int[] arguments;
+
+    private FormatTemplate(String format)
+    {
+        this.format = format;
+        parse();
+    }
+
+    public static FormatTemplate of(String format)
+    {
+        FormatTemplate template = templates.get(format);
+        if (template == null)
+        {
+            template = new FormatTemplate(format);
+            templates.put(format, template);
+        }
+        return template;
+    }
+
+    public static LruCache<String, FormatTemplate> cache()
+    {
+        return templates;
+    }
+
+    public String format(Object... args)
+    {
+        if (kinds == null)
+        {
+            return String.format(Locale.ENGLISH, format, args);
+        }
+
+        for (int i = 0; i < kinds.length; i++)
+        {
+            if (kinds[i] == LITERAL)
+            {
+                continue;
+            }
+            if (args == null || arguments[i] >= args.length)
+            {
+                // let String.format report the missing argument
+                return String.format(Locale.ENGLISH, format, args);
+            }
+            if (kinds[i] != STRING && !isInteger(args[arguments[i]]))
+            {
+                return String.format(Locale.ENGLISH, format, args);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(format.length() + 32);
+        for (int i = 0; i < kinds.length; i++)
+        {
+            switch (kinds[i])
+            {
+                case LITERAL:
+                    sb.append(literals[i]);
+                    break;
+                case STRING:
+                    sb.append(args[arguments[i]]);
+                    break;
+                case SIGNED_DECIMAL:
+                    long value = ((Number) args[arguments[i]]).longValue();
+                    if (value >= 0)
+                    {
+                        sb.append('+');
+                    }
+                    sb.append(value);
+                    break;
+                default:
+                    sb.append(((Number) args[arguments[i]]).longValue());
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isInteger(Object arg)
+    {
+        return arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte;
+    }
+
+    private void parse()
+    {
+        ArrayList<Integer> kindList = new ArrayList<Integer>();
+        ArrayList<String> literalList = new ArrayList<String>();
+        ArrayList<Integer> argumentList = new ArrayList<Integer>();
+
+        StringBuilder literal = new StringBuilder();
+        int next = 0;
+        int length = format.length();
+        int i = 0;
+        while (i < length)
+        {
+            char c = format.charAt(i++);
+            if (c != '%')
+            {
+                literal.append(c);
+                continue;
+            }
+            if (i >= length)
+            {
+                return;
+            }
+
+            // optional explicit argument index
+            int index = -1;
+            int j = i;
+            while (j < length && Character.isDigit(format.charAt(j)))
+            {
+                j++;
+            }
+            if (j > i && j < length && format.charAt(j) == '$')
+            {
+                index = Integer.parseInt(format.substring(i, j)) - 1;
+                if (index < 0)
+                {
+                    return;
+                }
+                i = j + 1;
+            }
+
+            boolean plus = false;
+            if (i < length && format.charAt(i) == '+')
+            {
+                plus = true;
+                i++;
+            }
+            if (i >= length)
+            {
+                return;
+            }
+
+            char conversion = format.charAt(i++);
+            int kind;
+            if (conversion == '%' && index < 0 && !plus)
+            {
+                literal.append('%');
+                continue;
+            }
+            else if (conversion == 'n' && index < 0 && !plus)
+            {
+                literal.append(System.getProperty("line.separator"));
+                continue;
+            }
+            else if (conversion == 's' && !plus)
+            {
+                kind = STRING;
+            }
+            else if (conversion == 'd')
+            {
+                kind = plus ? SIGNED_DECIMAL : DECIMAL;
+            }
+            else
+            {
+                // leaves kinds unset
+                return;
+            }
+
+            if (index < 0)
+            {
+                index = next++;
+            }
+
+            if (literal.length() > 0)
+            {
+                kindList.add(LITERAL);
+                literalList.add(literal.toString());
+                argumentList.add(-1);
+                literal.setLength(0);
+            }
+            kindList.add(kind);
+            literalList.add(null);
+            argumentList.add(index);
+        }
+        if (literal.length() > 0)
+        {
+            kindList.add(LITERAL);
+            literalList.add(literal.toString());
+            argumentList.add(-1);
+        }
+
+        kinds = new int[kindList.size()];
+        literals = new String[kinds.length];
+        arguments = new int[kinds.length];
+        for (int k = 0; k < kinds.length; k++)
+        {
+            kinds[k] = kindList.get(k);
+            literals[k] = literalList.get(k);
+            arguments[k] = argumentList.get(k);
+        }
+    }
+}
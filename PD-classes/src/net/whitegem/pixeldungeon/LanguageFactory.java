@@ -8,7 +8,8 @@ public class LanguageFactory
     public static final LanguageFactory INSTANCE;
 
     private Translator translator;
-    public StoredFormat stored = new StoredFormat();
+    // recently formatted messages and their translations
+    public LruCache<String, String> stored = new LruCache<String, String>(64);
 
     public String language;
 
@@ -30,82 +31,67 @@ public class LanguageFactory
 
     public String translate(String originalText)
     {
-        System.out.println("Translating >>> " + originalText);
-        String textTemp = originalText.replace("\n", "\\n").trim().toLowerCase();
-        if (translator.hasKey(textTemp))
-        {
-            return translator.translate(textTemp).replace("\\n", "\n");
-        }
-        if (translator.hasKey(textTemp.replaceAll("\\.$", "")))
-        {
-            return translator.translate(textTemp.replaceAll("\\.$", "")).replace("\\n", "\n") + ".";
-        }
-        return originalText;
+        String translated = translator.get(originalText, false);
+        return translated != null ? translated : originalText;
     }
 
     public boolean hasKey(String key)
     {
-        key = key.trim().replace("\n", "\\n");
-        return translator.hasKey(key) || translator.hasKey(key.replaceAll("\\.$", ""));
+        return translator.get(key, true) != null;
     }
 
     public void addFormatTranslation(String formattedText, String format, Object...args)
     {
-        System.out.println("Utils.format >>> " + formattedText + " ||| " + format + " ||| " + args);
         for (int i = 0; i < args.length; i++)
         {
             if (args[i] instanceof String)
             {
-                System.out.println(args[i]);
-                if (stored.contains(args[i].toString().toLowerCase()))
+                String arg = args[i].toString().toLowerCase();
+                String s = stored.get(arg);
+                if (s == null)
                 {
-                    args[i] = stored.get(args[i].toString().toLowerCase());
+                    s = stored.get(stripPeriod(arg));
                 }
-                else if (stored.contains(args[i].toString().toLowerCase().replaceAll("\\.$", "")))
+                if (s != null)
                 {
-                    args[i] = stored.get(args[i].toString().toLowerCase().replaceAll("\\.$", ""));
+                    args[i] = s;
                 }
-                else if (hasKey(args[i].toString().trim().toLowerCase()))
+                else if (hasKey(arg.trim()))
                 {
-                    System.out.println(translate(args[i].toString()));
                     args[i] = translate(args[i].toString().trim());
                 }
             }
         }
-        if (hasKey(format))
-        {
-            stored.put(formattedText.toLowerCase(), String.format(translate(format), args));
-        }
-        else
-        {
-            stored.put(formattedText.toLowerCase(), String.format(format, args));
-        }
+        String translated = translator.get(format, true) != null ? translate(format) : format;
+        stored.put(formattedText.toLowerCase(), FormatTemplate.of(translated).format(args));
     }
 
-    public String[] splitWords(String paragraph)
+    public int splitWords(String text, WordSplitter words)
     {
-        return translator.splitWords(paragraph);
+        return translator.splitWords(text, words);
     }
 
     public static String getTranslation(String text)
     {
-        System.out.println("Getting translation for >>> " + text);
-        if (!INSTANCE.language.equals("en"))
+        if (text != null && !INSTANCE.language.equals("en"))
         {
-            String s = null;
-            if (text != null && INSTANCE.stored.contains(text.toLowerCase()))
+            String lower = text.toLowerCase();
+            String s = INSTANCE.stored.get(lower);
+            if (s == null)
             {
-                s = INSTANCE.stored.get(text.toLowerCase());
-            }
-            else if (text != null && INSTANCE.stored.contains(text.toLowerCase().replaceAll("\\.$", "")))
-            {
-                s = INSTANCE.stored.get(text.toLowerCase().replaceAll("\\.$", "")) + ".";
-            }
-            if (text != null)
-            {
-                text = (s == null) ? INSTANCE.translate(text) : s;
+                s = INSTANCE.stored.get(stripPeriod(lower));
+                if (s != null)
+                {
+                    s += ".";
+                }
             }
+            text = (s == null) ? INSTANCE.translate(text) : s;
         }
         return text;
     }
+
+    private static String stripPeriod(String text)
+    {
+        return text.endsWith(".") ? text.substring(0, text.length() - 1) : text;
+    }
 }
@@ -0,0 +1,96 @@
+package net.whitegem.pixeldungeon;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map which keeps at most the given number of entries and drops the least
+ * recently used one when it overflows. All the operations are O(1).
+ * Lookups are counted so the capacity can be tuned against the hit rate.
+ */
+public class LruCache<K, V>
+{
+    private int capacity;
+    private LinkedHashMap<K, V> entries;
+
+    private int hits;
+    private int misses;
+
+    public LruCache(int capacity)
+    {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<K, V>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+            {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Cached value for the key, or null. A hit makes the entry the most recently used one.
+     */
+    public synchronized V get(K key)
+    {
+        V value = entries.get(key);
+        if (value != null)
+        {
+            hits++;
+        }
+        else
+        {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value)
+    {
+        entries.put(key, value);
+    }
+
+    public synchronized void setCapacity(int capacity)
+    {
+        this.capacity = capacity;
+        Iterator<K> it = entries.keySet().iterator();
+        while (entries.size() > capacity && it.hasNext())
+        {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public synchronized int capacity()
+    {
+        return capacity;
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    public synchronized int hits()
+    {
+        return hits;
+    }
+
+    public synchronized int misses()
+    {
+        return misses;
+    }
+
+    public synchronized void resetStats()
+    {
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,321 @@
+package net.whitegem.pixeldungeon;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.watabou.noosa.Game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Open addressing hash table of translations. Keys are stored lowercased with
+ * line breaks written as "\n", and every key also gets a variant with a
+ * trailing period unless the file defines one, so a lookup is a single probe
+ * which hashes the text as if it was normalized, without building new strings.
+ *
+ * The parsed table is cached with the saved games, next to the preferences,
+ * so later launches read it back instead of parsing the file. The cache is
+ * rebuilt when the size or the time of the translation file or the version
+ * of the game don't match the ones it was built from.
+ */
+public class TranslationIndex
+{
+    private static final int MAGIC = 0x50445449;
+    private static final int VERSION = 2;
+
+    private int[] hashes;
+    private char[][] keys;
+    private String[] values;
+    private int mask;
+    private int size;
+
+    private TranslationIndex(int capacity)
+    {
+        int tableSize = 16;
+        while (tableSize < capacity * 2)
+        {
+            tableSize <<= 1;
+        }
+        hashes = new int[tableSize];
+        keys = new char[tableSize][];
+        values = new String[tableSize];
+        mask = tableSize - 1;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    // THE SOURCE FILE MUST BE UTF8 WITHOUT BOM
+    public static TranslationIndex load(String language)
+    {
+        FileHandle source = Gdx.files.internal("translation/" + language + ".txt");
+        long length = source.length();
+        long modified = source.lastModified();
+
+        // there is no storage before the game is created
+        String cache = "translation-" + language + ".idx";
+        Game<?> game = Game.instance;
+
+        if (game != null)
+        {
+            try
+            {
+                TranslationIndex index = readCache(game.openFileInput(cache), length, modified);
+                if (index != null)
+                {
+                    return index;
+                }
+            } catch (Exception e)
+            {
+                // not cached yet, or unreadable
+            }
+        }
+
+        TranslationIndex index = parse(source.readBytes(), language);
+
+        if (game != null)
+        {
+            try
+            {
+                index.writeCache(game.openFileOutput(cache), length, modified);
+            } catch (Exception e)
+            {
+                game.deleteFile(cache);
+            }
+        }
+        return index;
+    }
+
+    private static TranslationIndex parse(byte[] bytes, String language)
+    {
+        ArrayList<String> lines = new ArrayList<String>();
+        try
+        {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), "UTF8"));
+            String line = reader.readLine();
+            while (line != null)
+            {
+                line = line.trim();
+                if (!line.equals("") && !line.startsWith("#"))
+                {
+                    lines.add(line);
+                }
+                line = reader.readLine();
+            }
+            reader.close();
+        } catch (IOException ioe)
+        {
+        }
+
+        if (lines.size() % 2 != 0)
+        {
+            Gdx.app.log("Translator", "ERROR READING FILE" + " translation/" + language + ".txt", new Exception("Lines of original texts and translated texts in the translation file do not match."));
+        }
+
+        // later lines override earlier ones
+        LinkedHashMap<String, String> pairs = new LinkedHashMap<String, String>();
+        for (int i = 0; i + 1 < lines.size(); i += 2)
+        {
+            pairs.put(lines.get(i).toLowerCase(), lines.get(i + 1).replace("\\n", "\n"));
+        }
+
+        TranslationIndex index = new TranslationIndex(pairs.size() * 2);
+        for (Map.Entry<String, String> pair : pairs.entrySet())
+        {
+            index.insert(pair.getKey().toCharArray(), pair.getValue());
+        }
+        for (Map.Entry<String, String> pair : pairs.entrySet())
+        {
+            String period = pair.getKey() + ".";
+            if (!pairs.containsKey(period))
+            {
+                index.insert(period.toCharArray(), pair.getValue() + ".");
+            }
+        }
+        return index;
+    }
+
+    private static TranslationIndex readCache(InputStream cache, long sourceLength, long sourceModified) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(cache));
+        try
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != sourceLength || in.readLong() != sourceModified
+                    || !in.readUTF().equals(String.valueOf(Game.version)))
+            {
+                return null;
+            }
+            int count = in.readInt();
+            TranslationIndex index = new TranslationIndex(count);
+            for (int i = 0; i < count; i++)
+            {
+                char[] key = in.readUTF().toCharArray();
+                index.insert(key, in.readUTF());
+            }
+            return index;
+        } finally
+        {
+            in.close();
+        }
+    }
+
+    private void writeCache(OutputStream cache, long sourceLength, long sourceModified) throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(cache));
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeUTF(String.valueOf(Game.version));
+            out.writeInt(size);
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (keys[i] != null)
+                {
+                    out.writeUTF(new String(keys[i]));
+                    out.writeUTF(values[i]);
+                }
+            }
+        } finally
+        {
+            out.close();
+        }
+    }
+
+    private void insert(char[] key, String value)
+    {
+        int hash = hash(key, 0, key.length);
+        int slot = hash & mask;
+        while (keys[slot] != null)
+        {
+            if (hashes[slot] == hash && equal(keys[slot], key))
+            {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private static boolean equal(char[] a, char[] b)
+    {
+        if (a.length != b.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++)
+        {
+            if (a[i] != b[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char[] key, int start, int end)
+    {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+        {
+            hash = 31 * hash + key[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Translation of the text normalized the same way as the keys, or null.
+     * When trimLineBreaks is false, line breaks at the ends of the text are
+     * a part of the key as they are converted before trimming.
+     */
+    public String get(String text, boolean trimLineBreaks)
+    {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isTrimmed(text.charAt(start), trimLineBreaks))
+        {
+            start++;
+        }
+        while (end > start && isTrimmed(text.charAt(end - 1), trimLineBreaks))
+        {
+            end--;
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++)
+        {
+            char c = text.charAt(i);
+            if (c == '\n')
+            {
+                hash = 31 * (31 * hash + '\\') + 'n';
+            }
+            else
+            {
+                hash = 31 * hash + Character.toLowerCase(c);
+            }
+        }
+
+        int slot = hash & mask;
+        char[] key;
+        while ((key = keys[slot]) != null)
+        {
+            if (hashes[slot] == hash && matches(key, text, start, end))
+            {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static boolean isTrimmed(char c, boolean trimLineBreaks)
+    {
+        return c <= ' ' && (trimLineBreaks || c != '\n');
+    }
+
+    private static boolean matches(char[] key, String text, int start, int end)
+    {
+        int k = 0;
+        for (int i = start; i < end; i++)
+        {
+            char c = text.charAt(i);
+            if (c == '\n')
+            {
+                if (k + 1 >= key.length || key[k] != '\\' || key[k + 1] != 'n')
+                {
+                    return false;
+                }
+                k += 2;
+            }
+            else
+            {
+                if (k >= key.length || key[k] != Character.toLowerCase(c))
+                {
+                    return false;
+                }
+                k++;
+            }
+        }
+        return k == key.length;
+    }
+}
@@ -1,13 +1,6 @@
 package net.whitegem.pixeldungeon;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
-
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.regex.Pattern;
 
 /**
  * Created by Carl-Station on 01/22/15.
@@ -15,51 +8,20 @@ import java.util.regex.Pattern;
 public class Translator
 {
     private String language;
-    private HashMap<String, String> translation;
+    private TranslationIndex index;
 
     public Translator(String language)
     {
         this.language = language;
-        translation = new HashMap<String, String>();
-        // THIS FILE MUST BE UTF8 WITHOUT BOM
-        FileHandle file = Gdx.files.internal("translation/" + language + ".txt");
-        BufferedReader reader = new BufferedReader(file.reader("UTF8"));
-        ArrayList<String> lines = new ArrayList<String>();
-        try
-        {
-            String line = reader.readLine();
-            while (line != null)
-            {
-                if (!line.trim().equals("") && !line.trim().startsWith("#"))
-                {
-                    lines.add(line.trim());
-                }
-                line = reader.readLine();
-            }
-            reader.close();
-        } catch (IOException ioe)
-        {
-        }
-
-
-        if (lines.size() % 2 != 0)
-        {
-            Gdx.app.log("Translator", "ERROR READING FILE" + " translation/" + language + ".txt", new Exception("Lines of original texts and translated texts in the translation file do not match."));
-        }
-
-        for (int i = 0; i < lines.size(); i += 2)
-        {
-            String trans = lines.get(i + 1);
-            translation.put(lines.get(i).toLowerCase(), trans);
-        }
+        index = TranslationIndex.load(language);
     }
 
     public String fixWrap(String inText)
     {
         boolean hasChinese = false;
-        for (char c : inText.toCharArray())
+        for (int i = 0; i < inText.length(); i++)
         {
-            if (isChinese(c))
+            if (WordSplitter.isChinese(inText.charAt(i)))
             {
                 hasChinese = true;
                 break;
@@ -79,29 +41,29 @@ public class Translator
             int end = 1;
             while (start != trans.length())
             {
-                String str = trans.substring(start, end);
-                if (str.length() == 1 && (isChinese(str.charAt(0)) || str.equals(" ")))
+                char first = trans.charAt(start);
+                if (end - start == 1 && (WordSplitter.isChinese(first) || first == ' '))
                 {
-                    transAfter.add(str);
+                    transAfter.add(String.valueOf(first));
                     start++;
                     end++;
                 } else
                 {
                     if (end == trans.length())
                     {
-                        transAfter.add(str.trim());
+                        transAfter.add(trans.substring(start, end).trim());
                         start = end;
                         end++;
                     } else
                     {
-                        String endStr = trans.substring(end - 1, end);
-                        String endStrNext = trans.substring(end, end + 1);
-                        if (endStr.equals(" ") || (endStr.matches(",") && !endStrNext.matches(" ")) || (endStr.matches("\\p{P}") && endStrNext.matches(" ")) || (endStr.matches("[0-9]") && !endStrNext.matches("[0-9]")))
+                        char endChar = trans.charAt(end - 1);
+                        char endCharNext = trans.charAt(end);
+                        if (endChar == ' ' || (endChar == ',' && endCharNext != ' ') || (WordSplitter.isPunctuation(endChar) && endCharNext == ' ') || (WordSplitter.isDigit(endChar) && !WordSplitter.isDigit(endCharNext)))
                         {
-                            transAfter.add(str.trim());
+                            transAfter.add(trans.substring(start, end).trim());
                             start = end;
                         }
-                        else if (isChinese(endStr.charAt(0)))
+                        else if (WordSplitter.isChinese(endChar))
                         {
                             transAfter.add(trans.substring(start, end - 1));
                             start = end - 1;
@@ -115,127 +77,70 @@ public class Translator
         }
         transAfter.remove(transAfter.size() - 1);
 
-        int c = 0;
-        while (c < transAfter.size() - 1)
+        StringBuilder finalTrans = new StringBuilder(inText.length() * 2);
+        for (int c = 0; c < transAfter.size(); c++)
         {
-            String next = transAfter.get(c + 1);
             String current = transAfter.get(c);
-            String result = current;
+            finalTrans.append(current);
 
-            if (current.equals("\n") || current.equals(" "))
+            if (c == transAfter.size() - 1 || current.length() == 0 || current.equals("\n") || current.equals(" "))
             {
-                c++;
                 continue;
             }
 
-            if (current.length() == 1 && isChinese(current.charAt(0))) // chinese
+            String next = transAfter.get(c + 1);
+            char nextChar = next.length() > 0 ? next.charAt(0) : ' ';
+            char first = current.charAt(0);
+            char last = current.charAt(current.length() - 1);
+
+            if (current.length() == 1 && WordSplitter.isChinese(first)) // chinese
             {
-                if (!isChinese(next.charAt(0)) && !(next.charAt(0) + "").matches("\\p{P}"))
+                if (!WordSplitter.isChinese(nextChar) && !WordSplitter.isPunctuation(nextChar))
                 {
-                    result += " ";
+                    finalTrans.append(' ');
                 }
             }
-            else if (current.matches("\\p{P}"))
+            else if (current.length() == 1 && WordSplitter.isPunctuation(first))
             {
-
-                if (current.matches("[,.!?;:]") && isChinese(next.charAt(0)))
+                if (",.!?;:".indexOf(first) >= 0 && WordSplitter.isChinese(nextChar))
                 {
-                    result += " ";
+                    finalTrans.append(' ');
                 }
             }
-            else if (!((current.charAt(current.length() - 1) + "").matches("[0-9]") && (next.charAt(0) + "").matches("[\\./\\)\\(]")))
+            else if (!(WordSplitter.isDigit(last) && "./)(".indexOf(nextChar) >= 0))
             {
-                result += " ";
+                finalTrans.append(' ');
             }
-
-            transAfter.set(c, result);
-            c++;
         }
-        String finalTrans = "";
-        for (String s : transAfter)
-            finalTrans += s;
 
-        return finalTrans;
+        return finalTrans.toString();
     }
 
-    private static boolean isChinese(char c)
+    /**
+     * Splits the text into the words for line breaking, see WordSplitter.
+     */
+    public int splitWords(String text, WordSplitter words)
     {
-        Character.UnicodeBlock ub = Character.UnicodeBlock.of(c);
-        if (ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
-                || ub == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
-                || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
-                || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B
-                || ub == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
-                || ub == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS
-                || ub == Character.UnicodeBlock.GENERAL_PUNCTUATION)
-        {
-            return true;
-        }
-        return false;
+        return words.split(text, language.equals("en"));
     }
 
-    public String[] splitWords(String paragraph)
+    public boolean hasKey(String key)
     {
-        if (language.equals("en"))
-        {
-            String[] pre = Pattern.compile("\\s+").split(paragraph);
-            ArrayList<String> tmp = new ArrayList<String>();
-            for (String s : pre)
-            {
-                tmp.add(s);
-                tmp.add(" ");
-            }
-            return tmp.toArray(new String[tmp.size()]);
-        }
-
-        ArrayList<String> words = new ArrayList<String>();
-        int start = 0;
-        int end = 1;
-        while (start != paragraph.length())
-        {
-            String str = paragraph.substring(start, end);
-            if (str.length() == 1 && (isChinese(str.charAt(0)) || str.equals(" ")))
-            {
-                words.add(str);
-                start++;
-                end++;
-            }
-            else
-            {
-                if (end == paragraph.length())
-                {
-                    words.add(str);//.trim());
-                    start = end;
-                    end++;
-                }
-                else
-                {
-                    String endStr = paragraph.substring(end - 1, end);
-                    String endStrNext = paragraph.substring(end, end + 1);
-                    if (endStr.equals(" ") || (endStr.matches("\\p{P}") && !endStrNext.matches("[0-9]")) || (endStr.matches("[0-9]") && (!endStrNext.matches("[0-9]") && !endStrNext.matches("\\p{P}"))))
-                    {
-                        words.add(str);
-                        start = end;
-                    }
-                    end++;
-                }
-            }
-        }
-        return words.toArray(new String[words.size()]);
-        // return Pattern.compile("\\s+").split(paragraph);
+        return index.get(key, false) != null;
     }
 
-    public boolean hasKey(String key)
+    public String translate(String originalText)
     {
-        return translation.containsKey(key.toLowerCase());
+        String translated = index.get(originalText, false);
+        return translated != null ? translated : originalText;
     }
 
-    public String translate(String originalText)
+    /**
+     * Translation of the text with the surrounding whitespace and the case ignored,
+     * with or without a trailing period, or null if there is none.
+     */
+    public String get(String text, boolean trimLineBreaks)
     {
-        if (hasKey(originalText))
-        {
-            return translation.get(originalText.toLowerCase());
-        }
-        return originalText;
+        return index.get(text, trimLineBreaks);
     }
 }
@@ -0,0 +1,279 @@
+package net.whitegem.pixeldungeon;
+
+/**
+ * Splits a text into the words used for line breaking in a single pass over
+ * its characters. The result is kept as offsets into a char buffer which is
+ * reused for the next text, so splitting the same text again is free and
+ * splitting a new one doesn't allocate once the buffers are big enough.
+ *
+ * Word i spans chars[bounds[2 * i]] to chars[bounds[2 * i + 1]], a word with
+ * NEWLINE bounds ends a paragraph.
+ */
+public class WordSplitter
+{
+    public static final int NEWLINE = -1;
+
+    private static final byte CJK = 1;
+    private static final byte PUNCTUATION = 2;
+    private static final byte DIGIT = 4;
+    private static final byte WHITESPACE = 8;
+
+    private static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+
+    static
+    {
+        for (int c = 0; c <= Character.MAX_VALUE; c++)
+        {
+            byte cls = 0;
+
+            Character.UnicodeBlock ub = Character.UnicodeBlock.of((char) c);
+            if (ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                    || ub == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
+                    || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+                    || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B
+                    || ub == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
+                    || ub == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS
+                    || ub == Character.UnicodeBlock.GENERAL_PUNCTUATION)
+            {
+                cls |= CJK;
+            }
+
+            // the same as \p{P}
+            switch (Character.getType(c))
+            {
+                case Character.CONNECTOR_PUNCTUATION:
+                case Character.DASH_PUNCTUATION:
+                case Character.START_PUNCTUATION:
+                case Character.END_PUNCTUATION:
+                case Character.INITIAL_QUOTE_PUNCTUATION:
+                case Character.FINAL_QUOTE_PUNCTUATION:
+                case Character.OTHER_PUNCTUATION:
+                    cls |= PUNCTUATION;
+                    break;
+            }
+
+            if (c >= '0' && c <= '9')
+            {
+                cls |= DIGIT;
+            }
+
+            // the same as \s
+            if (c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r')
+            {
+                cls |= WHITESPACE;
+            }
+
+            CLASSES[c] = cls;
+        }
+    }
+
+    public static boolean isChinese(char c)
+    {
+        return (CLASSES[c] & CJK) != 0;
+    }
+
+    public static boolean isPunctuation(char c)
+    {
+        return (CLASSES[c] & PUNCTUATION) != 0;
+    }
+
+    public static boolean isDigit(char c)
+    {
+        return (CLASSES[c] & DIGIT) != 0;
+    }
+
+    private static boolean isWhitespace(char c)
+    {
+        return (CLASSES[c] & WHITESPACE) != 0;
+    }
+
+    public char[] chars = new char[64];
+    public int[] bounds = new int[64];
+    public int count;
+
+    private String text;
+    private boolean english;
+    private int length;
+
+    /**
+     * Splits the text unless it's the one split last time.
+     * Returns the number of words.
+     */
+    public int split(String text, boolean english)
+    {
+        if (text == null)
+        {
+            text = "";
+        }
+        if (english == this.english && text.equals(this.text))
+        {
+            return count;
+        }
+        this.text = text;
+        this.english = english;
+
+        count = 0;
+        length = 0;
+
+        if (english)
+        {
+            // every word is followed by a space, runs of whitespace are dropped
+            ensureChars(text.length() * 2 + 1);
+        }
+        else
+        {
+            ensureChars(text.length());
+            text.getChars(0, text.length(), chars, 0);
+            length = text.length();
+        }
+
+        // Paragraphs are split the way String.split does it,
+        // the empty ones at the end of the text are ignored
+        int textLength = text.length();
+        int last = textLength;
+        while (last > 0 && text.charAt(last - 1) == '\n')
+        {
+            last--;
+        }
+        if (last == 0 && textLength > 0)
+        {
+            return count;
+        }
+
+        int start = 0;
+        while (true)
+        {
+            int end = text.indexOf('\n', start);
+            if (end < 0 || end > last)
+            {
+                end = last;
+            }
+            if (english)
+            {
+                splitEnglish(text, start, end);
+            }
+            else
+            {
+                splitChinese(start, end);
+            }
+            addWord(NEWLINE, NEWLINE);
+
+            if (end >= last)
+            {
+                break;
+            }
+            start = end + 1;
+        }
+        return count;
+    }
+
+    private void splitChinese(int from, int to)
+    {
+        char[] chars = this.chars;
+        int start = from;
+        int end = from + 1;
+        while (start < to)
+        {
+            char first = chars[start];
+            if (end - start == 1 && (isChinese(first) || first == ' '))
+            {
+                addWord(start, end);
+                start++;
+                end++;
+            }
+            else if (end == to)
+            {
+                addWord(start, end);
+                start = end;
+                end++;
+            }
+            else
+            {
+                byte cls = CLASSES[chars[end - 1]];
+                byte next = CLASSES[chars[end]];
+                if (chars[end - 1] == ' '
+                        || ((cls & PUNCTUATION) != 0 && (next & DIGIT) == 0)
+                        || ((cls & DIGIT) != 0 && (next & (DIGIT | PUNCTUATION)) == 0))
+                {
+                    addWord(start, end);
+                    start = end;
+                }
+                end++;
+            }
+        }
+    }
+
+    private void splitEnglish(String text, int from, int to)
+    {
+        // Leading whitespace gives an empty word, trailing whitespace doesn't
+        int end = to;
+        while (end > from && isWhitespace(text.charAt(end - 1)))
+        {
+            end--;
+        }
+        if (end == from && to > from)
+        {
+            return;
+        }
+
+        int i = from;
+        while (true)
+        {
+            int start = length;
+            while (i < end && !isWhitespace(text.charAt(i)))
+            {
+                chars[length++] = text.charAt(i++);
+            }
+            addWord(start, length);
+
+            chars[length++] = ' ';
+            addWord(length - 1, length);
+
+            if (i >= end)
+            {
+                break;
+            }
+            while (isWhitespace(text.charAt(i)))
+            {
+                i++;
+            }
+        }
+    }
+
+    private void addWord(int start, int end)
+    {
+        if (count * 2 + 2 > bounds.length)
+        {
+            int[] grown = new int[bounds.length * 2];
+            System.arraycopy(bounds, 0, grown, 0, count * 2);
+            bounds = grown;
+        }
+        bounds[count * 2] = start;
+        bounds[count * 2 + 1] = end;
+        count++;
+    }
+
+    private void ensureChars(int size)
+    {
+        if (chars.length < size)
+        {
+            chars = new char[Math.max(size, chars.length * 2)];
+        }
+    }
+
+    public int start(int word)
+    {
+        return bounds[word * 2];
+    }
+
+    public int end(int word)
+    {
+        return bounds[word * 2 + 1];
+    }
+
+    public String word(int word)
+    {
+        int start = bounds[word * 2];
+        return start == NEWLINE ? "\n" : new String(chars, start, bounds[word * 2 + 1] - start);
+    }
+}
@@ -0,0 +1,94 @@
+package com.watabou.pd.benchmarks;
+
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.actors.Actor;
+import com.watabou.pixeldungeon.actors.blobs.Blob;
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.utils.Rect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One turn of a gas or fire seeded in a room of the sewers and left to
+ * spread for a few turns. Every turn starts from that same state again,
+ * copying it back is a part of the measured time. There are no chars or
+ * heaps on the level, so nobody gets hurt and nothing is burnt, but fire
+ * turns grass into embers: the terrain under the blob is put back as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BlobBenchmark {
+
+	private static final int SPREAD_TURNS = 3;
+
+	@Param({"ToxicGas", "Fire", "ParalyticGas"})
+	public String blob;
+
+	// Amount seeded into a single cell
+	@Param({"100", "1000", "10000"})
+	public int amount;
+
+	private Blob gas;
+
+	private final int[] cur = new int[Level.LENGTH];
+	private int volume;
+	private Rect area;
+	private int[] map;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception {
+		Environment.start();
+		Level level = Environment.enter( 1 );
+		Actor.clear();
+		level.heaps.clear();
+
+		Class<? extends Blob> type = (Class<? extends Blob>)Class.forName(
+			"com.watabou.pixeldungeon.actors.blobs." + blob );
+		gas = Blob.seed( level.randomRespawnCell(), amount, type );
+		for (int i=0; i < SPREAD_TURNS; i++) {
+			gas.act();
+		}
+
+		System.arraycopy( gas.cur, 0, cur, 0, Level.LENGTH );
+		volume = gas.volume;
+		area = new Rect( gas.area );
+		map = level.map.clone();
+	}
+
+	@Benchmark
+	public int evolve() {
+		System.arraycopy( cur, 0, gas.cur, 0, Level.LENGTH );
+		gas.volume = volume;
+		gas.area.set( area );
+
+		// Only the cells on fire can change
+		int[] terrain = Dungeon.level.map;
+		for (int y=area.top; y < area.bottom; y++) {
+			for (int pos=y * Level.WIDTH + area.left; pos < y * Level.WIDTH + area.right; pos++) {
+				if (terrain[pos] != map[pos]) {
+					Level.set( pos, map[pos] );
+				}
+			}
+		}
+
+		gas.act();
+		return gas.volume;
+	}
+}
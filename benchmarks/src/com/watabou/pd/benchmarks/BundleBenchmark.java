@@ -0,0 +1,90 @@
+package com.watabou.pd.benchmarks;
+
+import com.watabou.noosa.Game;
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.utils.Bundle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Reading and writing the files a save consists of: the game file of a
+ * hero with the starting kit, and the level of the depth. Both are saved
+ * the way the game saves them and then kept in memory, in the old text
+ * format or the binary one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BundleBenchmark {
+
+	private static final String GAME_FILE	= "benchmark.dat";
+	private static final String LEVEL		= "level";
+
+	@Param({"game", "level"})
+	public String file;
+
+	@Param({"text", "binary"})
+	public String format;
+
+	@Param({"1", "16"})
+	public int depth;
+
+	private Bundle bundle;
+	private byte[] bytes;
+
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	@Setup
+	public void setup() throws Exception {
+		Environment.start();
+		Environment.enter( depth );
+
+		if (file.equals( "game" )) {
+			Dungeon.saveGame( GAME_FILE );
+			InputStream input = Game.instance.openFileInput( GAME_FILE );
+			bundle = Bundle.read( input );
+			input.close();
+		} else {
+			Bundle writer = Bundle.binaryWriter( output );
+			writer.put( LEVEL, Dungeon.level );
+			writer.close();
+			bundle = Bundle.read( new ByteArrayInputStream( output.toByteArray() ) );
+		}
+
+		bytes = write().toByteArray();
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream write() {
+		output.reset();
+		if (format.equals( "binary" )) {
+			Bundle.writeBinary( bundle, output );
+		} else {
+			Bundle.write( bundle, output );
+		}
+		return output;
+	}
+
+	@Benchmark
+	public Bundle read() {
+		return Bundle.read( new ByteArrayInputStream( bytes ) );
+	}
+}
@@ -0,0 +1,52 @@
+package com.watabou.pd.benchmarks;
+
+import com.watabou.pd.desktop.headless.HeadlessGame;
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.Statistics;
+import com.watabou.pixeldungeon.actors.hero.HeroClass;
+import com.watabou.pixeldungeon.items.Generator;
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.pixeldungeon.scenes.InterlevelScene;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/*
+ * The game without a display that the benchmarks run in, see HeadlessGame.
+ * It's set up once in each forked VM with a warrior on the first depth, its
+ * files go to a temporary directory. Benchmarks have to run from the assets
+ * directory, which the jmh task takes care of.
+ */
+public class Environment {
+
+	private static HeadlessGame game;
+
+	public static synchronized HeadlessGame start() throws Exception {
+		if (game == null) {
+			File directory = Files.createTempDirectory( "pd-benchmarks" ).toFile();
+			directory.deleteOnExit();
+
+			game = new HeadlessGame( directory );
+			game.start( HeroClass.WARRIOR );
+		}
+		return game;
+	}
+
+	// Generates a new level of the depth, the same way descending does it
+	public static Level create( int depth ) {
+		Generator.reset();
+		Dungeon.depth = depth - 1;
+		return Dungeon.newLevel();
+	}
+
+	// Takes the hero down to a new level of the depth, which also
+	// fills the flag maps of Level and the field of view
+	public static Level enter( int depth ) throws Exception {
+		// A depth the hero has been to would be loaded
+		Dungeon.depth = depth - 1;
+		Statistics.deepestFloor = depth - 1;
+		InterlevelScene.mode = InterlevelScene.Mode.DESCEND;
+		game.travel();
+		return Dungeon.level;
+	}
+}
@@ -0,0 +1,43 @@
+package com.watabou.pd.benchmarks;
+
+import com.watabou.pixeldungeon.levels.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Generation of a level of each type, including its mobs and items.
+ * The depths are the first ones where the type appears, see newLevel().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LevelBenchmark {
+
+	@Param({"1", "5", "6", "10", "11", "15", "16", "20", "21", "22", "25", "26"})
+	public int depth;
+
+	@Setup
+	public void setup() throws Exception {
+		Environment.start();
+	}
+
+	@Benchmark
+	public Level create() {
+		return Environment.create( depth );
+	}
+}
@@ -0,0 +1,97 @@
+package com.watabou.pd.benchmarks;
+
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.utils.PathFinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Paths between pairs of connected cells of a generated level, the pairs
+ * are taken in turn. Steps are what mobs ask for every turn, whole paths
+ * are what the hero asks for when it's sent somewhere.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PathFinderBenchmark {
+
+	private static final int PAIRS = 256;
+
+	// Sewers, prison, caves, city and halls
+	@Param({"1", "6", "11", "16", "22"})
+	public int depth;
+
+	private boolean[] passable;
+
+	private final int[] from = new int[PAIRS];
+	private final int[] to = new int[PAIRS];
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		Environment.start();
+		Environment.enter( depth );
+
+		passable = Arrays.copyOf( Level.passable, Level.LENGTH );
+
+		// Same pairs for the same layout
+		Random random = new Random( depth );
+		int[] reachable = new int[Level.LENGTH];
+		for (int i=0; i < PAIRS; i++) {
+			int cell;
+			do {
+				cell = random.nextInt( Level.LENGTH );
+			} while (!passable[cell]);
+
+			PathFinder.buildDistanceMap( cell, passable, Integer.MAX_VALUE );
+			int count = 0;
+			for (int j=0; j < Level.LENGTH; j++) {
+				if (j != cell && PathFinder.distance[j] != Integer.MAX_VALUE) {
+					reachable[count++] = j;
+				}
+			}
+			from[i] = cell;
+			to[i] = count > 0 ? reachable[random.nextInt( count )] : cell;
+		}
+	}
+
+	private int pair() {
+		next = (next + 1) % PAIRS;
+		return next;
+	}
+
+	@Benchmark
+	public int getStep() {
+		int i = pair();
+		return PathFinder.getStep( from[i], to[i], passable );
+	}
+
+	@Benchmark
+	public Object find() {
+		int i = pair();
+		return PathFinder.find( from[i], to[i], passable );
+	}
+
+	@Benchmark
+	public int getStepBack() {
+		int i = pair();
+		return PathFinder.getStepBack( to[i], from[i], passable );
+	}
+}
@@ -0,0 +1,70 @@
+package com.watabou.pd.benchmarks;
+
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.pixeldungeon.mechanics.ShadowCaster;
+import com.watabou.utils.CellSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Field of view from every passable cell of a generated level in turn.
+ * A distance of 8 is the usual view, the caves have 6, the darkness
+ * challenge and the deepest halls have 3 and less.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ShadowCasterBenchmark {
+
+	// Rooms of the sewers and open caves
+	@Param({"1", "11"})
+	public int depth;
+
+	@Param({"1", "3", "6", "8"})
+	public int distance;
+
+	private final CellSet fieldOfView = new CellSet( Level.LENGTH );
+
+	private int[] cells;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		Environment.start();
+		Environment.enter( depth );
+
+		int count = 0;
+		int[] passable = new int[Level.LENGTH];
+		for (int i=0; i < Level.LENGTH; i++) {
+			if (Level.passable[i]) {
+				passable[count++] = i;
+			}
+		}
+		cells = new int[count];
+		System.arraycopy( passable, 0, cells, 0, count );
+	}
+
+	@Benchmark
+	public CellSet castShadow() {
+		int cell = cells[next];
+		next = (next + 1) % cells.length;
+
+		ShadowCaster.castShadow( cell % Level.WIDTH, cell / Level.WIDTH, fieldOfView, distance );
+		return fieldOfView;
+	}
+}
@@ -0,0 +1,79 @@
+package com.watabou.pd.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+
+import net.whitegem.pixeldungeon.Translator;
+import net.whitegem.pixeldungeon.WordSplitter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Line breaking of the translated texts, which are taken in turn from
+ * the translation file, so the splitter never gets the same text twice
+ * in a row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TranslatorBenchmark {
+
+	private static final String LANGUAGE = "chs";
+
+	private Translator translator;
+	private final WordSplitter words = new WordSplitter();
+
+	private String[] texts;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		Environment.start();
+
+		translator = new Translator( LANGUAGE );
+
+		// Every other line which isn't a comment is a translation
+		String[] lines = Gdx.files.internal( "translation/" + LANGUAGE + ".txt" ).readString( "UTF8" ).split( "\n" );
+		ArrayList<String> translations = new ArrayList<String>();
+		boolean original = true;
+		for (String line : lines) {
+			line = line.trim();
+			if (line.length() > 0 && !line.startsWith( "#" )) {
+				if (!original) {
+					translations.add( line.replace( "\\n", "\n" ) );
+				}
+				original = !original;
+			}
+		}
+		texts = translations.toArray( new String[translations.size()] );
+	}
+
+	private String text() {
+		next = (next + 1) % texts.length;
+		return texts[next];
+	}
+
+	@Benchmark
+	public String fixWrap() {
+		return translator.fixWrap( text() );
+	}
+
+	@Benchmark
+	public int splitWords() {
+		return translator.splitWords( text(), words );
+	}
+}
@@ -17,14 +17,14 @@
  */
 package com.watabou.pixeldungeon;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 
 import com.watabou.noosa.Game;
+import com.watabou.noosa.WriteQueue;
 import com.watabou.pixeldungeon.actors.Actor;
 import com.watabou.pixeldungeon.actors.Char;
 import com.watabou.pixeldungeon.actors.buffs.Amok;
@@ -45,6 +45,7 @@ import com.watabou.pixeldungeon.levels.CavesLevel;
 import com.watabou.pixeldungeon.levels.CityBossLevel;
 import com.watabou.pixeldungeon.levels.CityLevel;
 import com.watabou.pixeldungeon.levels.DeadEndLevel;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.HallsBossLevel;
 import com.watabou.pixeldungeon.levels.HallsLevel;
 import com.watabou.pixeldungeon.levels.LastLevel;
@@ -61,6 +62,7 @@ import com.watabou.pixeldungeon.utils.BArray;
 import com.watabou.pixeldungeon.utils.Utils;
 import com.watabou.pixeldungeon.windows.WndResurrect;
 import com.watabou.utils.Bundle;
+import com.watabou.utils.CellSet;
 import com.watabou.utils.PathFinder;
 import com.watabou.utils.Random;
 
@@ -116,6 +118,17 @@ public class Dungeon {
 	
 	public static int challenges;
 	
+	// The run is generated from it, each level from a seed of its own, see seedFor()
+	public static long seed;
+	// Streams of the items found and of the fights, see Generator and Actor,
+	// not seeded until a game is started or loaded
+	public static Random.Stream items = new Random.Stream( Random.Long() );
+	public static Random.Stream combat = new Random.Stream( Random.Long() );
+	
+	private static final int INIT_STREAM	= 0;
+	private static final int ITEMS_STREAM	= -1;
+	private static final int COMBAT_STREAM	= -2;
+	
 	public static Hero hero;
 	public static Level level;
 	
@@ -130,7 +143,8 @@ public class Dungeon {
 	public static HashSet<Integer> chapters;
 	
 	// Hero's field of view
-	public static boolean[] visible = new boolean[Level.LENGTH];
+	public static final CellSet visibleCells = new CellSet( Level.LENGTH );
+	public static final boolean[] visible = visibleCells.view();
 	
 	public static boolean nightMode;
 	
@@ -142,6 +156,12 @@ public class Dungeon {
 		
 		PathFinder.setMapSize( Level.WIDTH, Level.HEIGHT );
 		
+		seed = Random.Long();
+		items = new Random.Stream( Random.seed( seed, ITEMS_STREAM ) );
+		combat = new Random.Stream( Random.seed( seed, COMBAT_STREAM ) );
+		
+		Random.pushGenerator( Random.seed( seed, INIT_STREAM ) );
+		
 		Scroll.initLabels();
 		Potion.initColors();
 		Wand.initWoods();
@@ -168,6 +188,8 @@ public class Dungeon {
 		
 		Room.shuffleTypes();
 		
+		Random.popGenerator();
+		
 		hero = new Hero();
 		hero.live();
 		
@@ -176,6 +198,10 @@ public class Dungeon {
 		StartScene.curClass.initHero( hero );
 	}
 	
+	public static long seedFor( int depth ) {
+		return Random.seed( seed, depth );
+	}
+	
 	public static boolean isChallenged( int mask ) {
 		return (challenges & mask) != 0;
 	}
@@ -196,7 +222,26 @@ public class Dungeon {
 			}
 		}
 		
-		Arrays.fill( visible, false );
+		visibleCells.clear();
+		
+		// It's usually laid out by now, see InterlevelScene.travel()
+		Level level = Generation.take( depth );
+		if (level == null) {
+			level = emptyLevel( depth );
+			level.create();
+		}
+		
+		if (level instanceof DeadEndLevel) {
+			Statistics.deepestFloor--;
+		}
+		
+		Statistics.qualifiedForNoKilling = !bossLevel();
+		
+		return level;
+	}
+	
+	// A level of the type the depth has, it still has to be created
+	public static Level emptyLevel( int depth ) {
 		
 		Level level;
 		switch (depth) {
@@ -252,13 +297,8 @@ public class Dungeon {
 			break;
 		default:
 			level = new DeadEndLevel();
-			Statistics.deepestFloor--;
 		}
 		
-		level.create();
-		
-		Statistics.qualifiedForNoKilling = !bossLevel();
-		
 		return level;
 	}
 	
@@ -266,7 +306,7 @@ public class Dungeon {
 		
 		Actor.clear();
 		
-		Arrays.fill( visible, false );
+		visibleCells.clear();
 		
 		level.reset();
 		switchLevel( level, level.entrance );
@@ -291,6 +331,10 @@ public class Dungeon {
 	}
 	
 	public static boolean shopOnLevel() {
+		return shopOnLevel( depth );
+	}
+	
+	public static boolean shopOnLevel( int depth ) {
 		return depth == 6 || depth == 11 || depth == 16;
 	}
 	
@@ -323,33 +367,6 @@ public class Dungeon {
 		observe();
 	}
 	
-	public static boolean posNeeded() {
-		int[] quota = {4, 2, 9, 4, 14, 6, 19, 8, 24, 9};
-		return chance( quota, potionOfStrength );
-	}
-	
-	public static boolean soeNeeded() {
-		int[] quota = {5, 3, 10, 6, 15, 9, 20, 12, 25, 13};
-		return chance( quota, scrollsOfUpgrade );
-	}
-	
-	private static boolean chance( int[] quota, int number ) {
-		
-		for (int i=0; i < quota.length; i += 2) {
-			int qDepth = quota[i];
-			if (depth <= qDepth) {
-				int qNumber = quota[i + 1];
-				return Random.Float() < (float)(qNumber - number) / (qDepth - depth + 1);
-			}
-		}
-		
-		return false;
-	}
-	
-	public static boolean asNeeded() {
-		return Random.Int( 12 * (1 + arcaneStyli) ) < depth;
-	}
-	
 	private static final String RG_GAME_FILE	= "game.dat";
 	private static final String RG_DEPTH_FILE	= "depth%d.dat";
 	
@@ -364,6 +381,9 @@ public class Dungeon {
 	
 	private static final String VERSION		= "version";
 	private static final String CHALLENGES	= "challenges";
+	private static final String SEED		= "seed";
+	private static final String ITEMS		= "items";
+	private static final String COMBAT		= "combat";
 	private static final String HERO		= "hero";
 	private static final String GOLD		= "gold";
 	private static final String DEPTH		= "depth";
@@ -404,12 +424,22 @@ public class Dungeon {
 		}
 	}
 	
+	// The game is encoded right away, but written to the file on another
+	// thread, see WriteQueue. Reading the file waits for it to be written.
+	// The encoded file is kept in memory until then, so unlike a bundle
+	// streamed straight to the file the memory it takes grows with the
+	// size of the save. It's the smallest snapshot of the game there is,
+	// and the game thread doesn't wait for the storage.
 	public static void saveGame( String fileName ) throws IOException {
 		try {
-			Bundle bundle = new Bundle();
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			Bundle bundle = Bundle.binaryWriter( output );
 			
 			bundle.put( VERSION, Game.version );
 			bundle.put( CHALLENGES, challenges );
+			bundle.put( SEED, seed );
+			bundle.put( ITEMS, items.state() );
+			bundle.put( COMBAT, combat.state() );
 			bundle.put( HERO, hero );
 			bundle.put( GOLD, gold );
 			bundle.put( DEPTH, depth );
@@ -452,9 +482,10 @@ public class Dungeon {
 			Badges.saveLocal( badges );
 			bundle.put( BADGES, badges );
 			
-			OutputStream output = Game.instance.openFileOutput( fileName );
-			Bundle.write( bundle, output );
-			output.close();
+			if (!bundle.close()) {
+				throw new IOException( "Can't encode " + fileName );
+			}
+			WriteQueue.write( fileName, output );
 			
 		} catch (Exception e) {
 
@@ -463,12 +494,13 @@ public class Dungeon {
 	}
 	
 	public static void saveLevel() throws IOException {
-		Bundle bundle = new Bundle();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Bundle bundle = Bundle.binaryWriter( output );
 		bundle.put( LEVEL, level );
-		
-		OutputStream output = Game.instance.openFileOutput( Utils.format( depthFile( hero.heroClass ), depth ) );
-		Bundle.write( bundle, output );
-		output.close();
+		if (!bundle.close()) {
+			throw new IOException( "Can't encode the level" );
+		}
+		WriteQueue.write( Utils.format( depthFile( hero.heroClass ), depth ), output );
 	}
 	
 	public static void saveAll() throws IOException {
@@ -502,6 +534,17 @@ public class Dungeon {
 		
 		Dungeon.challenges = bundle.getInt( CHALLENGES );
 		
+		if (bundle.contains( SEED )) {
+			seed = bundle.getLong( SEED );
+			items = new Random.Stream( bundle.getLong( ITEMS ) );
+			combat = new Random.Stream( bundle.getLong( COMBAT ) );
+		} else {
+			// Saved before the runs were seeded
+			seed = Random.Long();
+			items = new Random.Stream( Random.seed( seed, ITEMS_STREAM ) );
+			combat = new Random.Stream( Random.seed( seed, COMBAT_STREAM ) );
+		}
+		
 		Dungeon.level = null;
 		Dungeon.depth = -1;
 		
@@ -642,9 +685,9 @@ public class Dungeon {
 		}
 		
 		level.updateFieldOfView( hero );
-		System.arraycopy( Level.fieldOfView, 0, visible, 0, visible.length );
+		visibleCells.copy( Level.fieldOfViewCells );
 		
-		BArray.or( level.visited, visible, level.visited );
+		BArray.or( level.visitedCells, visibleCells, level.visitedCells );
 		
 		GameScene.afterObserve();
 	}
@@ -657,6 +700,18 @@ public class Dungeon {
 			return Actor.findChar( to ) == null && (pass[to] || Level.avoid[to]) ? to : -1;
 		}
 		
+		return PathFinder.getStep( from, to, passable( ch, pass, visible ) );
+		
+	}
+	
+	// The same search as findPath(), but the whole path is kept in the
+	// workspace. Returns the number of its cells or -1 if there is none
+	public static int findPath( Char ch, int from, int to, boolean pass[], boolean[] visible, PathFinder.Workspace path ) {
+		return path.find( from, to, passable( ch, pass, visible ) );
+	}
+	
+	private static boolean[] passable( Char ch, boolean pass[], boolean[] visible ) {
+		
 		if (ch.flying || ch.buff( Amok.class ) != null) {
 			BArray.or( pass, Level.avoid, passable );
 		} else {
@@ -672,8 +727,7 @@ public class Dungeon {
 			}
 		}
 		
-		return PathFinder.getStep( from, to, passable );
-		
+		return passable;
 	}
 	
 	public static int flee( Char ch, int cur, int from, boolean pass[], boolean[] visible ) {
@@ -26,6 +26,7 @@ import com.watabou.gltextures.SmartTexture;
 import com.watabou.gltextures.TextureCache;
 import com.watabou.noosa.Image;
 import com.watabou.pixeldungeon.scenes.GameScene;
+import com.watabou.utils.CellSet;
 
 public class FogOfWar extends Image {
 
@@ -34,6 +35,19 @@ public class FogOfWar extends Image {
 	private static final int MAPPED		= 0xcc442211;
 	private static final int INVISIBLE	= 0xFF000000;
 	
+	// Color of a pixel by whether all the cells around it
+	// are visible (4), visited (2) and mapped (1)
+	private static final int[] COLORS = new int[8];
+	static {
+		for (int k=0; k < COLORS.length; k++) {
+			COLORS[k] = 
+				(k & 4) != 0 ? VISIBLE : 
+				(k & 2) != 0 ? VISITED : 
+				(k & 1) != 0 ? MAPPED : 
+				INVISIBLE;
+		}
+	}
+	
 	private int[] pixels;
 	
 	private int pWidth;
@@ -42,6 +56,20 @@ public class FogOfWar extends Image {
 	private int width2;
 	private int height2;
 	
+	private CellSet visible;
+	private CellSet visited;
+	private CellSet mapped;
+	
+	// What the pixels show at the moment,
+	// only the cells which differ are drawn again
+	private CellSet shownVisible;
+	private CellSet shownVisited;
+	private CellSet shownMapped;
+	private boolean redraw = true;
+	
+	private CellSet dirty;
+	private CellSet changed;
+	
 	public FogOfWar( int mapWidth, int mapHeight ) {
 		
 		super();
@@ -72,36 +100,106 @@ public class FogOfWar extends Image {
 		x = y = -size / 2;
 	}
 	
-	public void updateVisibility( boolean[] visible, boolean[] visited, boolean[] mapped ) {
+	public void updateVisibility( CellSet visible, CellSet visited, CellSet mapped ) {
 		
 		if (pixels == null) {
 			pixels = new int[width2 * height2];
 			Arrays.fill( pixels, INVISIBLE );
+			
+			int length = visible.size;
+			shownVisible	= new CellSet( length );
+			shownVisited	= new CellSet( length );
+			shownMapped		= new CellSet( length );
+			dirty			= new CellSet( length );
+			changed			= new CellSet( length );
 		}
 		
-		for (int i=1; i < pHeight - 1; i++) {
-			int pos = (pWidth - 1) * i;
-			for (int j=1; j < pWidth - 1; j++) {
-				pos++;
-				int c = INVISIBLE;
-				if (visible[pos] && visible[pos - (pWidth - 1)] && 
-					visible[pos - 1] && visible[pos - (pWidth - 1) - 1]) {
-					c = VISIBLE;
-				} else 
-				if (visited[pos] && visited[pos - (pWidth - 1)] && 
-					visited[pos - 1] && visited[pos - (pWidth - 1) - 1]) {
-					c = VISITED;
+		this.visible = visible;
+		this.visited = visited;
+		this.mapped = mapped;
+		
+		if (redraw) {
+			
+			for (int i=1; i < pHeight - 1; i++) {
+				for (int j=1; j < pWidth - 1; j++) {
+					updatePixel( i, j );
 				}
-				else 
-				if (mapped[pos] && mapped[pos - (pWidth - 1)] && 
-					mapped[pos - 1] && mapped[pos - (pWidth - 1) - 1]) {
-					c = MAPPED;
+			}
+			
+			texture.pixels( width2, height2, pixels );
+			
+		} else {
+			
+			// Cells which changed since the last update
+			dirty.xor( visible, shownVisible );
+			changed.xor( visited, shownVisited );
+			dirty.or( dirty, changed );
+			changed.xor( mapped, shownMapped );
+			dirty.or( dirty, changed );
+			
+			if (dirty.isEmpty()) {
+				return;
+			}
+			
+			// A cell is a corner of 4 pixels, only the rectangle
+			// around the ones which were drawn again is uploaded
+			int mapWidth = pWidth - 1;
+			int top = pHeight;
+			int bottom = -1;
+			int left = pWidth;
+			int right = -1;
+			for (int cell = dirty.next( 0 ); cell >= 0; cell = dirty.next( cell + 1 )) {
+				int i = cell / mapWidth;
+				int j = cell % mapWidth;
+				for (int di=0; di <= 1; di++) {
+					for (int dj=0; dj <= 1; dj++) {
+						int pi = i + di;
+						int pj = j + dj;
+						if (pi >= 1 && pi < pHeight - 1 && pj >= 1 && pj < pWidth - 1) {
+							updatePixel( pi, pj );
+							top = Math.min( top, pi );
+							bottom = Math.max( bottom, pi );
+							left = Math.min( left, pj );
+							right = Math.max( right, pj );
+						}
+					}
 				}
-				pixels[i * width2 + j] = c;
+			}
+			
+			if (bottom >= 0) {
+				texture.pixels( pixels, width2, left, top, right - left + 1, bottom - top + 1 );
 			}
 		}
 		
-		texture.pixels( width2, height2, pixels );
+		shownVisible.copy( visible );
+		shownVisited.copy( visited );
+		shownMapped.copy( mapped );
+		redraw = false;
+	}
+	
+	private void updatePixel( int i, int j ) {
+		int pos = (pWidth - 1) * i + j;
+		int above = pos - (pWidth - 1);
+		pixels[i * width2 + j] = COLORS[
+			(around( visible.words, pos, above ) << 2) | 
+			(around( visited.words, pos, above ) << 1) | 
+			around( mapped.words, pos, above )];
+	}
+	
+	// 1 if the cells on both sides of the pixel, in its row 
+	// and in the row above, are all in the set
+	private static int around( long[] words, int pos, int above ) {
+		return pair( words, pos ) & pair( words, above );
+	}
+	
+	// 1 if both pos - 1 and pos are in the set
+	private static int pair( long[] words, int pos ) {
+		int bit = pos - 1;
+		long bits = words[bit >> 6] >>> bit;
+		if ((bit & 63) == 63) {
+			bits |= words[(bit >> 6) + 1] << 1;
+		}
+		return (int)(bits & (bits >>> 1)) & 1;
 	}
 	
 	private class FogTexture extends SmartTexture {
@@ -116,6 +214,7 @@ public class FogOfWar extends Image {
 		@Override
 		public void reload() {
 			super.reload();
+			redraw = true;
 			GameScene.afterObserve();
 		}
 	}
@@ -19,6 +19,7 @@ package com.watabou.pixeldungeon;
 
 import java.util.HashMap;
 
+import com.watabou.noosa.WriteQueue;
 import com.watabou.pixeldungeon.actors.hero.HeroClass;
 import com.watabou.utils.Bundle;
 
@@ -28,6 +29,12 @@ public class GamesInProgress {
 	
 	public static Info check( HeroClass cl ) {
 		
+		// The games are set as saved before they are written, if one of
+		// them wasn't, what is in the files has to be read again
+		if (WriteQueue.failed()) {
+			state.clear();
+		}
+		
 		if (state.containsKey( cl )) {
 			
 			return state.get( cl );
@@ -102,14 +102,13 @@ public enum Rankings {
 	private static final String TOTAL	= "total";
 	
 	public void save() {
-		Bundle bundle = new Bundle();
-		bundle.put( RECORDS, records );
-		bundle.put( LATEST, lastRecord );
-		bundle.put( TOTAL, totalNumber );
-		
 		try {
 			OutputStream output = Game.instance.openFileOutput( RANKINGS_FILE );
-			Bundle.write( bundle, output );
+			Bundle bundle = Bundle.writer( output );
+			bundle.put( RECORDS, records );
+			bundle.put( LATEST, lastRecord );
+			bundle.put( TOTAL, totalNumber );
+			bundle.close();
 			output.close();
 		} catch (Exception e) {
 		}
@@ -28,6 +28,7 @@ import com.watabou.pixeldungeon.actors.mobs.Mob;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.utils.Bundlable;
 import com.watabou.utils.Bundle;
+import com.watabou.utils.Random;
 
 public abstract class Actor implements Bundlable {
 	
@@ -35,15 +36,24 @@ public abstract class Actor implements Bundlable {
 
 	private float time;
 	
+	// Position in the scheduler heap (-1 when not scheduled), 
+	// order of addition to break ties between equal times
+	// and position in the list of scheduled chars
+	private int queueIndex = -1;
+	private long seq;
+	private int charIndex = -1;
+	
 	protected abstract boolean act();
 	
 	protected void spend( float time ) {
 		this.time += time;
+		reschedule( this );
 	}
 	
 	protected void postpone( float time ) {
 		if (this.time < now + time) {
 			this.time = now + time;
+			reschedule( this );
 		}
 	}
 	
@@ -53,6 +63,7 @@ public abstract class Actor implements Bundlable {
 	
 	protected void diactivate() {
 		time = Float.MAX_VALUE;
+		reschedule( this );
 	}
 	
 	protected void onAdd() {}
@@ -79,13 +90,40 @@ public abstract class Actor implements Bundlable {
 	
 	private static float now = 0;
 	
+	// Min-heap of all scheduled actors ordered by (time, seq)
+	private static Actor[] queue = new Actor[64];
+	private static int queueSize = 0;
+	private static long nextSeq = 0;
+	
+	// Chars among scheduled actors, used to refresh occupancy
+	private static Actor[] charList = new Actor[32];
+	private static int charCount = 0;
+	
 	private static Char[] chars = new Char[Level.LENGTH];
 	
+	// Cells of "chars" which may be non-null
+	private static int[] occupied = new int[32];
+	private static int occupiedCount = 0;
+	
 	public static void clear() {
 		
 		now = 0;
 		
+		for (int i=0; i < queueSize; i++) {
+			queue[i].queueIndex = -1;
+			queue[i] = null;
+		}
+		queueSize = 0;
+		nextSeq = 0;
+		
+		for (int i=0; i < charCount; i++) {
+			charList[i].charIndex = -1;
+			charList[i] = null;
+		}
+		charCount = 0;
+		
 		Arrays.fill( chars, null );
+		occupiedCount = 0;
 		all.clear();
 	}
 	
@@ -95,18 +133,23 @@ public abstract class Actor implements Bundlable {
 			Statistics.duration += now;
 		}
 		
-		float min = Float.MAX_VALUE;
-		for (Actor a : all) {
-			if (a.time < min) {
-				min = a.time;
-			}
+		float min = queueSize > 0 ? queue[0].time : Float.MAX_VALUE;
+		for (int i=0; i < queueSize; i++) {
+			queue[i].time -= min;
 		}
-		for (Actor a : all) {
-			a.time -= min;
+		// Rounding can make different times equal after the subtraction,
+		// which changes the order of the actors, so the heap is rebuilt
+		for (int i=(queueSize >> 1) - 1; i >= 0; i--) {
+			siftDown( i );
 		}
 		now = 0;
 	}
 	
+	// Time on the current level, see fixTime()
+	public static float now() {
+		return now;
+	}
+	
 	public static void init() {
 		
 		addDelayed( Dungeon.hero, -Float.MIN_VALUE );
@@ -123,7 +166,7 @@ public abstract class Actor implements Bundlable {
 	}
 	
 	public static void occupyCell( Char ch ) {
-		chars[ch.pos] = ch;
+		setChar( ch.pos, ch );
 	}
 	
 	public static void freeCell( int pos ) {
@@ -142,45 +185,47 @@ public abstract class Actor implements Bundlable {
 			return;
 		}
 	
-		boolean doNext;
+		// The turns are played with the stream of the fights, see Dungeon.combat
+		Random.pushGenerator( Dungeon.combat );
+		try {
 
-		do {
-			now = Float.MAX_VALUE;
-			current = null;
-			
-			Arrays.fill( chars, null );
-			
-			for (Actor actor : all) {
-				if (actor.time < now) {
-					now = actor.time;
-					current = actor;
-				}
-				
-				if (actor instanceof Char) {
-					Char ch = (Char)actor;
-					chars[ch.pos] = ch;
-				}
-			}
+			boolean doNext;
 
-			if (current != null) {
+			do {
+				current = null;
 				
-				if (current instanceof Char && ((Char)current).sprite.isMoving) {
-					// If it's character's turn to act, but its sprite 
-					// is moving, wait till the movement is over
-					current = null;
-					break;
-				}
+				refreshChars();
 				
-				doNext = current.act();
-				if (doNext && !Dungeon.hero.isAlive()) {
+				if (queueSize > 0) {
+					current = queue[0];
+					now = current.time;
+				} else {
+					now = Float.MAX_VALUE;
+				}
+
+				if (current != null) {
+					
+					if (current instanceof Char && ((Char)current).sprite.isMoving) {
+						// If it's character's turn to act, but its sprite 
+						// is moving, wait till the movement is over
+						current = null;
+						break;
+					}
+					
+					doNext = current.act();
+					if (doNext && !Dungeon.hero.isAlive()) {
+						doNext = false;
+						current = null;
+					}
+				} else {
 					doNext = false;
-					current = null;
 				}
-			} else {
-				doNext = false;
-			}
-			
-		} while (doNext);
+				
+			} while (doNext);
+
+		} finally {
+			Random.popGenerator();
+		}
 	}
 	
 	public static void add( Actor actor ) {
@@ -199,13 +244,16 @@ public abstract class Actor implements Bundlable {
 		
 		all.add( actor );
 		actor.time += time;	// (+=) => (=) ?
+		enqueue( actor );
 		actor.onAdd();
 		
 		if (actor instanceof Char) {
 			Char ch = (Char)actor;
-			chars[ch.pos] = ch;
+			setChar( ch.pos, ch );
 			for (Buff buff : ch.buffs()) {
-				all.add( buff );
+				if (all.add( buff )) {
+					enqueue( buff );
+				}
 				buff.onAdd();
 			}
 		}
@@ -214,7 +262,9 @@ public abstract class Actor implements Bundlable {
 	public static void remove( Actor actor ) {
 		
 		if (actor != null) {
-			all.remove( actor );
+			if (all.remove( actor )) {
+				dequeue( actor );
+			}
 			actor.onRemove();
 		}
 	}
@@ -226,4 +276,131 @@ public abstract class Actor implements Bundlable {
 	public static HashSet<Actor> all() {
 		return all;
 	}
+	
+	// Rebuilds the occupancy map from the positions of scheduled chars. 
+	// Only the cells filled since the previous rebuild are cleared, 
+	// so the cost depends on the number of chars, not on the level size
+	private static void refreshChars() {
+		
+		for (int i=0; i < occupiedCount; i++) {
+			chars[occupied[i]] = null;
+		}
+		occupiedCount = 0;
+		
+		for (int i=0; i < charCount; i++) {
+			Char ch = (Char)charList[i];
+			setChar( ch.pos, ch );
+		}
+	}
+	
+	private static void setChar( int pos, Char ch ) {
+		if (chars[pos] == null) {
+			if (occupiedCount == occupied.length) {
+				occupied = Arrays.copyOf( occupied, occupiedCount * 2 );
+			}
+			occupied[occupiedCount++] = pos;
+		}
+		chars[pos] = ch;
+	}
+	
+	private static void enqueue( Actor actor ) {
+		
+		if (queueSize == queue.length) {
+			queue = Arrays.copyOf( queue, queueSize * 2 );
+		}
+		
+		actor.seq = nextSeq++;
+		actor.queueIndex = queueSize;
+		queue[queueSize++] = actor;
+		siftUp( actor.queueIndex );
+		
+		if (actor instanceof Char) {
+			if (charCount == charList.length) {
+				charList = Arrays.copyOf( charList, charCount * 2 );
+			}
+			actor.charIndex = charCount;
+			charList[charCount++] = actor;
+		}
+	}
+	
+	private static void dequeue( Actor actor ) {
+		
+		int index = actor.queueIndex;
+		if (index >= 0) {
+			Actor last = queue[--queueSize];
+			queue[queueSize] = null;
+			actor.queueIndex = -1;
+			
+			if (last != actor) {
+				queue[index] = last;
+				last.queueIndex = index;
+				siftDown( siftUp( index ) );
+			}
+		}
+		
+		index = actor.charIndex;
+		if (index >= 0) {
+			Actor last = charList[--charCount];
+			charList[charCount] = null;
+			actor.charIndex = -1;
+			
+			if (last != actor) {
+				charList[index] = last;
+				last.charIndex = index;
+			}
+		}
+	}
+	
+	private static void reschedule( Actor actor ) {
+		if (actor.queueIndex >= 0) {
+			siftDown( siftUp( actor.queueIndex ) );
+		}
+	}
+	
+	private static boolean before( Actor a, Actor b ) {
+		return a.time < b.time || (a.time == b.time && a.seq < b.seq);
+	}
+	
+	private static int siftUp( int index ) {
+		
+		Actor actor = queue[index];
+		while (index > 0) {
+			int parent = (index - 1) >> 1;
+			Actor p = queue[parent];
+			if (!before( actor, p )) {
+				break;
+			}
+			queue[index] = p;
+			p.queueIndex = index;
+			index = parent;
+		}
+		queue[index] = actor;
+		actor.queueIndex = index;
+		
+		return index;
+	}
+	
+	private static int siftDown( int index ) {
+		
+		Actor actor = queue[index];
+		int half = queueSize >> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			int right = child + 1;
+			if (right < queueSize && before( queue[right], queue[child] )) {
+				child = right;
+			}
+			Actor c = queue[child];
+			if (!before( c, actor )) {
+				break;
+			}
+			queue[index] = c;
+			c.queueIndex = index;
+			index = child;
+		}
+		queue[index] = actor;
+		actor.queueIndex = index;
+		
+		return index;
+	}
 }
@@ -19,8 +19,8 @@ package com.watabou.pixeldungeon.actors;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
-import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.watabou.noosa.audio.Sample;
 import com.watabou.pixeldungeon.Assets;
 import com.watabou.pixeldungeon.Dungeon;
@@ -28,6 +28,7 @@ import com.watabou.pixeldungeon.ResultDescriptions;
 import com.watabou.pixeldungeon.actors.buffs.Amok;
 import com.watabou.pixeldungeon.actors.buffs.Bleeding;
 import com.watabou.pixeldungeon.actors.buffs.Buff;
+import com.watabou.pixeldungeon.actors.buffs.BuffSet;
 import com.watabou.pixeldungeon.actors.buffs.Burning;
 import com.watabou.pixeldungeon.actors.buffs.Vertigo;
 import com.watabou.pixeldungeon.actors.buffs.Cripple;
@@ -89,7 +90,7 @@ public abstract class Char extends Actor {
 	
 	public int viewDistance	= 8;
 	
-	private HashSet<Buff> buffs = new HashSet<Buff>();
+	private BuffSet buffs = new BuffSet();
 	
 	@Override
 	protected boolean act() {
@@ -110,7 +111,7 @@ public abstract class Char extends Actor {
 		bundle.put( POS, pos );
 		bundle.put( TAG_HP, HP );
 		bundle.put( TAG_HT, HT );
-		bundle.put( BUFFS, buffs );
+		bundle.put( BUFFS, buffs.all() );
 	}
 	
 	@Override
@@ -309,29 +310,18 @@ public abstract class Char extends Actor {
 		super.spend( time / timeScale );
 	}
 	
-	public HashSet<Buff> buffs() {
-		return buffs;
+	// Neither this list nor the lists of buffs(Class)
+	// should be changed, they belong to the char
+	public List<Buff> buffs() {
+		return buffs.all();
 	}
 	
-	@SuppressWarnings("unchecked")
-	public <T extends Buff> HashSet<T> buffs( Class<T> c ) {
-		HashSet<T> filtered = new HashSet<T>();
-		for (Buff b : buffs) {
-			if (ClassReflection.isInstance( c, b )) {
-				filtered.add( (T)b );
-			}
-		}
-		return filtered;
+	public <T extends Buff> List<T> buffs( Class<T> c ) {
+		return buffs.getAll( c );
 	}
 	
-	@SuppressWarnings("unchecked")
 	public <T extends Buff> T buff( Class<T> c ) {
-		for (Buff b : buffs) {
-			if (ClassReflection.isInstance( c, b )) {
-				return (T)b;
-			}
-		}
-		return null;
+		return buffs.get( c );
 	}
 	
 	
@@ -422,20 +412,20 @@ public abstract class Char extends Actor {
 	}
 	
 	public void remove( Class<? extends Buff> buffClass ) {
-		for (Buff buff : buffs( buffClass )) {
+		for (Buff buff : buffs( buffClass ).toArray( new Buff[0] )) {
 			remove( buff );
 		}
 	}
 	
 	@Override
 	protected void onRemove() {
-		for (Buff buff : buffs.toArray( new Buff[0] )) {
+		for (Buff buff : buffs.all().toArray( new Buff[0] )) {
 			buff.detach();
 		}
 	}
 	
 	public void updateSpriteState() {
-		for (Buff buff:buffs) {
+		for (Buff buff:buffs.all()) {
 			if (buff instanceof Burning) {
 				sprite.add( CharSprite.State.BURNING );
 			} else if (buff instanceof Levitation) {
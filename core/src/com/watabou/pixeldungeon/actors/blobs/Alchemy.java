@@ -55,6 +55,7 @@ public class Alchemy extends Blob {
 		cur[pos] = 0;
 		pos = cell;
 		volume = cur[pos] = amount;
+		area.union( pos % WIDTH, pos / WIDTH );
 	}
 	
 	public static void transmute( int cell ) {
@@ -27,6 +27,8 @@ import com.watabou.pixeldungeon.effects.BlobEmitter;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.utils.BArray;
 import com.watabou.utils.Bundle;
+import com.watabou.utils.CellSet;
+import com.watabou.utils.Rect;
 
 public class Blob extends Actor {
 	
@@ -34,11 +36,26 @@ public class Blob extends Actor {
 	public static final int HEIGHT	= Level.HEIGHT;
 	public static final int LENGTH	= Level.LENGTH;
 	
+	// Shared by all the blobs, they evolve one at a time
+	private static final CellSet NOT_BLOCKING = new CellSet( LENGTH );
+	
 	public int volume = 0;
 	
 	public int[] cur;
 	protected int[] off;
 	
+	// Cells of cur which can have anything in them, the rest of them
+	// are 0. Whatever puts something into cur other than seed() has to
+	// make the area cover the cell
+	public Rect area = new Rect();
+	
+	// The same for off, evolve() sets it with offArea()
+	protected Rect offArea = new Rect();
+	private boolean offAreaSet;
+	
+	// Shared by all the blobs, they evolve one at a time
+	private static final Rect SWEEP = new Rect();
+	
 	public BlobEmitter emitter;
 	
 	protected Blob() {
@@ -109,6 +126,13 @@ public class Blob extends Actor {
 			
 			this.cur = cur;
 		}
+		
+		area.setEmpty();
+		for (int i=0; i < LENGTH; i++) {
+			if (cur[i] > 0) {
+				area.union( i % WIDTH, i / WIDTH );
+			}
+		}
 	}
 	
 	@Override
@@ -119,12 +143,21 @@ public class Blob extends Actor {
 		if (volume > 0) {
 
 			volume = 0;
+			offAreaSet = false;
 			evolve();
+			if (!offAreaSet) {
+				// It went over the whole map
+				offArea.set( 0, 0, WIDTH, HEIGHT );
+			}
 			
 			int[] tmp = off;
 			off = cur;
 			cur = tmp;
 			
+			Rect area = offArea;
+			offArea = this.area;
+			this.area = area;
+			
 		}
 		
 		return true;
@@ -136,12 +169,16 @@ public class Blob extends Actor {
 	
 	protected void evolve() {
 		
-		boolean[] notBlocking = BArray.not( Level.solid, null );
+		boolean[] notBlocking = BArray.not( Level.solidCells, NOT_BLOCKING ).view();
 		
-		for (int i=1; i < HEIGHT-1; i++) {
+		// Gas spreads to the neighbours, the border of the map is never touched
+		Rect sweep = sweep( 1, 1, 1, WIDTH - 1, HEIGHT - 1 );
+		offArea.setEmpty();
+		
+		for (int i=sweep.top; i < sweep.bottom; i++) {
 			
-			int from = i * WIDTH + 1;
-			int to = from + WIDTH - 2;
+			int from = i * WIDTH + sweep.left;
+			int to = i * WIDTH + sweep.right;
 			
 			for (int pos=from; pos < to; pos++) {
 				if (notBlocking[pos]) {
@@ -169,17 +206,58 @@ public class Blob extends Actor {
 					int value = sum >= count ? (sum / count) - 1 : 0;
 					off[pos] = value;
 					
-					volume += value;
+					if (value > 0) {
+						volume += value;
+						offArea.union( pos - i * WIDTH, i );
+					}
 				} else {
 					off[pos] = 0;
 				}
 			}
 		}
+		
+		offArea();
+	}
+	
+	// Cells evolve() has to fill in off: the area grown by how far the blob
+	// can get in a turn, and whatever is left in off from before, so that it's
+	// overwritten. Cells outside of it stay 0 as nothing can get there
+	protected Rect sweep( int spread, int left, int top, int right, int bottom ) {
+		
+		Rect sweep = SWEEP;
+		if (area.isEmpty()) {
+			sweep.setEmpty();
+		} else {
+			sweep.set( area.left - spread, area.top - spread, area.right + spread, area.bottom + spread );
+		}
+		if (!offArea.isEmpty()) {
+			if (sweep.isEmpty()) {
+				sweep.set( offArea );
+			} else {
+				sweep.set( 
+					Math.min( sweep.left, offArea.left ), Math.min( sweep.top, offArea.top ), 
+					Math.max( sweep.right, offArea.right ), Math.max( sweep.bottom, offArea.bottom ) );
+			}
+		}
+		
+		sweep.set( 
+			Math.max( sweep.left, left ), Math.max( sweep.top, top ), 
+			Math.min( sweep.right, right ), Math.min( sweep.bottom, bottom ) );
+		if (sweep.isEmpty()) {
+			sweep.setEmpty();
+		}
+		return sweep;
+	}
+	
+	// The cells of off which evolve() has put anything into are in offArea
+	protected void offArea() {
+		offAreaSet = true;
 	}
 	
 	public void seed( int cell, int amount ) {
 		cur[cell] += amount;
 		volume += amount;
+		area.union( cell % WIDTH, cell / WIDTH );
 	}
 	
 	public void clear( int cell ) {
@@ -28,6 +28,7 @@ import com.watabou.pixeldungeon.items.Heap;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.levels.Terrain;
 import com.watabou.pixeldungeon.scenes.GameScene;
+import com.watabou.utils.Rect;
 
 public class Fire extends Blob {
 	
@@ -36,46 +37,64 @@ public class Fire extends Blob {
 
 		boolean[] flamable = Level.flamable;
 		
+		// Fire spreads to the neighbours, the sides of the map are neighbours
+		// of each other in this loop, so they are looked at together
+		Rect sweep = sweep( 1, 0, 1, WIDTH, HEIGHT - 1 );
+		if (sweep.left == 0 || sweep.right == WIDTH) {
+			sweep.left = 0;
+			sweep.right = WIDTH;
+		}
+		offArea.setEmpty();
+		
 		int from = WIDTH + 1;
 		int to = Level.LENGTH - WIDTH - 1;
 		
 		boolean observe = false;
 		
-		for (int pos=from; pos < to; pos++) {
+		for (int y=sweep.top; y < sweep.bottom; y++) {
 			
-			int fire;
+			int rowFrom = Math.max( y * WIDTH + sweep.left, from );
+			int rowTo = Math.min( y * WIDTH + sweep.right, to );
 			
-			if (cur[pos] > 0) {
+			for (int pos=rowFrom; pos < rowTo; pos++) {
 				
-				burn( pos );
+				int fire;
 				
-				fire = cur[pos] - 1;
-				if (fire <= 0 && flamable[pos]) {
+				if (cur[pos] > 0) {
+					
+					burn( pos );
 					
-					int oldTile = Dungeon.level.map[pos];
-					Level.set( pos, Terrain.EMBERS );
+					fire = cur[pos] - 1;
+					if (fire <= 0 && flamable[pos]) {
+						
+						int oldTile = Dungeon.level.map[pos];
+						Level.set( pos, Terrain.EMBERS );
+						
+						observe = true;
+						GameScene.updateMap( pos );
+						if (Dungeon.visible[pos]) {
+							GameScene.discoverTile( pos, oldTile );
+						}
+					}
+					
+				} else {
 					
-					observe = true;
-					GameScene.updateMap( pos );
-					if (Dungeon.visible[pos]) {
-						GameScene.discoverTile( pos, oldTile );
+					if (flamable[pos] && (cur[pos-1] > 0 || cur[pos+1] > 0 || cur[pos-WIDTH] > 0 || cur[pos+WIDTH] > 0)) {
+						fire = 4;
+						burn( pos );
+					} else {
+						fire = 0;
 					}
+	
 				}
 				
-			} else {
-				
-				if (flamable[pos] && (cur[pos-1] > 0 || cur[pos+1] > 0 || cur[pos-WIDTH] > 0 || cur[pos+WIDTH] > 0)) {
-					fire = 4;
-					burn( pos );
-				} else {
-					fire = 0;
+				volume += (off[pos] = fire);
+				if (fire > 0) {
+					offArea.union( pos - y * WIDTH, y );
 				}
-
 			}
-			
-			volume += (off[pos] = fire);
-
 		}
+		offArea();
 		
 		if (observe) {
 			Dungeon.observe();
@@ -98,6 +117,7 @@ public class Fire extends Blob {
 		if (cur[cell] == 0) {
 			volume += amount;
 			cur[cell] = amount;
+			area.union( cell % WIDTH, cell / WIDTH );
 		}
 	}
 	
@@ -31,9 +31,12 @@ public class ParalyticGas extends Blob {
 		super.evolve();
 		
 		Char ch;
-		for (int i=0; i < LENGTH; i++) {
-			if (cur[i] > 0 && (ch = Actor.findChar( i )) != null) {
-				Buff.prolong( ch, Paralysis.class, Paralysis.duration( ch ) );
+		for (int y=area.top; y < area.bottom; y++) {
+			int to = y * WIDTH + area.right;
+			for (int i=y * WIDTH + area.left; i < to; i++) {
+				if (cur[i] > 0 && (ch = Actor.findChar( i )) != null) {
+					Buff.prolong( ch, Paralysis.class, Paralysis.duration( ch ) );
+				}
 			}
 		}
 	}
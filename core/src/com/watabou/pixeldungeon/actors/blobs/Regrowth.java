@@ -38,24 +38,27 @@ public class Regrowth extends Blob {
 			
 			boolean mapUpdated = false;
 			
-			for (int i=0; i < LENGTH; i++) {
-				if (off[i] > 0) {
-					int c = Dungeon.level.map[i];
-					if (c == Terrain.EMPTY || c == Terrain.EMBERS || c == Terrain.EMPTY_DECO) {
+			for (int y=offArea.top; y < offArea.bottom; y++) {
+				int to = y * WIDTH + offArea.right;
+				for (int i=y * WIDTH + offArea.left; i < to; i++) {
+					if (off[i] > 0) {
+						int c = Dungeon.level.map[i];
+						if (c == Terrain.EMPTY || c == Terrain.EMBERS || c == Terrain.EMPTY_DECO) {
+							
+							Level.set( i, cur[i] > 9 ? Terrain.HIGH_GRASS : Terrain.GRASS );
+							mapUpdated = true;
+							
+						} else if (c == Terrain.GRASS && cur[i] > 9) {
+							
+							Level.set( i, Terrain.HIGH_GRASS );
+							mapUpdated = true;
+							
+						}
 						
-						Level.set( i, cur[i] > 9 ? Terrain.HIGH_GRASS : Terrain.GRASS );
-						mapUpdated = true;
-						
-					} else if (c == Terrain.GRASS && cur[i] > 9) {
-						
-						Level.set( i, Terrain.HIGH_GRASS );
-						mapUpdated = true;
-						
-					}
-					
-					Char ch = Actor.findChar( i );
-					if (ch != null) {
-						Buff.prolong( ch, Roots.class, TICK );
+						Char ch = Actor.findChar( i );
+						if (ch != null) {
+							Buff.prolong( ch, Roots.class, TICK );
+						}
 					}
 				}
 			}
@@ -28,6 +28,7 @@ import com.watabou.pixeldungeon.effects.Speck;
 import com.watabou.pixeldungeon.utils.GLog;
 import com.watabou.pixeldungeon.utils.Utils;
 import com.watabou.utils.Random;
+import com.watabou.utils.Rect;
 
 public class ToxicGas extends Blob implements Hero.Doom {
 	
@@ -38,15 +39,18 @@ public class ToxicGas extends Blob implements Hero.Doom {
 		int levelDamage = 5 + Dungeon.depth * 5;
 		
 		Char ch;
-		for (int i=0; i < LENGTH; i++) {
-			if (cur[i] > 0 && (ch = Actor.findChar( i )) != null) {
-				
-				int damage = (ch.HT + levelDamage) / 40;
-				if (Random.Int( 40 ) < (ch.HT + levelDamage) % 40) {
-					damage++;
+		for (int y=area.top; y < area.bottom; y++) {
+			int to = y * WIDTH + area.right;
+			for (int i=y * WIDTH + area.left; i < to; i++) {
+				if (cur[i] > 0 && (ch = Actor.findChar( i )) != null) {
+					
+					int damage = (ch.HT + levelDamage) / 40;
+					if (Random.Int( 40 ) < (ch.HT + levelDamage) % 40) {
+						damage++;
+					}
+					
+					ch.damage( damage, this );
 				}
-				
-				ch.damage( damage, this );
 			}
 		}
 		
@@ -55,17 +59,22 @@ public class ToxicGas extends Blob implements Hero.Doom {
 			
 			int par[] = blob.cur;
 			
-			for (int i=0; i < LENGTH; i++) {
-				
-				int t = cur[i];
-				int p = par[i];
-				
-				if (p >= t) {
-					volume -= t;
-					cur[i] = 0;
-				} else {
-					blob.volume -= p;
-					par[i] = 0;
+			// Nothing changes where either of the gases is missing
+			Rect both = area.intersect( blob.area );
+			for (int y=both.top; y < both.bottom; y++) {
+				int to = y * WIDTH + both.right;
+				for (int i=y * WIDTH + both.left; i < to; i++) {
+					
+					int t = cur[i];
+					int p = par[i];
+					
+					if (p >= t) {
+						volume -= t;
+						cur[i] = 0;
+					} else {
+						blob.volume -= p;
+						par[i] = 0;
+					}
 				}
 			}
 		}
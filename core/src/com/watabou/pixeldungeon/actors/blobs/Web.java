@@ -23,27 +23,39 @@ import com.watabou.pixeldungeon.actors.buffs.Buff;
 import com.watabou.pixeldungeon.actors.buffs.Roots;
 import com.watabou.pixeldungeon.effects.BlobEmitter;
 import com.watabou.pixeldungeon.effects.particles.WebParticle;
+import com.watabou.utils.Rect;
 
 public class Web extends Blob {
 	
 	@Override
 	protected void evolve() {
 		
-		for (int i=0; i < LENGTH; i++) {
+		// Webs don't spread, they only wear off
+		Rect sweep = sweep( 0, 0, 0, WIDTH, HEIGHT );
+		offArea.setEmpty();
+		
+		for (int y=sweep.top; y < sweep.bottom; y++) {
 			
-			int offv = cur[i] > 0 ? cur[i] - 1 : 0;
-			off[i] = offv;
+			int to = y * WIDTH + sweep.right;
 			
-			if (offv > 0) {
+			for (int i=y * WIDTH + sweep.left; i < to; i++) {
 				
-				volume += offv;
+				int offv = cur[i] > 0 ? cur[i] - 1 : 0;
+				off[i] = offv;
 				
-				Char ch = Actor.findChar( i );
-				if (ch != null) {
-					Buff.prolong( ch, Roots.class, TICK );
+				if (offv > 0) {
+					
+					volume += offv;
+					offArea.union( i - y * WIDTH, y );
+					
+					Char ch = Actor.findChar( i );
+					if (ch != null) {
+						Buff.prolong( ch, Roots.class, TICK );
+					}
 				}
 			}
 		}
+		offArea();
 	}
 	
 	@Override
@@ -58,6 +70,7 @@ public class Web extends Blob {
 		if (diff > 0) {
 			cur[cell] = amount;
 			volume += diff;
+			area.union( cell % WIDTH, cell / WIDTH );
 		}
 	}
 	
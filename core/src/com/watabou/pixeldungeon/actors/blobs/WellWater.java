@@ -124,6 +124,7 @@ public class WellWater extends Blob {
 		cur[pos] = 0;
 		pos = cell;
 		volume = cur[pos] = amount;
+		area.union( pos % WIDTH, pos / WIDTH );
 	}
 	
 	public static void affectCell( int cell ) {
@@ -0,0 +1,145 @@
+/*
+ * Pixel Dungeon
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+package com.watabou.pixeldungeon.actors.buffs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+// Buffs of a char indexed by their classes and superclasses, so looking
+// up a buff of some type doesn't need to check all of them. Every class
+// gets an integer id when the first buff of it or of its subclass is
+// added to any char, a class without an id can't have any buffs.
+public class BuffSet {
+	
+	// Ids of a class followed by the ids of its superclasses up to Buff.
+	// The map is replaced rather than changed, so it can be read without
+	// locking while levels are generated in the background.
+	private static volatile HashMap<Class<?>, int[]> types = new HashMap<Class<?>, int[]>();
+	private static int nextId = 0;
+	
+	// In the order the buffs were added
+	private final ArrayList<Buff> all = new ArrayList<Buff>();
+	
+	// Buffs by the id of their class or superclass
+	private ArrayList<Buff>[] byType = newLists( 8 );
+	
+	public List<Buff> all() {
+		return all;
+	}
+	
+	public boolean add( Buff buff ) {
+		
+		if (all.contains( buff )) {
+			return false;
+		}
+		all.add( buff );
+		
+		int[] ids = register( buff.getClass() );
+		for (int i=0; i < ids.length; i++) {
+			list( ids[i] ).add( buff );
+		}
+		return true;
+	}
+	
+	public boolean remove( Buff buff ) {
+		
+		if (!all.remove( buff )) {
+			return false;
+		}
+		
+		int[] ids = types.get( buff.getClass() );
+		for (int i=0; i < ids.length; i++) {
+			byType[ids[i]].remove( buff );
+		}
+		return true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public <T extends Buff> T get( Class<T> c ) {
+		ArrayList<Buff> list = find( c );
+		return list == null || list.isEmpty() ? null : (T)list.get( 0 );
+	}
+	
+	// The returned list belongs to the set and must not be changed,
+	// buffs should be copied out of it before detaching them
+	@SuppressWarnings("unchecked")
+	public <T extends Buff> List<T> getAll( Class<T> c ) {
+		ArrayList<Buff> list = find( c );
+		return list == null ? Collections.<T>emptyList() : (List<T>)(List<?>)list;
+	}
+	
+	private ArrayList<Buff> find( Class<?> c ) {
+		int[] ids = types.get( c );
+		if (ids == null || ids[0] >= byType.length) {
+			return null;
+		}
+		return byType[ids[0]];
+	}
+	
+	private ArrayList<Buff> list( int id ) {
+		if (id >= byType.length) {
+			ArrayList<Buff>[] grown = newLists( Math.max( id + 1, byType.length * 2 ) );
+			System.arraycopy( byType, 0, grown, 0, byType.length );
+			byType = grown;
+		}
+		if (byType[id] == null) {
+			byType[id] = new ArrayList<Buff>( 2 );
+		}
+		return byType[id];
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static ArrayList<Buff>[] newLists( int size ) {
+		return (ArrayList<Buff>[])new ArrayList<?>[size];
+	}
+	
+	private static int[] register( Class<?> c ) {
+		
+		int[] ids = types.get( c );
+		if (ids != null) {
+			return ids;
+		}
+		
+		synchronized (BuffSet.class) {
+			
+			HashMap<Class<?>, int[]> updated = new HashMap<Class<?>, int[]>( types );
+			ids = register( c, updated );
+			types = updated;
+			return ids;
+		}
+	}
+	
+	private static int[] register( Class<?> c, HashMap<Class<?>, int[]> map ) {
+		
+		int[] ids = map.get( c );
+		if (ids != null) {
+			return ids;
+		}
+		
+		int[] parent = c == Buff.class ? new int[0] : register( c.getSuperclass(), map );
+		
+		ids = new int[parent.length + 1];
+		ids[0] = nextId++;
+		System.arraycopy( parent, 0, ids, 1, parent.length );
+		
+		map.put( c, ids );
+		return ids;
+	}
+}
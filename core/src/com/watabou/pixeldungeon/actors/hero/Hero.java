@@ -18,6 +18,7 @@
 package com.watabou.pixeldungeon.actors.hero;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 
 import com.watabou.noosa.Camera;
@@ -97,12 +98,15 @@ import com.watabou.pixeldungeon.sprites.HeroSprite;
 import com.watabou.pixeldungeon.ui.AttackIndicator;
 import com.watabou.pixeldungeon.ui.BuffIndicator;
 import com.watabou.pixeldungeon.ui.QuickSlot;
+import com.watabou.pixeldungeon.utils.BArray;
 import com.watabou.pixeldungeon.utils.GLog;
 import com.watabou.pixeldungeon.utils.Utils;
 import com.watabou.pixeldungeon.windows.WndMessage;
 import com.watabou.pixeldungeon.windows.WndResurrect;
 import com.watabou.pixeldungeon.windows.WndTradeItem;
 import com.watabou.utils.Bundle;
+import com.watabou.utils.CellSet;
+import com.watabou.utils.PathFinder;
 import com.watabou.utils.Random;
 
 public class Hero extends Char {
@@ -129,6 +133,21 @@ public class Hero extends Char {
 	private static final float TIME_TO_REST		= 1f;
 	private static final float TIME_TO_SEARCH	= 2f;
 	
+	// Passable cells the hero knows about, reused by getCloser
+	private static final CellSet KNOWN = new CellSet( Level.LENGTH );
+	
+	// Route to the target of getCloser, planned once and followed step
+	// by step until something on the way or what the hero knows changes
+	private static final PathFinder.Workspace ROUTE = new PathFinder.Workspace( Level.WIDTH, Level.HEIGHT );
+	private static final CellSet ROUTE_KNOWN = new CellSet( Level.LENGTH );
+	// Cells of the route which are still ahead
+	private static final CellSet ROUTE_AHEAD = new CellSet( Level.LENGTH );
+	private int routeTarget = -1;
+	private int routeLength;
+	private int routeStep;
+	private int routePos;
+	private int routeVersion;
+	
 	public HeroClass heroClass = HeroClass.ROGUE;
 	public HeroSubClass subClass = HeroSubClass.NONE;
 	
@@ -919,16 +938,10 @@ public class Hero extends Char {
 			
 		} else {
 		
-			int len = Level.LENGTH;
-			boolean[] p = Level.passable;
-			boolean[] v = Dungeon.level.visited;
-			boolean[] m = Dungeon.level.mapped;
-			boolean[] passable = new boolean[len];
-			for (int i=0; i < len; i++) {
-				passable[i] = p[i] && (v[i] || m[i]);
-			}
+			BArray.or( Dungeon.level.visitedCells, Dungeon.level.mappedCells, KNOWN );
+			BArray.and( Level.passableCells, KNOWN, KNOWN );
 			
-			step = Dungeon.findPath( this, pos, target, passable, Level.fieldOfView );
+			step = routeStep( target );
 		}
 		
 		if (step != -1) {
@@ -948,6 +961,49 @@ public class Hero extends Char {
 
 	}
 	
+	private int routeStep( int target ) {
+		
+		if (target != routeTarget || pos != routePos || routeStep >= routeLength || 
+			routeVersion != Level.terrainVersion || 
+			!Arrays.equals( KNOWN.words, ROUTE_KNOWN.words ) || 
+			Actor.findChar( ROUTE.path[routeStep] ) != null || 
+			routeBlocked()) {
+			
+			routeLength = Dungeon.findPath( this, pos, target, KNOWN.view(), Level.fieldOfView, ROUTE );
+			if (routeLength == -1) {
+				routeTarget = -1;
+				return -1;
+			}
+			
+			routeTarget = target;
+			routeStep = 0;
+			routeVersion = Level.terrainVersion;
+			ROUTE_KNOWN.copy( KNOWN );
+			
+			ROUTE_AHEAD.clear();
+			for (int i=0; i < routeLength; i++) {
+				ROUTE_AHEAD.set( ROUTE.path[i] );
+			}
+		}
+		
+		routePos = ROUTE.path[routeStep++];
+		ROUTE_AHEAD.clear( routePos );
+		return routePos;
+	}
+	
+	// A search would go around the chars the hero sees
+	private boolean routeBlocked() {
+		for (Actor actor : Actor.all()) {
+			if (actor instanceof Char) {
+				int cell = ((Char)actor).pos;
+				if (Level.fieldOfView[cell] && ROUTE_AHEAD.get( cell )) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
 	public boolean handle( int cell ) {
 		
 		if (cell == -1) {
@@ -1159,7 +1215,7 @@ public class Hero extends Char {
 		
 		int length = Level.LENGTH;
 		int[] map = Dungeon.level.map;
-		boolean[] visited = Dungeon.level.visited;
+		CellSet visited = Dungeon.level.visitedCells;
 		boolean[] discoverable = Level.discoverable;
 		
 		for (int i=0; i < length; i++) {
@@ -1168,7 +1224,7 @@ public class Hero extends Char {
 			
 			if (discoverable[i]) {
 				
-				visited[i] = true;
+				visited.set( i );
 				if ((Terrain.flags[terr] & Terrain.SECRET) != 0) {
 					Level.set( i, Terrain.discover( terr ) );						
 					GameScene.updateMap( i );
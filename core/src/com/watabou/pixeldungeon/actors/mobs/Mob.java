@@ -36,6 +36,7 @@ import com.watabou.pixeldungeon.effects.Wound;
 import com.watabou.pixeldungeon.items.Generator;
 import com.watabou.pixeldungeon.items.Item;
 import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.pixeldungeon.mechanics.FlowField;
 import com.watabou.pixeldungeon.sprites.CharSprite;
 import com.watabou.pixeldungeon.utils.GLog;
 import com.watabou.pixeldungeon.utils.Utils;
@@ -233,9 +234,14 @@ public abstract class Mob extends Char {
 			return false;
 		}
 		
-		int step = Dungeon.findPath( this, pos, target, 
-			Level.passable, 
-			Level.fieldOfView );
+		int step = target == Dungeon.hero.pos ? 
+			FlowField.step( this, pos, target, Level.fieldOfView ) : 
+			-1;
+		if (step == -1) {
+			step = Dungeon.findPath( this, pos, target, 
+				Level.passable, 
+				Level.fieldOfView );
+		}
 		if (step != -1) {
 			move( step );
 			return true;
@@ -29,6 +29,7 @@ import com.watabou.pixeldungeon.actors.buffs.Frost;
 import com.watabou.pixeldungeon.actors.buffs.Paralysis;
 import com.watabou.pixeldungeon.actors.buffs.Roots;
 import com.watabou.pixeldungeon.items.food.MysteryMeat;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.sprites.PiranhaSprite;
 import com.watabou.utils.Random;
@@ -47,8 +48,9 @@ public class Piranha extends Mob {
 	public Piranha() {
 		super();
 		
-		HP = HT = 10 + Dungeon.depth * 5;
-		defenseSkill = 10 + Dungeon.depth * 2;
+		int depth = Generation.depth();
+		HP = HT = 10 + depth * 5;
+		defenseSkill = 10 + depth * 2;
 	}
 	
 	@Override
@@ -31,6 +31,7 @@ import com.watabou.pixeldungeon.items.weapon.Weapon.Enchantment;
 import com.watabou.pixeldungeon.items.weapon.enchantments.Death;
 import com.watabou.pixeldungeon.items.weapon.enchantments.Leech;
 import com.watabou.pixeldungeon.items.weapon.melee.MeleeWeapon;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.sprites.StatueSprite;
 import com.watabou.pixeldungeon.utils.Utils;
 import com.watabou.utils.Bundle;
@@ -58,8 +59,9 @@ public class Statue extends Mob {
 		weapon.identify();
 		weapon.enchant( Enchantment.random() );
 		
-		HP = HT = 15 + Dungeon.depth * 5;
-		defenseSkill = 4 + Dungeon.depth;
+		int depth = Generation.depth();
+		HP = HT = 15 + depth * 5;
+		defenseSkill = 4 + depth;
 	}
 	
 	private static final String WEAPON	= "weapon";
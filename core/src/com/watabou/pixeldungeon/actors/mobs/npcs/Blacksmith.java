@@ -32,6 +32,7 @@ import com.watabou.pixeldungeon.items.Item;
 import com.watabou.pixeldungeon.items.quest.DarkGold;
 import com.watabou.pixeldungeon.items.quest.Pickaxe;
 import com.watabou.pixeldungeon.items.scrolls.ScrollOfUpgrade;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Room;
 import com.watabou.pixeldungeon.levels.Room.Type;
 import com.watabou.pixeldungeon.scenes.GameScene;
@@ -303,8 +304,11 @@ public class Blacksmith extends NPC {
 			}
 		}
 		
+		// Picks a room of the level being laid out, the quest
+		// starts when the generation is applied to the game
 		public static void spawn( Collection<Room> rooms ) {
-			if (!spawned && Dungeon.depth > 11 && Random.Int( 15 - Dungeon.depth ) == 0) {
+			Generation generation = Generation.current();
+			if (!generation.blacksmithSpawned && generation.depth > 11 && Random.Int( 15 - generation.depth ) == 0) {
 				
 				Room blacksmith = null;
 				for (Room r : rooms) {
@@ -312,15 +316,24 @@ public class Blacksmith extends NPC {
 						blacksmith = r;
 						blacksmith.type = Type.BLACKSMITH;
 						
-						spawned = true;
-						alternative = Random.Int( 2 ) == 0;
-						
-						given = false;
+						generation.blacksmithSpawned = true;
+						generation.blacksmithAlternative = Random.Int( 2 ) == 0;
 						
 						break;
 					}
 				}
 			}
 		}
+		
+		public static void spawn( boolean alternative ) {
+			spawned = true;
+			Quest.alternative = alternative;
+			
+			given = false;
+		}
+		
+		public static boolean isSpawned() {
+			return spawned;
+		}
 	}
 }
@@ -21,12 +21,13 @@ import com.watabou.noosa.particles.Emitter;
 import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.DungeonTilemap;
 import com.watabou.pixeldungeon.actors.blobs.Blob;
+import com.watabou.utils.CellSet;
+import com.watabou.utils.Rect;
 import com.watabou.utils.Random;
 
 public class BlobEmitter extends Emitter {
 
 	private static final int WIDTH	= Blob.WIDTH;
-	private static final int LENGTH	= Blob.LENGTH;
 	
 	private Blob blob;
 	
@@ -48,9 +49,19 @@ public class BlobEmitter extends Emitter {
 		int[] map = blob.cur;
 		float size = DungeonTilemap.SIZE;
 		
-		for (int i=0; i < LENGTH; i++) {
-			if (map[i] > 0 && Dungeon.visible[i]) {
-				float x = ((i % WIDTH) + Random.Float()) * size;
+		// Only the visible cells of the blob's area are looked at,
+		// in the same order as before
+		Rect area = blob.area;
+		if (area.isEmpty()) {
+			return;
+		}
+		int to = (area.bottom - 1) * WIDTH + area.right;
+		
+		CellSet visible = Dungeon.visibleCells;
+		for (int i=visible.next( area.top * WIDTH + area.left ); i >= 0 && i < to; i=visible.next( i + 1 )) {
+			int col = i % WIDTH;
+			if (col >= area.left && col < area.right && map[i] > 0) {
+				float x = (col + Random.Float()) * size;
 				float y = ((i / WIDTH) + Random.Float()) * size;
 				factory.emit( this, index, x, y );
 			}
@@ -17,10 +17,10 @@
  */
 package com.watabou.pixeldungeon.effects;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Game;
 import com.watabou.noosa.Image;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.audio.Sample;
 import com.watabou.pixeldungeon.Assets;
 import com.watabou.utils.PointF;
@@ -66,8 +66,8 @@ public class DeathRay extends Image {
 	
 	@Override
 	public void draw() {
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 		super.draw();
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 	}
 }
@@ -17,11 +17,11 @@
  */
 package com.watabou.pixeldungeon.effects;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.math.MathUtils;
 import com.watabou.gltextures.Gradient;
 import com.watabou.gltextures.SmartTexture;
+import com.watabou.gltextures.TextureCache;
 import com.watabou.noosa.Game;
 import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.Visual;
@@ -54,7 +54,9 @@ public class Flare extends Visual {
 		// to show the effect, it must be refactored
 		
 		int gradient[] = {0xFFFFFFFF, 0x00FFFFFF};
-		texture = new Gradient( gradient );
+		// Nothing is drawn without a display, see TextureCache.headless
+		texture = TextureCache.headless ? 
+			TextureCache.createSolid( 0xFFFFFFFF ) : new Gradient( gradient );
 		
 		this.nRays = nRays;
 		
@@ -142,9 +144,9 @@ public class Flare extends Visual {
 		super.draw();
 		
 		if (lightMode) {
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 			drawRays();
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 		} else {
 			drawRays();
 		}
@@ -35,6 +35,11 @@ public class Halo extends Image {
 	public Halo() {
 		super();
 		
+		if (TextureCache.headless && !TextureCache.contains( CACHE_KEY )) {
+			// Nothing to draw the circles on
+			TextureCache.add( CACHE_KEY, new SmartTexture( RADIUS * 2, RADIUS * 2 ) );
+		}
+		
 		if (!TextureCache.contains( CACHE_KEY )) {
 			Pixmap pixmap = new Pixmap(RADIUS * 2, RADIUS * 2, Pixmap.Format.RGBA8888);
 			pixmap.setColor( 0xFFFFFFFF );
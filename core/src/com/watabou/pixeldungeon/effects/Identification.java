@@ -17,9 +17,9 @@
  */
 package com.watabou.pixeldungeon.effects;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Group;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.particles.PixelParticle;
 import com.watabou.utils.PointF;
 import com.watabou.utils.Random;
@@ -57,9 +57,9 @@ public class Identification extends Group {
 	
 	@Override
 	public void draw() {
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 		super.draw();
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 	}
 	
 	public static class Speck extends PixelParticle {
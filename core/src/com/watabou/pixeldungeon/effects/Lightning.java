@@ -17,13 +17,14 @@
  */
 package com.watabou.pixeldungeon.effects;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Game;
 import com.watabou.noosa.Group;
 import com.watabou.noosa.Image;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.audio.Sample;
 import com.watabou.pixeldungeon.Assets;
+import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.DungeonTilemap;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.utils.Callback;
@@ -95,7 +96,12 @@ public class Lightning extends Group {
 			
 			killAndErase();
 			if (callback != null) {
-				callback.call();
+				Random.pushGenerator( Dungeon.combat );
+				try {
+					callback.call();
+				} finally {
+					Random.popGenerator();
+				}
 			}
 			
 		} else {
@@ -133,8 +139,8 @@ public class Lightning extends Group {
 	
 	@Override
 	public void draw() {
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 		super.draw();
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 	}
 }
@@ -17,9 +17,9 @@
  */
 package com.watabou.pixeldungeon.effects;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Game;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.pixeldungeon.sprites.CharSprite;
 
 public class TorchHalo extends Halo {
@@ -58,9 +58,9 @@ public class TorchHalo extends Halo {
 	
 	@Override
 	public void draw() {
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 		super.draw();
-		Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+		NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 	}
 	
 	public void putOut() {
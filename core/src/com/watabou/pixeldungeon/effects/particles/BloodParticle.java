@@ -18,43 +18,35 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 
-public class BloodParticle extends PixelParticle.Shrinking {
+public class BloodParticle extends ParticlePool.Shrinking {
+	
+	private static final BloodParticle KIND = new BloodParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((BloodParticle)emitter.recycle( BloodParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
-	public BloodParticle() {
-		super();
-		
-		color( 0xCC0000 );
-		lifespan = 0.8f;
-		
-		acc.set( 0, +40 );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		this.x = x;
-		this.y = y;
+		pool.color( i, 0xCC0000 );
+		pool.left[i] = pool.lifespan[i] = 0.8f;
 		
-		left = lifespan;
+		pool.acc( i, 0, +40 );
 		
-		size = 4;
-		speed.set( 0 );
+		pool.size[i] = 4;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		float p = left / lifespan;
-		am = p > 0.6f ? (1 - p) * 2.5f : 1;
+	public void update( ParticlePool pool, int i ) {
+		super.update( pool, i );
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = p > 0.6f ? (1 - p) * 2.5f : 1;
 	}
-}
\ No newline at end of file
+}
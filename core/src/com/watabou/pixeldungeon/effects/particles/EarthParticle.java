@@ -18,43 +18,34 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.ColorMath;
 import com.watabou.utils.Random;
 
-public class EarthParticle extends PixelParticle {	
+public class EarthParticle extends ParticlePool.Kind {	
+	
+	private static final EarthParticle KIND = new EarthParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((EarthParticle)emitter.recycle( EarthParticle.class )).reset( x,  y );
+			KIND.reset( emitter.particles(), x,  y );
 		}
 	};
 	
-	public EarthParticle() {
-		super();
-		
-		color( ColorMath.random( 0x444444, 0x777766 ) );
-		angle = Random.Float( -30, 30 );
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		lifespan = 0.5f;
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+		pool.color( i, ColorMath.random( 0x444444, 0x777766 ) );
+		pool.angle[i] = Random.Float( -30, 30 );
 		
-		this.x = x;
-		this.y = y;
-
-		left = lifespan;
+		pool.left[i] = pool.lifespan[i] = 0.5f;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		
-		float p = left / lifespan;
-		size( (p < 0.5f ? p : 1 - p) * 16 );
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.scale( i, (p < 0.5f ? p : 1 - p) * 16 );
 	}
-}
\ No newline at end of file
+}
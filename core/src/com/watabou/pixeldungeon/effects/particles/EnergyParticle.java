@@ -18,17 +18,19 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.PointF;
 import com.watabou.utils.Random;
 
-public class EnergyParticle extends PixelParticle {
+public class EnergyParticle extends ParticlePool.Kind {
+	
+	private static final EnergyParticle KIND = new EnergyParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((EnergyParticle)emitter.recycle( EnergyParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -36,30 +38,22 @@ public class EnergyParticle extends PixelParticle {
 		};
 	};
 	
-	public EnergyParticle() {
-		super();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		lifespan = 1f;
-		color( 0xFFFFAA );
+		float lifespan = pool.left[i] = pool.lifespan[i] = 1f;
+		pool.color( i, 0xFFFFAA );
 		
-		speed.polar( Random.Float( 2 * PointF.PI ), Random.Float( 24, 32 ) );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+		pool.polar( i, Random.Float( 2 * PointF.PI ), Random.Float( 24, 32 ) );
 		
-		left = lifespan;
-		
-		this.x = x - speed.x * lifespan;
-		this.y = y - speed.y * lifespan;
+		pool.x[i] = x - pool.speedX[i] * lifespan;
+		pool.y[i] = y - pool.speedY[i] * lifespan;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		
-		float p = left / lifespan;
-		am = p < 0.5f ? p * p * 4 : (1 - p) * 2; 
-		size( Random.Float( 5 * left / lifespan ) );
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = p < 0.5f ? p * p * 4 : (1 - p) * 2; 
+		pool.scale( i, Random.Float( 5 * pool.left[i] / pool.lifespan[i] ) );
 	}
-}
\ No newline at end of file
+}
@@ -18,15 +18,17 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 
-public class FlameParticle extends PixelParticle.Shrinking {
+public class FlameParticle extends ParticlePool.Shrinking {
+	
+	private static final FlameParticle KIND = new FlameParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((FlameParticle)emitter.recycle( FlameParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -34,31 +36,21 @@ public class FlameParticle extends PixelParticle.Shrinking {
 		};
 	};
 	
-	public FlameParticle() {
-		super();
-		
-		color( 0xEE7722 );
-		lifespan = 0.6f;
-		
-		acc.set( 0, -80 );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		this.x = x;
-		this.y = y;
+		pool.color( i, 0xEE7722 );
+		pool.left[i] = pool.lifespan[i] = 0.6f;
 		
-		left = lifespan;
+		pool.acc( i, 0, -80 );
 		
-		size = 4;
-		speed.set( 0 );
+		pool.size[i] = 4;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		float p = left / lifespan;
-		am = p > 0.8f ? (1 - p) * 5 : 1;
+	public void update( ParticlePool pool, int i ) {
+		super.update( pool, i );
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = p > 0.8f ? (1 - p) * 5 : 1;
 	}
-}
\ No newline at end of file
+}
@@ -18,63 +18,49 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.Game;
-import com.watabou.noosa.Group;
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.DungeonTilemap;
 import com.watabou.utils.PointF;
 import com.watabou.utils.Random;
 
-public class FlowParticle extends PixelParticle {
+public class FlowParticle extends ParticlePool.Kind {
 
+	private static final FlowParticle KIND = new FlowParticle();
+	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((FlowParticle)emitter.recycle( FlowParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
-	public FlowParticle() {
-		super();
-		
-		lifespan = 0.6f;
-		acc.set( 0, 32 );
-		angularSpeed = Random.Float( -360, +360 );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		left = lifespan;
+		pool.left[i] = pool.lifespan[i] = 0.6f;
+		pool.acc( i, 0, 32 );
+		pool.angularSpeed[i] = Random.Float( -360, +360 );
 		
-		this.x = x;
-		this.y = y;
-		
-		am = 0;
-		size( 0 );
-		speed.set( 0 );
+		pool.am[i] = 0;
+		pool.scale( i, 0 );
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		
-		float p = left / lifespan;
-		am = (p < 0.5f ? p : 1 - p) * 0.6f;
-		size( (1 - p) * 4 );
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = (p < 0.5f ? p : 1 - p) * 0.6f;
+		pool.scale( i, (1 - p) * 4 );
 	}
 	
-	public static class Flow extends Group {
+	public static class Flow extends Emitter {
 		
 		private static final float DELAY	= 0.1f;
 		
 		private int pos;
 		
-		private float x;
-		private float y;
-		
 		private float delay;
 		
 		public Flow( int pos ) {
@@ -86,6 +72,8 @@ public class FlowParticle extends PixelParticle {
 			x = p.x;
 			y = p.y + DungeonTilemap.SIZE - 1;
 			
+			autoKill = false;
+			
 			delay = Random.Float( DELAY );
 		}
 		
@@ -100,10 +88,9 @@ public class FlowParticle extends PixelParticle {
 					
 					delay = Random.Float( DELAY );
 					
-					((FlowParticle)recycle( FlowParticle.class )).reset( 
-						x + Random.Float( DungeonTilemap.SIZE ), y );
+					KIND.reset( particles(), x + Random.Float( DungeonTilemap.SIZE ), y );
 				}
 			}
 		}
 	}
-}
\ No newline at end of file
+}
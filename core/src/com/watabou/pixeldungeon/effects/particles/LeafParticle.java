@@ -18,52 +18,42 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.utils.ColorMath;
 import com.watabou.utils.Random;
 
-public class LeafParticle extends PixelParticle.Shrinking {
+public class LeafParticle extends ParticlePool.Shrinking {
 	
 	public static int color1;
 	public static int color2;
 	
+	private static final LeafParticle KIND = new LeafParticle();
 	
 	public static final Emitter.Factory GENERAL = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			LeafParticle p = ((LeafParticle)emitter.recycle( LeafParticle.class ));
-			p.color( ColorMath.random( 0x004400, 0x88CC44 ) );
-			p.reset( x, y );
+			KIND.reset( emitter.particles(), x, y, ColorMath.random( 0x004400, 0x88CC44 ) );
 		}
 	};
 	
 	public static final Emitter.Factory LEVEL_SPECIFIC = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			LeafParticle p = ((LeafParticle)emitter.recycle( LeafParticle.class ));
-			p.color( ColorMath.random( Dungeon.level.color1, Dungeon.level.color2 ) );
-			p.reset( x, y );
+			KIND.reset( emitter.particles(), x, y, ColorMath.random( Dungeon.level.color1, Dungeon.level.color2 ) );
 		}
 	};
 	
-	public LeafParticle() {
-		super();
+	public void reset( ParticlePool pool, float x, float y, int color ) {
+		int i = pool.add( this, x, y );
 		
-		lifespan = 1.2f;
-		acc.set( 0, 25 );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
-		
-		this.x = x;
-		this.y = y;
+		pool.color( i, color );
+		pool.left[i] = pool.lifespan[i] = 1.2f;
+		pool.acc( i, 0, 25 );
 		
-		speed.set( Random.Float( -8, +8 ), -20 );
+		pool.speed( i, Random.Float( -8, +8 ), -20 );
 		
-		left = lifespan;
-		size = Random.Float( 2, 3 );
+		pool.size[i] = Random.Float( 2, 3 );
 	}
-}
\ No newline at end of file
+}
@@ -18,17 +18,19 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.ColorMath;
 import com.watabou.utils.Random;
 
-public class PoisonParticle extends PixelParticle {
+public class PoisonParticle extends ParticlePool.Kind {
+	
+	private static final PoisonParticle KIND = new PoisonParticle();
 	
 	public static final Emitter.Factory MISSILE = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((PoisonParticle)emitter.recycle( PoisonParticle.class )).resetMissile( x, y );
+			KIND.resetMissile( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -39,7 +41,7 @@ public class PoisonParticle extends PixelParticle {
 	public static final Emitter.Factory SPLASH = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((PoisonParticle)emitter.recycle( PoisonParticle.class )).resetSplash( x, y );
+			KIND.resetSplash( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -47,42 +49,34 @@ public class PoisonParticle extends PixelParticle {
 		};
 	};
 	
-	public PoisonParticle() {
-		super();
+	private int reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
+		
+		pool.left[i] = pool.lifespan[i] = 0.6f;
 		
-		lifespan = 0.6f;
+		pool.acc( i, 0, +30 );
 		
-		acc.set( 0, +30 );
+		return i;
 	}
 	
-	public void resetMissile( float x, float y ) {
-		revive();
-		
-		this.x = x;
-		this.y = y;
+	public void resetMissile( ParticlePool pool, float x, float y ) {
+		int i = reset( pool, x, y );
 		
-		left = lifespan;
-		
-		speed.polar( Random.Float( 3.1415926f ), Random.Float( 6 ) );
+		pool.polar( i, Random.Float( 3.1415926f ), Random.Float( 6 ) );
 	}
 	
-	public void resetSplash( float x, float y ) {
-		revive();
-		
-		this.x = x;
-		this.y = y;
-		
-		left = lifespan;
+	public void resetSplash( ParticlePool pool, float x, float y ) {
+		int i = reset( pool, x, y );
 		
-		speed.polar( Random.Float( 3.1415926f ), Random.Float( 10, 20 ) );
+		pool.polar( i, Random.Float( 3.1415926f ), Random.Float( 10, 20 ) );
 	}
 	
 	@Override
-	public void update() {
-		super.update();
+	public void update( ParticlePool pool, int i ) {
 		// alpha: 1 -> 0; size: 1 -> 4
-		size( 4 - (am = left / lifespan) * 3 );
+		float am = pool.am[i] = pool.left[i] / pool.lifespan[i];
+		pool.scale( i, 4 - am * 3 );
 		// color: 0x8844FF -> 0x00FF00
-		color( ColorMath.interpolate( 0x00FF00, 0x8844FF, am ) );
+		pool.color( i, ColorMath.interpolate( 0x00FF00, 0x8844FF, am ) );
 	}
-}
\ No newline at end of file
+}
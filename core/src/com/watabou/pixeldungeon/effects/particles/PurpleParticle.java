@@ -18,24 +18,26 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.ColorMath;
 import com.watabou.utils.Random;
 
-public class PurpleParticle extends PixelParticle {
+public class PurpleParticle extends ParticlePool.Kind {
+	
+	private static final PurpleParticle KIND = new PurpleParticle();
 	
 	public static final Emitter.Factory MISSILE = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((PurpleParticle)emitter.recycle( PurpleParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
 	public static final Emitter.Factory BURST = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((PurpleParticle)emitter.recycle( PurpleParticle.class )).resetBurst( x, y );
+			KIND.resetBurst( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -43,40 +45,28 @@ public class PurpleParticle extends PixelParticle {
 		}
 	};
 	
-	public PurpleParticle() {
-		super();
-		
-		lifespan = 0.5f;
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
-		
-		this.x = x;
-		this.y = y;
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		speed.set( Random.Float( -5, +5 ), Random.Float( -5, +5 ) );
+		pool.speed( i, Random.Float( -5, +5 ), Random.Float( -5, +5 ) );
 		
-		left = lifespan;
+		pool.left[i] = pool.lifespan[i] = 0.5f;
 	}
 	
-	public void resetBurst( float x, float y ) {
-		revive();
-		
-		this.x = x;
-		this.y = y;
+	public void resetBurst( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		speed.polar( Random.Float( 360 ), Random.Float( 16, 32 ) );
+		pool.polar( i, Random.Float( 360 ), Random.Float( 16, 32 ) );
 		
-		left = lifespan;
+		pool.left[i] = pool.lifespan[i] = 0.5f;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
+	public void update( ParticlePool pool, int i ) {
 		// alpha: 1 -> 0; size: 1 -> 5
-		size( 5 - (am = left / lifespan) * 4 );
+		float am = pool.am[i] = pool.left[i] / pool.lifespan[i];
+		pool.scale( i, 5 - am * 4 );
 		// color: 0xFF0044 -> 0x220066
-		color( ColorMath.interpolate( 0x220066, 0xFF0044, am ) );
+		pool.color( i, ColorMath.interpolate( 0x220066, 0xFF0044, am ) );
 	}
-}
\ No newline at end of file
+}
@@ -18,76 +18,73 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.ColorMath;
 import com.watabou.utils.PointF;
 import com.watabou.utils.Random;
 
-public class ShadowParticle extends PixelParticle.Shrinking {
+public class ShadowParticle extends ParticlePool.Shrinking {
+	
+	private static final ShadowParticle KIND = new ShadowParticle();
 	
 	public static final Emitter.Factory MISSILE = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((ShadowParticle)emitter.recycle( ShadowParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
 	public static final Emitter.Factory CURSE = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((ShadowParticle)emitter.recycle( ShadowParticle.class )).resetCurse( x, y );
+			KIND.resetCurse( emitter.particles(), x, y );
 		}
 	};
 	
 	public static final Emitter.Factory UP = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((ShadowParticle)emitter.recycle( ShadowParticle.class )).resetUp( x, y );
+			KIND.resetUp( emitter.particles(), x, y );
 		}
 	};
 	
-	public void reset( float x, float y ) {
-		revive();
-		
-		this.x = x;
-		this.y = y;
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		speed.set( Random.Float( -5, +5 ), Random.Float( -5, +5 ) );
+		pool.speed( i, Random.Float( -5, +5 ), Random.Float( -5, +5 ) );
 		
-		size = 6;
-		left = lifespan = 0.5f;
+		pool.size[i] = 6;
+		pool.left[i] = pool.lifespan[i] = 0.5f;
 	}
 	
-	public void resetCurse( float x, float y ) {
-		revive();
+	public void resetCurse( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		size = 8;
-		left = lifespan = 0.5f;
+		pool.size[i] = 8;
+		float lifespan = pool.left[i] = pool.lifespan[i] = 0.5f;
 		
-		speed.polar( Random.Float( 2 * PointF.PI ), Random.Float( 16, 32 ) );
-		this.x = x - speed.x * lifespan;
-		this.y = y - speed.y * lifespan;
+		pool.polar( i, Random.Float( 2 * PointF.PI ), Random.Float( 16, 32 ) );
+		pool.x[i] = x - pool.speedX[i] * lifespan;
+		pool.y[i] = y - pool.speedY[i] * lifespan;
 	}
 	
-	public void resetUp( float x, float y ) {
-		revive();
+	public void resetUp( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		speed.set( Random.Float( -8, +8 ), Random.Float( -32, -48 ) );
-		this.x = x;
-		this.y = y;
+		pool.speed( i, Random.Float( -8, +8 ), Random.Float( -32, -48 ) );
 		
-		size = 6;
-		left = lifespan = 1f;
+		pool.size[i] = 6;
+		pool.left[i] = pool.lifespan[i] = 1f;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
+	public void update( ParticlePool pool, int i ) {
+		super.update( pool, i );
 		
-		float p = left / lifespan;
+		float p = pool.left[i] / pool.lifespan[i];
 		// alpha: 0 -> 1 -> 0; size: 6 -> 0; color: 0x660044 -> 0x000000
-		color( ColorMath.interpolate( 0x000000, 0x440044, p ) );
-		am = p < 0.5f ? p * p * 4 : (1 - p) * 2; 
+		pool.color( i, ColorMath.interpolate( 0x000000, 0x440044, p ) );
+		pool.am[i] = p < 0.5f ? p * p * 4 : (1 - p) * 2; 
 	}
-}
\ No newline at end of file
+}
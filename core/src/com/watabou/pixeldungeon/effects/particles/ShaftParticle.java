@@ -18,16 +18,18 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.Random;
 
-public class ShaftParticle extends PixelParticle {
+public class ShaftParticle extends ParticlePool.Kind {
+	
+	private static final ShaftParticle KIND = new ShaftParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((ShaftParticle)emitter.recycle( ShaftParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -35,32 +37,21 @@ public class ShaftParticle extends PixelParticle {
 		}
 	};
 	
-	public ShaftParticle() {
-		super();
-		
-		lifespan = 1.2f;
-		speed.set( 0, -6 );
-	}
-	
-	private float offs;
-	
-	public void reset( float x, float y ) {
-		revive();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		this.x = x;
-		this.y = y;
+		float lifespan = pool.lifespan[i] = 1.2f;
+		pool.speed( i, 0, -6 );
 		
-		offs = -Random.Float( lifespan );
-		left = lifespan - offs;
+		float offs = -Random.Float( lifespan );
+		pool.left[i] = lifespan - offs;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		
-		float p = left / lifespan;
-		am = p < 0.5f ? p : 1 - p;
-		scale.x = (1 - p) * 4;
-		scale.y = 16 + (1 - p) * 16;
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = p < 0.5f ? p : 1 - p;
+		pool.scaleX[i] = (1 - p) * 4;
+		pool.scaleY[i] = 16 + (1 - p) * 16;
 	}
-}
\ No newline at end of file
+}
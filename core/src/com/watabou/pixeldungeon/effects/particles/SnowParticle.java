@@ -18,38 +18,33 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.Random;
 
-public class SnowParticle extends PixelParticle {
+public class SnowParticle extends ParticlePool.Kind {
+	
+	private static final SnowParticle KIND = new SnowParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((SnowParticle)emitter.recycle( SnowParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
-	public SnowParticle() {
-		super();
-		speed.set( 0, Random.Float( 5, 8 ) );
-		lifespan = 1.2f;
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		this.x = x;
-		this.y = y - speed.y * lifespan;
+		pool.speed( i, 0, Random.Float( 5, 8 ) );
+		float lifespan = pool.left[i] = pool.lifespan[i] = 1.2f;
 		
-		left = lifespan;
+		pool.y[i] = y - pool.speedY[i] * lifespan;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		float p = left / lifespan;
-		am = (p < 0.5f ? p : 1 - p) * 1.5f;
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = (p < 0.5f ? p : 1 - p) * 1.5f;
 	}
-}
\ No newline at end of file
+}
@@ -18,16 +18,18 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.Random;
 
-public class SparkParticle extends PixelParticle {
+public class SparkParticle extends ParticlePool.Kind {
 
+	private static final SparkParticle KIND = new SparkParticle();
+	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((SparkParticle)emitter.recycle( SparkParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 		@Override
 		public boolean lightMode() {
@@ -35,28 +37,20 @@ public class SparkParticle extends PixelParticle {
 		};
 	};
 	
-	public SparkParticle() {
-		super();
-		
-		size( 2 );
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		acc.set( 0, +50 );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+		pool.scale( i, 2 );
 		
-		this.x = x;
-		this.y = y;
+		pool.acc( i, 0, +50 );
 		
-		left = lifespan = Random.Float( 0.5f, 1.0f );
+		pool.left[i] = pool.lifespan[i] = Random.Float( 0.5f, 1.0f );
 		
-		speed.polar( Random.Float( 3.1415926f ), Random.Float( 20, 40 ) );
+		pool.polar( i, Random.Float( 3.1415926f ), Random.Float( 20, 40 ) );
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		size( Random.Float( 5 * left / lifespan ) );
+	public void update( ParticlePool pool, int i ) {
+		pool.scale( i, Random.Float( 5 * pool.left[i] / pool.lifespan[i] ) );
 	}
-}
\ No newline at end of file
+}
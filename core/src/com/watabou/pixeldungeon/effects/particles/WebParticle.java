@@ -18,44 +18,36 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.Random;
 
-public class WebParticle extends PixelParticle {
+public class WebParticle extends ParticlePool.Kind {
+	
+	private static final WebParticle KIND = new WebParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
 			for (int i=0; i < 3; i++) {
-				((WebParticle)emitter.recycle( WebParticle.class )).reset( x, y );
+				KIND.reset( emitter.particles(), x, y );
 			}
 		}
 	};
 	
-	public WebParticle() {
-		super();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		color( 0xCCCCCC );
-		lifespan = 2f;
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+		pool.color( i, 0xCCCCCC );
+		pool.left[i] = pool.lifespan[i] = 2f;
 		
-		this.x = x;
-		this.y = y;
-		
-		left = lifespan;
-		angle = Random.Float( 360 );
+		pool.angle[i] = Random.Float( 360 );
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		
-		float p = left / lifespan;
-		am = p < 0.5f ? p : 1 - p;
-		scale.y = 16 + p * 8;
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = p < 0.5f ? p : 1 - p;
+		pool.scaleY[i] = 16 + p * 8;
 	}
-}
\ No newline at end of file
+}
@@ -18,68 +18,56 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.Game;
-import com.watabou.noosa.Group;
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.DungeonTilemap;
 import com.watabou.utils.PointF;
 import com.watabou.utils.Random;
 
-public class WindParticle extends PixelParticle {
+public class WindParticle extends ParticlePool.Kind {
 
+	private static final WindParticle KIND = new WindParticle();
+	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((WindParticle)emitter.recycle( WindParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
 	private static float angle = Random.Float( PointF.PI * 2 );
 	private static PointF speed = new PointF().polar( angle, 5 );
 	
-	private float size;
-	
-	public WindParticle() {
-		super();
-		
-		lifespan = Random.Float( 1, 2 );
-		scale.set( size = Random.Float( 3 ) );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		left = lifespan;
+		float lifespan = pool.left[i] = pool.lifespan[i] = Random.Float( 1, 2 );
+		float size = pool.size[i] = Random.Float( 3 );
+		pool.scale( i, size );
 		
-		super.speed.set( WindParticle.speed );
-		super.speed.scale( size );
+		pool.speed( i, speed.x * size, speed.y * size );
 		
-		this.x = x - super.speed.x * lifespan / 2;
-		this.y = y - super.speed.y * lifespan / 2;
+		pool.x[i] = x - pool.speedX[i] * lifespan / 2;
+		pool.y[i] = y - pool.speedY[i] * lifespan / 2;
 		
 		angle += Random.Float( -0.1f, +0.1f );
 		speed = new PointF().polar( angle, 5 );
 		
-		am = 0;
+		pool.am[i] = 0;
 	}
 	
 	@Override
-	public void update() {
-		super.update();
-		
-		float p = left / lifespan;
-		am = (p < 0.5f ? p : 1 - p) * size * 0.2f;
+	public void update( ParticlePool pool, int i ) {
+		float p = pool.left[i] / pool.lifespan[i];
+		pool.am[i] = (p < 0.5f ? p : 1 - p) * pool.size[i] * 0.2f;
 	}
 	
-	public static class Wind extends Group {
+	public static class Wind extends Emitter {
 		
 		private int pos;
 		
-		private float x;
-		private float y;
-		
 		private float delay;
 		
 		public Wind( int pos ) {
@@ -90,6 +78,8 @@ public class WindParticle extends PixelParticle {
 			x = p.x;
 			y = p.y;
 			
+			autoKill = false;
+			
 			delay = Random.Float( 5 );
 		}
 		
@@ -104,11 +94,11 @@ public class WindParticle extends PixelParticle {
 					
 					delay = Random.Float( 5 );
 					
-					((WindParticle)recycle( WindParticle.class )).reset( 
+					KIND.reset( particles(), 
 						x + Random.Float( DungeonTilemap.SIZE ), 
 						y + Random.Float( DungeonTilemap.SIZE ) );
 				}
 			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -18,37 +18,32 @@
 package com.watabou.pixeldungeon.effects.particles;
 
 import com.watabou.noosa.particles.Emitter;
-import com.watabou.noosa.particles.PixelParticle;
+import com.watabou.noosa.particles.ParticlePool;
 import com.watabou.noosa.particles.Emitter.Factory;
 import com.watabou.utils.ColorMath;
 import com.watabou.utils.Random;
 
-public class WoolParticle extends PixelParticle.Shrinking {
+public class WoolParticle extends ParticlePool.Shrinking {
+	
+	private static final WoolParticle KIND = new WoolParticle();
 	
 	public static final Emitter.Factory FACTORY = new Factory() {	
 		@Override
 		public void emit( Emitter emitter, int index, float x, float y ) {
-			((WoolParticle)emitter.recycle( WoolParticle.class )).reset( x, y );
+			KIND.reset( emitter.particles(), x, y );
 		}
 	};
 	
-	public WoolParticle() {
-		super();
-		
-		color( ColorMath.random( 0x999999, 0xEEEEE0 ) );
+	public void reset( ParticlePool pool, float x, float y ) {
+		int i = pool.add( this, x, y );
 		
-		acc.set( 0, -40 );
-	}
-	
-	public void reset( float x, float y ) {
-		revive();
+		pool.color( i, ColorMath.random( 0x999999, 0xEEEEE0 ) );
 		
-		this.x = x;
-		this.y = y;
+		pool.acc( i, 0, -40 );
 		
-		left = lifespan = Random.Float( 0.6f, 1f );
-		size = 5;
+		pool.left[i] = pool.lifespan[i] = Random.Float( 0.6f, 1f );
+		pool.size[i] = 5;
 		
-		speed.set( Random.Float( -10, +10 ), Random.Float( -10, +10 ) );
+		pool.speed( i, Random.Float( -10, +10 ), Random.Float( -10, +10 ) );
 	}
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@
 package com.watabou.pixeldungeon.items;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.watabou.pixeldungeon.Dungeon;
@@ -35,6 +36,7 @@ import com.watabou.pixeldungeon.items.wands.*;
 import com.watabou.pixeldungeon.items.weapon.*;
 import com.watabou.pixeldungeon.items.weapon.melee.*;
 import com.watabou.pixeldungeon.items.weapon.missiles.*;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.plants.*;
 import com.watabou.utils.Random;
 
@@ -73,7 +75,8 @@ public class Generator {
 		}
 	};
 	
-	private static HashMap<Category,Float> categoryProbs = new HashMap<Generator.Category, Float>();
+	// Iterated in the same order every time, see Random.chances()
+	private static HashMap<Category,Float> categoryProbs = new LinkedHashMap<Generator.Category, Float>();
 	
 	static {
 		
@@ -195,14 +198,49 @@ public class Generator {
 		}
 	}
 	
+	// Continues with the probabilities a level was laid out with
+	public static void reset( HashMap<Category,Float> probs ) {
+		categoryProbs.putAll( probs );
+	}
+	
+	// A level laid out ahead of time has its own probabilities
+	private static HashMap<Category,Float> probs() {
+		Generation generation = Generation.current();
+		return generation != null ? generation.categoryProbs : categoryProbs;
+	}
+	
+	// The items found while playing come from a stream of their own, the
+	// ones of a level being generated from the stream of the level
+	private static boolean pushGenerator() {
+		if (Generation.current() == null && Dungeon.items != null) {
+			Random.pushGenerator( Dungeon.items );
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	private static void popGenerator( boolean pushed ) {
+		if (pushed) {
+			Random.popGenerator();
+		}
+	}
+	
 	public static Item random() {
-		return random( Random.chances( categoryProbs ) );
+		boolean pushed = pushGenerator();
+		try {
+			return random( Random.chances( probs() ) );
+		} finally {
+			popGenerator( pushed );
+		}
 	}
 	
 	public static Item random( Category cat ) {
+		boolean pushed = pushGenerator();
 		try {
 			
-			categoryProbs.put( cat, categoryProbs.get( cat ) / 2 );
+			HashMap<Category,Float> probs = probs();
+			probs.put( cat, probs.get( cat ) / 2 );
 			
 			switch (cat) {
 			case ARMOR:
@@ -217,10 +255,13 @@ public class Generator {
 
 			return null;
 			
+		} finally {
+			popGenerator( pushed );
 		}
 	}
 	
 	public static Item random( Class<? extends Item> cl ) {
+		boolean pushed = pushGenerator();
 		try {
 			
 			return ((Item) ClassReflection.newInstance(cl)).random();
@@ -229,12 +270,14 @@ public class Generator {
 
 			return null;
 			
+		} finally {
+			popGenerator( pushed );
 		}
 	}
 	
 	public static Armor randomArmor() throws Exception {
 		
-		int curStr = Hero.STARTING_STR + Dungeon.potionOfStrength;
+		int curStr = Hero.STARTING_STR + Generation.potionsOfStrength();
 		
 		Category cat = Category.ARMOR;
 		
@@ -249,7 +292,7 @@ public class Generator {
 	
 	public static Weapon randomWeapon() throws Exception {
 		
-		int curStr = Hero.STARTING_STR + Dungeon.potionOfStrength;
+		int curStr = Hero.STARTING_STR + Generation.potionsOfStrength();
 		
 		Category cat = Category.WEAPON;
 		
@@ -17,8 +17,8 @@
  */
 package com.watabou.pixeldungeon.items.keys;
 
-import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.items.Item;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.utils.Bundle;
 
 public class Key extends Item {
@@ -33,7 +33,7 @@ public class Key extends Item {
 	
 	public Key() {
 		super();
-		depth = Dungeon.depth;
+		depth = Generation.depth();
 	}
 	
 	private static final String DEPTH = "depth";
@@ -28,6 +28,7 @@ import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.levels.Terrain;
 import com.watabou.pixeldungeon.scenes.GameScene;
 import com.watabou.pixeldungeon.utils.GLog;
+import com.watabou.utils.CellSet;
 
 public class ScrollOfMagicMapping extends Scroll {
 
@@ -42,7 +43,7 @@ public class ScrollOfMagicMapping extends Scroll {
 		
 		int length = Level.LENGTH;
 		int[] map = Dungeon.level.map;
-		boolean[] mapped = Dungeon.level.mapped;
+		CellSet mapped = Dungeon.level.mappedCells;
 		boolean[] discoverable = Level.discoverable;
 		
 		boolean noticed = false;
@@ -53,7 +54,7 @@ public class ScrollOfMagicMapping extends Scroll {
 			
 			if (discoverable[i]) {
 				
-				mapped[i] = true;
+				mapped.set( i );
 				if ((Terrain.flags[terr] & Terrain.SECRET) != 0) {
 					
 					Level.set( i, Terrain.discover( terr ) );						
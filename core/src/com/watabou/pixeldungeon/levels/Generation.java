@@ -0,0 +1,299 @@
+/*
+ * Pixel Dungeon
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+package com.watabou.pixeldungeon.levels;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.actors.hero.Hero;
+import com.watabou.pixeldungeon.actors.mobs.npcs.Blacksmith;
+import com.watabou.pixeldungeon.actors.mobs.npcs.Imp;
+import com.watabou.pixeldungeon.items.Generator;
+import com.watabou.utils.Random;
+
+/*
+ * The state of the game which laying out a level reads and changes: the
+ * limited drops, the order of the special rooms, the blacksmith's quest
+ * and the probabilities of the item categories. A level is laid out
+ * against a copy of it, which is written back to the game afterwards,
+ * so the next depth can be laid out on another thread while the current
+ * one is played, see prepare(). Its mobs and items are created on descent.
+ * All of it takes random numbers from a stream seeded for the depth, so
+ * the same run always gets the same level there.
+ */
+public class Generation {
+
+	public final int depth;
+	public final long seed;
+
+	public int potionOfStrength;
+	public int scrollsOfUpgrade;
+	public int arcaneStyli;
+	public int transmutation;
+
+	public boolean weakFloorCreated;
+
+	// Order of the special rooms, the ones used recently go last
+	public final ArrayList<Room.Type> specials;
+
+	public boolean blacksmithSpawned;
+	public boolean blacksmithAlternative;
+
+	public final boolean impCompleted;
+
+	public final HashMap<Generator.Category,Float> categoryProbs = new LinkedHashMap<Generator.Category, Float>();
+	
+	// How the laying out went: the number of times the level was laid out
+	// from scratch, how many of them didn't split the map into enough rooms
+	// and the time the rooms took to be painted, in nanoseconds
+	public int attempts;
+	public int roomFailures;
+	public long paintTime;
+
+	// The game the state was copied from
+	private final Hero hero;
+	private final int challenges;
+
+	private final Random.Stream random;
+	
+	private static final ThreadLocal<Generation> current = new ThreadLocal<Generation>();
+
+	// Laid out ahead of time, there is one at most
+	private static Generation next;
+
+	private Generation origin;
+	private Thread thread;
+	private Level level;
+
+	// Copies the state of the game for a level of the depth
+	public Generation( int depth ) {
+		this( depth, Dungeon.seedFor( depth ) );
+	}
+	
+	// Same, but the level is generated from the given seed instead of the run's one
+	public Generation( int depth, long seed ) {
+
+		this.depth = depth;
+		this.seed = seed;
+		random = new Random.Stream( seed );
+
+		potionOfStrength	= Dungeon.potionOfStrength;
+		scrollsOfUpgrade	= Dungeon.scrollsOfUpgrade;
+		arcaneStyli			= Dungeon.arcaneStyli;
+		transmutation		= Dungeon.transmutation;
+
+		weakFloorCreated = Level.weakFloorCreated;
+
+		specials = new ArrayList<Room.Type>( Room.SPECIALS );
+
+		blacksmithSpawned = Blacksmith.Quest.isSpawned();
+		impCompleted = Imp.Quest.isCompleted();
+
+		// The probabilities are reset before each level anyway
+		for (Generator.Category cat : Generator.Category.values()) {
+			categoryProbs.put( cat, cat.prob );
+		}
+
+		hero = Dungeon.hero;
+		challenges = Dungeon.challenges;
+	}
+
+	// The generation the calling thread is laying a level out against, or null
+	public static Generation current() {
+		return current.get();
+	}
+
+	public static int depth() {
+		Generation generation = current.get();
+		return generation != null ? generation.depth : Dungeon.depth;
+	}
+
+	public static int potionsOfStrength() {
+		Generation generation = current.get();
+		return generation != null ? generation.potionOfStrength : Dungeon.potionOfStrength;
+	}
+
+	public boolean posNeeded() {
+		int[] quota = {4, 2, 9, 4, 14, 6, 19, 8, 24, 9};
+		return chance( quota, potionOfStrength );
+	}
+
+	public boolean soeNeeded() {
+		int[] quota = {5, 3, 10, 6, 15, 9, 20, 12, 25, 13};
+		return chance( quota, scrollsOfUpgrade );
+	}
+
+	private boolean chance( int[] quota, int number ) {
+
+		for (int i=0; i < quota.length; i += 2) {
+			int qDepth = quota[i];
+			if (depth <= qDepth) {
+				int qNumber = quota[i + 1];
+				return Random.Float() < (float)(qNumber - number) / (qDepth - depth + 1);
+			}
+		}
+
+		return false;
+	}
+
+	public boolean asNeeded() {
+		return Random.Int( 12 * (1 + arcaneStyli) ) < depth;
+	}
+
+	public void useType( Room.Type type ) {
+		if (specials.remove( type )) {
+			specials.add( type );
+		}
+	}
+
+	// Lays the level out against this state on the calling thread
+	public void layOut( Level level ) {
+		enter();
+		try {
+			level.layOut();
+		} finally {
+			leave();
+		}
+	}
+	
+	// Creates the mobs and items of the level laid out against this
+	// state, before it's written back to the game
+	public void populate( Level level ) {
+		enter();
+		try {
+			level.populate();
+		} finally {
+			leave();
+		}
+	}
+	
+	private void enter() {
+		current.set( this );
+		Random.pushGenerator( random );
+	}
+	
+	private void leave() {
+		Random.popGenerator();
+		current.remove();
+	}
+
+	// Writes the state changed by laying out the level back to the game
+	public void apply() {
+
+		Dungeon.potionOfStrength	= potionOfStrength;
+		Dungeon.scrollsOfUpgrade	= scrollsOfUpgrade;
+		Dungeon.arcaneStyli			= arcaneStyli;
+		Dungeon.transmutation		= transmutation;
+
+		Level.weakFloorCreated = weakFloorCreated;
+
+		Room.SPECIALS.clear();
+		Room.SPECIALS.addAll( specials );
+
+		if (blacksmithSpawned && !Blacksmith.Quest.isSpawned()) {
+			Blacksmith.Quest.spawn( blacksmithAlternative );
+		}
+
+		Generator.reset( categoryProbs );
+	}
+
+	private boolean sameAs( Generation other ) {
+		return
+			depth == other.depth &&
+			seed == other.seed &&
+			potionOfStrength == other.potionOfStrength &&
+			scrollsOfUpgrade == other.scrollsOfUpgrade &&
+			arcaneStyli == other.arcaneStyli &&
+			transmutation == other.transmutation &&
+			weakFloorCreated == other.weakFloorCreated &&
+			specials.equals( other.specials ) &&
+			blacksmithSpawned == other.blacksmithSpawned &&
+			impCompleted == other.impCompleted &&
+			hero == other.hero &&
+			challenges == other.challenges;
+	}
+
+	// Starts laying out the level of the depth on another thread, unless
+	// it's already done against the current state of the game
+	public static void prepare( int depth ) {
+
+		Generation state = new Generation( depth );
+		if (next != null && next.origin.sameAs( state )) {
+			return;
+		}
+
+		// One level is generated at a time
+		await();
+
+		final Generation generation = new Generation( depth );
+		generation.origin = state;
+		generation.thread = new Thread() {
+			@Override
+			public void run() {
+				generation.enter();
+				try {
+					Level level = Dungeon.emptyLevel( generation.depth );
+					level.layOut();
+					generation.level = level;
+				} catch (Exception e) {
+					// It will be generated on descent
+				} finally {
+					generation.leave();
+				}
+			}
+		};
+		generation.thread.setDaemon( true );
+		generation.thread.start();
+
+		next = generation;
+	}
+
+	// The level of the depth laid out ahead of time with its mobs and items
+	// created, or null if there is none or the game has changed since then
+	public static Level take( int depth ) {
+
+		Generation generation = next;
+		await();
+
+		if (generation == null || generation.level == null ||
+			!generation.origin.sameAs( new Generation( depth ) )) {
+
+			return null;
+		}
+
+		generation.populate( generation.level );
+		generation.apply();
+		return generation.level;
+	}
+
+	// Waits for the generation ahead of time and forgets it
+	private static void await() {
+		if (next != null) {
+			while (next.thread.isAlive()) {
+				try {
+					next.thread.join();
+				} catch (InterruptedException e) {
+					// It can't be left running
+				}
+			}
+			next = null;
+		}
+	}
+}
@@ -17,10 +17,10 @@
  */
 package com.watabou.pixeldungeon.levels;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Game;
 import com.watabou.noosa.Group;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.Scene;
 import com.watabou.noosa.particles.PixelParticle;
 import com.watabou.pixeldungeon.Assets;
@@ -35,16 +35,16 @@ public class HallsLevel extends RegularLevel {
 	{
 		minRoomSize = 6;
 		
-		viewDistance = Math.max( 25 - Dungeon.depth, 1 );
+		viewDistance = Math.max( 25 - Generation.depth(), 1 );
 		
 		color1 = 0x801500;
 		color2 = 0xa68521;
 	}
 	
 	@Override
-	public void create() {
+	protected void layOut() {
 		addItemToSpawn( new Torch() );
-		super.create();
+		super.layOut();
 	}
 	
 	@Override
@@ -189,9 +189,9 @@ public class HallsLevel extends RegularLevel {
 		
 		@Override
 		public void draw() {
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 			super.draw();
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 		}
 	}
 	
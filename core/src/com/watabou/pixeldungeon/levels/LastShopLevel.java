@@ -23,7 +23,6 @@ import com.watabou.noosa.Scene;
 import com.watabou.pixeldungeon.Assets;
 import com.watabou.pixeldungeon.Bones;
 import com.watabou.pixeldungeon.actors.Actor;
-import com.watabou.pixeldungeon.actors.mobs.npcs.Imp;
 import com.watabou.pixeldungeon.items.Heap;
 import com.watabou.pixeldungeon.items.Item;
 import com.watabou.pixeldungeon.levels.Room.Type;
@@ -113,7 +112,7 @@ public class LastShopLevel extends RegularLevel {
 		if (roomShop == null || shopSquare < 30) {
 			return false;
 		} else {
-			roomShop.type = Imp.Quest.isCompleted() ? Room.Type.SHOP : Room.Type.STANDARD;
+			roomShop.type = Generation.current().impCompleted ? Room.Type.SHOP : Room.Type.STANDARD;
 		}
 		
 		paint();
@@ -143,7 +142,7 @@ public class LastShopLevel extends RegularLevel {
 			}
 		}
 		
-		if (Imp.Quest.isCompleted()) {
+		if (Generation.current().impCompleted) {
 			while (true) {
 				int pos = roomEntrance.random();
 				if (pos != entrance) {
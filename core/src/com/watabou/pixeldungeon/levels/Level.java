@@ -60,12 +60,14 @@ import com.watabou.pixeldungeon.levels.features.Door;
 import com.watabou.pixeldungeon.levels.features.HighGrass;
 import com.watabou.pixeldungeon.levels.painters.Painter;
 import com.watabou.pixeldungeon.levels.traps.*;
-import com.watabou.pixeldungeon.mechanics.ShadowCaster;
+import com.watabou.pixeldungeon.mechanics.FieldOfView;
+import com.watabou.pixeldungeon.mechanics.VisibilityCache;
 import com.watabou.pixeldungeon.plants.Plant;
 import com.watabou.pixeldungeon.scenes.GameScene;
 import com.watabou.pixeldungeon.utils.GLog;
 import com.watabou.utils.Bundlable;
 import com.watabou.utils.Bundle;
+import com.watabou.utils.CellSet;
 import com.watabou.utils.Random;
 import com.watabou.utils.SparseArray;
 
@@ -96,23 +98,49 @@ public abstract class Level implements Bundlable {
 	public static int loadedMapSize;
 	
 	public int[] map;
+	public CellSet visitedCells;
+	public CellSet mappedCells;
+	// Views of the sets above
 	public boolean[] visited;
 	public boolean[] mapped;
 	
 	public int viewDistance = Dungeon.isChallenged( Challenges.DARKNESS ) ? 3: 8;
 	
-	public static boolean[] fieldOfView = new boolean[LENGTH];
+	public static final CellSet fieldOfViewCells = new CellSet( LENGTH );
+	public static final boolean[] fieldOfView = fieldOfViewCells.view();
 	
-	public static boolean[] passable	= new boolean[LENGTH];
-	public static boolean[] losBlocking	= new boolean[LENGTH];
-	public static boolean[] flamable	= new boolean[LENGTH];
-	public static boolean[] secret		= new boolean[LENGTH];
-	public static boolean[] solid		= new boolean[LENGTH];
-	public static boolean[] avoid		= new boolean[LENGTH];
-	public static boolean[] water		= new boolean[LENGTH];
-	public static boolean[] pit			= new boolean[LENGTH];
+	// The hero's shadow cast is kept between the turns, the casts
+	// of everybody else are cached by the level
+	private static final FieldOfView heroSight	= new FieldOfView();
 	
-	public static boolean[] discoverable	= new boolean[LENGTH];
+	private static final int VISIBILITY_CACHE_SIZE = 64;
+	private VisibilityCache visibility;
+	
+	public static final CellSet passableCells		= new CellSet( LENGTH );
+	public static final CellSet losBlockingCells	= new CellSet( LENGTH );
+	public static final CellSet flamableCells		= new CellSet( LENGTH );
+	public static final CellSet secretCells			= new CellSet( LENGTH );
+	public static final CellSet solidCells			= new CellSet( LENGTH );
+	public static final CellSet avoidCells			= new CellSet( LENGTH );
+	public static final CellSet waterCells			= new CellSet( LENGTH );
+	public static final CellSet pitCells			= new CellSet( LENGTH );
+	
+	public static final CellSet discoverableCells	= new CellSet( LENGTH );
+	
+	// Read-only views of the sets above, they can only be changed through the sets
+	public static final boolean[] passable		= passableCells.view();
+	public static final boolean[] losBlocking	= losBlockingCells.view();
+	public static final boolean[] flamable		= flamableCells.view();
+	public static final boolean[] secret		= secretCells.view();
+	public static final boolean[] solid			= solidCells.view();
+	public static final boolean[] avoid			= avoidCells.view();
+	public static final boolean[] water			= waterCells.view();
+	public static final boolean[] pit			= pitCells.view();
+	
+	public static final boolean[] discoverable	= discoverableCells.view();
+	
+	// Incremented whenever the flag maps above change
+	public static int terrainVersion = 0;
 	
 	public Feeling feeling = Feeling.NONE;
 	
@@ -129,7 +157,7 @@ public abstract class Level implements Bundlable {
 	public int color1 = 0x004400;
 	public int color2 = 0x88CC44;
 	
-	protected static boolean pitRoomNeeded = false;
+	protected boolean pitRoomNeeded = false;
 	protected static boolean weakFloorCreated = false;
 	
 	private static final String MAP			= "map";
@@ -143,39 +171,49 @@ public abstract class Level implements Bundlable {
 	private static final String BLOBS		= "blobs";
 	
 	public void create() {
+		Generation generation = new Generation( Dungeon.depth );
+		generation.layOut( this );
+		generation.populate( this );
+		generation.apply();
+	}
+	
+	// Lays out the map and whatever the rooms are painted with, against the
+	// state of the generation only, see Generation. It may run on another
+	// thread while a different level is played.
+	protected void layOut() {
 		
-		resizingNeeded = false;
+		Generation generation = Generation.current();
 		
 		map = new int[LENGTH];
-		visited = new boolean[LENGTH];
-		Arrays.fill( visited, false );
-		mapped = new boolean[LENGTH];
-		Arrays.fill( mapped, false );
+		visitedCells = new CellSet( LENGTH );
+		visited = visitedCells.view();
+		mappedCells = new CellSet( LENGTH );
+		mapped = mappedCells.view();
 		
 		mobs = new HashSet<Mob>();
 		heaps = new SparseArray<Heap>();
 		blobs = new HashMap<Class<? extends Blob>,Blob>();
 		plants = new SparseArray<Plant>();
 		
-		if (!Dungeon.bossLevel()) {
+		if (!Dungeon.bossLevel( generation.depth )) {
 			addItemToSpawn( Generator.random( Generator.Category.FOOD ) );
-			if (Dungeon.posNeeded()) {
+			if (generation.posNeeded()) {
 				addItemToSpawn( new PotionOfStrength() );
-				Dungeon.potionOfStrength++;
+				generation.potionOfStrength++;
 			}
-			if (Dungeon.soeNeeded()) {
+			if (generation.soeNeeded()) {
 				addItemToSpawn( new ScrollOfUpgrade() );
-				Dungeon.scrollsOfUpgrade++;
+				generation.scrollsOfUpgrade++;
 			}
-			if (Dungeon.asNeeded()) {
+			if (generation.asNeeded()) {
 				addItemToSpawn( new Stylus() );
-				Dungeon.arcaneStyli++;
+				generation.arcaneStyli++;
 			}
 			
-			if (Dungeon.depth > 1) {
+			if (generation.depth > 1) {
 				switch (Random.Int( 10 )) {
 				case 0:
-					if (!Dungeon.bossLevel( Dungeon.depth + 1 )) {
+					if (!Dungeon.bossLevel( generation.depth + 1 )) {
 						feeling = Feeling.CHASM;
 					}
 					break;
@@ -189,16 +227,28 @@ public abstract class Level implements Bundlable {
 			}
 		}
 		
-		boolean pitNeeded = Dungeon.depth > 1 && weakFloorCreated;
+		boolean pitNeeded = generation.depth > 1 && generation.weakFloorCreated;
 		
 		do {
 			Arrays.fill( map, feeling == Feeling.CHASM ? Terrain.CHASM : Terrain.WALL );
 			
 			pitRoomNeeded = pitNeeded;
-			weakFloorCreated = false;
+			generation.weakFloorCreated = false;
+			generation.attempts++;
 			
 		} while (!build());
 		decorate();
+	}
+	
+	// Creates the mobs and items, which needs the flag maps of the level
+	protected void populate() {
+		
+		resizingNeeded = false;
+		
+		// The mobs placed by the painters
+		for (Mob mob : mobs) {
+			Actor.occupyCell( mob );
+		}
 		
 		buildFlagMaps();
 		cleanWalls();
@@ -226,15 +276,15 @@ public abstract class Level implements Bundlable {
 		plants = new SparseArray<Plant>();
 		
 		map		= bundle.getIntArray( MAP );
-		visited	= bundle.getBooleanArray( VISITED );
-		mapped	= bundle.getBooleanArray( MAPPED );
+		boolean[] visited	= bundle.getBooleanArray( VISITED );
+		boolean[] mapped	= bundle.getBooleanArray( MAPPED );
 		
 		entrance	= bundle.getInt( ENTRANCE );
 		exit		= bundle.getInt( EXIT );
 		
 		weakFloorCreated = false;
 		
-		adjustMapSize();
+		adjustMapSize( visited, mapped );
 		
 		Collection<Bundlable> collection = bundle.getCollection( HEAPS );
 		for (Bundlable h : collection) {
@@ -292,7 +342,7 @@ public abstract class Level implements Bundlable {
 		return feeling == Feeling.CHASM ? Terrain.EMPTY_SP : Terrain.EMPTY;
 	}
 	
-	private void adjustMapSize() {
+	private void adjustMapSize( boolean[] visited, boolean[] mapped ) {
 		// For levels from older saves
 		if (map.length < LENGTH) {
 			
@@ -302,27 +352,30 @@ public abstract class Level implements Bundlable {
 			int[] map = new int[LENGTH];
 			Arrays.fill( map, Terrain.WALL );
 			
-			boolean[] visited = new boolean[LENGTH];
-			Arrays.fill( visited, false );
+			boolean[] oldVisited = visited;
+			visited = new boolean[LENGTH];
 			
-			boolean[] mapped = new boolean[LENGTH];
-			Arrays.fill( mapped, false );
+			boolean[] oldMapped = mapped;
+			mapped = new boolean[LENGTH];
 			
 			for (int i=0; i < loadedMapSize; i++) {
 				System.arraycopy( this.map, i * loadedMapSize, map, i * WIDTH, loadedMapSize );
-				System.arraycopy( this.visited, i * loadedMapSize, visited, i * WIDTH, loadedMapSize );
-				System.arraycopy( this.mapped, i * loadedMapSize, mapped, i * WIDTH, loadedMapSize );
+				System.arraycopy( oldVisited, i * loadedMapSize, visited, i * WIDTH, loadedMapSize );
+				System.arraycopy( oldMapped, i * loadedMapSize, mapped, i * WIDTH, loadedMapSize );
 			}
 			
 			this.map = map;
-			this.visited = visited;
-			this.mapped = mapped;
 			
 			entrance = adjustPos( entrance );
 			exit = adjustPos( exit ); 
 		} else {
 			resizingNeeded = false;
 		}
+		
+		visitedCells = new CellSet( LENGTH ).copy( visited );
+		this.visited = visitedCells.view();
+		mappedCells = new CellSet( LENGTH ).copy( mapped );
+		this.mapped = mappedCells.view();
 	}
 	
 	public int adjustPos( int pos ) {
@@ -413,26 +466,35 @@ public abstract class Level implements Bundlable {
 	
 	private void buildFlagMaps() {
 		
+		terrainVersion++;
+		if (visibility != null) {
+			visibility.clear();
+		}
+		
 		for (int i=0; i < LENGTH; i++) {
 			int flags = Terrain.flags[map[i]];
-			passable[i]		= (flags & Terrain.PASSABLE) != 0;
-			losBlocking[i]	= (flags & Terrain.LOS_BLOCKING) != 0;
-			flamable[i]		= (flags & Terrain.FLAMABLE) != 0;
-			secret[i]		= (flags & Terrain.SECRET) != 0;
-			solid[i]		= (flags & Terrain.SOLID) != 0;
-			avoid[i]		= (flags & Terrain.AVOID) != 0;
-			water[i]		= (flags & Terrain.LIQUID) != 0;
-			pit[i]			= (flags & Terrain.PIT) != 0;
+			passableCells.set( i, (flags & Terrain.PASSABLE) != 0 );
+			losBlockingCells.set( i, (flags & Terrain.LOS_BLOCKING) != 0 );
+			flamableCells.set( i, (flags & Terrain.FLAMABLE) != 0 );
+			secretCells.set( i, (flags & Terrain.SECRET) != 0 );
+			solidCells.set( i, (flags & Terrain.SOLID) != 0 );
+			avoidCells.set( i, (flags & Terrain.AVOID) != 0 );
+			waterCells.set( i, (flags & Terrain.LIQUID) != 0 );
+			pitCells.set( i, (flags & Terrain.PIT) != 0 );
 		}
 		
 		int lastRow = LENGTH - WIDTH;
 		for (int i=0; i < WIDTH; i++) {
-			passable[i] = avoid[i] = false;
-			passable[lastRow + i] = avoid[lastRow + i] = false;
+			passableCells.clear( i );
+			avoidCells.clear( i );
+			passableCells.clear( lastRow + i );
+			avoidCells.clear( lastRow + i );
 		}
 		for (int i=WIDTH; i < lastRow; i += WIDTH) {
-			passable[i] = avoid[i] = false;
-			passable[i + WIDTH-1] = avoid[i + WIDTH-1] = false;
+			passableCells.clear( i );
+			avoidCells.clear( i );
+			passableCells.clear( i + WIDTH-1 );
+			avoidCells.clear( i + WIDTH-1 );
 		}
 		 
 		for (int i=WIDTH; i < LENGTH - WIDTH; i++) {
@@ -489,7 +551,7 @@ public abstract class Level implements Bundlable {
 				}
 			}
 			
-			discoverable[i] = d;
+			discoverableCells.set( i, d );
 		}
 	}
 	
@@ -497,14 +559,21 @@ public abstract class Level implements Bundlable {
 		Painter.set( Dungeon.level, cell, terrain );
 
 		int flags = Terrain.flags[terrain];
-		passable[cell]		= (flags & Terrain.PASSABLE) != 0;
-		losBlocking[cell]	= (flags & Terrain.LOS_BLOCKING) != 0;
-		flamable[cell]		= (flags & Terrain.FLAMABLE) != 0;
-		secret[cell]		= (flags & Terrain.SECRET) != 0;
-		solid[cell]			= (flags & Terrain.SOLID) != 0;
-		avoid[cell]			= (flags & Terrain.AVOID) != 0;
-		pit[cell]			= (flags & Terrain.PIT) != 0;
-		water[cell]			= terrain == Terrain.WATER || terrain >= Terrain.WATER_TILES;
+		boolean blocking = (flags & Terrain.LOS_BLOCKING) != 0;
+		if (blocking != losBlockingCells.get( cell ) && Dungeon.level.visibility != null) {
+			Dungeon.level.visibility.invalidate( cell );
+		}
+		
+		passableCells.set( cell, (flags & Terrain.PASSABLE) != 0 );
+		losBlockingCells.set( cell, blocking );
+		flamableCells.set( cell, (flags & Terrain.FLAMABLE) != 0 );
+		secretCells.set( cell, (flags & Terrain.SECRET) != 0 );
+		solidCells.set( cell, (flags & Terrain.SOLID) != 0 );
+		avoidCells.set( cell, (flags & Terrain.AVOID) != 0 );
+		pitCells.set( cell, (flags & Terrain.PIT) != 0 );
+		waterCells.set( cell, terrain == Terrain.WATER || terrain >= Terrain.WATER_TILES );
+		
+		terrainVersion++;
 	}
 	
 	public Heap drop( Item item, int cell ) {
@@ -527,16 +596,24 @@ public abstract class Level implements Bundlable {
 			cell = n;
 		}
 		
+		// The flag maps and the scene are those of the level being played,
+		// which isn't this one while it's being generated
+		boolean played = Dungeon.level == this;
+		
 		Heap heap = heaps.get( cell );
 		if (heap == null) {
 			
 			heap = new Heap();
 			heap.pos = cell;
-			if (map[cell] == Terrain.CHASM || (Dungeon.level != null && pit[cell])) {
-				GameScene.discard( heap );
+			if (map[cell] == Terrain.CHASM || (played && pit[cell])) {
+				if (played) {
+					GameScene.discard( heap );
+				}
 			} else {
 				heaps.put( cell, heap );
-				GameScene.add( heap );
+				if (played) {
+					GameScene.add( heap );
+				}
 			}
 			
 		} else if (heap.type == Heap.Type.LOCKED_CHEST || heap.type == Heap.Type.CRYSTAL_CHEST) {
@@ -550,7 +627,7 @@ public abstract class Level implements Bundlable {
 		}
 		heap.drop( item );
 		
-		if (Dungeon.level != null) {
+		if (played) {
 			press( cell, null );
 		}
 				
@@ -559,15 +636,20 @@ public abstract class Level implements Bundlable {
 	
 	public Plant plant( Plant.Seed seed, int pos ) {
 
+		boolean played = Dungeon.level == this;
+		
 		Plant plant = plants.get( pos );
-		if (plant != null) {
+		if (plant != null && played) {
 			plant.wither();
 		}
 		
 		plant = seed.couch( pos );
 		plants.put( pos, plant );
 		
-		GameScene.add( plant );
+		if (played) {
+			Sample.INSTANCE.play( Assets.SND_PLANT );
+			GameScene.add( plant );
+		}
 		
 		return plant;
 	}
@@ -576,6 +658,15 @@ public abstract class Level implements Bundlable {
 		plants.remove( pos );
 	}
 	
+	public Mob findMob( int pos ) {
+		for (Mob mob : mobs) {
+			if (mob.pos == pos) {
+				return mob;
+			}
+		}
+		return null;
+	}
+	
 	public int pitCell() {
 		return randomRespawnCell();
 	}
@@ -751,11 +842,20 @@ public abstract class Level implements Bundlable {
 		int cx = c.pos % WIDTH;
 		int cy = c.pos / WIDTH;
 		
+		CellSet fov = fieldOfViewCells;
+		
 		boolean sighted = c.buff( Blindness.class ) == null && c.buff( Shadows.class ) == null && c.isAlive();
 		if (sighted) {
-			ShadowCaster.castShadow( cx, cy, fieldOfView, c.viewDistance );
+			if (c == Dungeon.hero) {
+				fov.copy( heroSight.cast( c.pos, c.viewDistance ) );
+			} else {
+				if (visibility == null) {
+					visibility = new VisibilityCache( VISIBILITY_CACHE_SIZE );
+				}
+				fov.copy( visibility.cast( c.pos, c.viewDistance ) );
+			}
 		} else {
-			Arrays.fill( fieldOfView, false );
+			fov.clear();
 		}
 		
 		int sense = 1;
@@ -772,59 +872,32 @@ public abstract class Level implements Bundlable {
 			int ay = Math.max( 0, cy - sense );
 			int by = Math.min( cy + sense, HEIGHT - 1 );
 
-			int len = bx - ax + 1;
-			int pos = ax + ay * WIDTH;
-			for (int y = ay; y <= by; y++, pos+=WIDTH) {
-				Arrays.fill( fieldOfView, pos, pos + len, true );
+			for (int y = ay; y <= by; y++) {
+				int pos = ax + y * WIDTH;
+				for (int x = ax; x <= bx; x++, pos++) {
+					fov.set( pos );
+				}
 			}
 			
-			for (int i=0; i < LENGTH; i++) {
-				fieldOfView[i] &= discoverable[i];
-			}
+			fov.and( fov, discoverableCells );
 		}
 		
 		if (c.isAlive()) {
 			if (c.buff( MindVision.class ) != null) {
 				for (Mob mob : mobs) {
-					int p = mob.pos;
-					fieldOfView[p] = true;
-					fieldOfView[p + 1] = true;
-					fieldOfView[p - 1] = true;
-					fieldOfView[p + WIDTH + 1] = true;
-					fieldOfView[p + WIDTH - 1] = true;
-					fieldOfView[p - WIDTH + 1] = true;
-					fieldOfView[p - WIDTH - 1] = true;
-					fieldOfView[p + WIDTH] = true;
-					fieldOfView[p - WIDTH] = true;
+					senseAround( mob.pos );
 				}
 			} else if (c == Dungeon.hero && ((Hero)c).heroClass == HeroClass.HUNTRESS) {
 				for (Mob mob : mobs) {
 					int p = mob.pos;
 					if (distance( c.pos, p) == 2) {
-						fieldOfView[p] = true;
-						fieldOfView[p + 1] = true;
-						fieldOfView[p - 1] = true;
-						fieldOfView[p + WIDTH + 1] = true;
-						fieldOfView[p + WIDTH - 1] = true;
-						fieldOfView[p - WIDTH + 1] = true;
-						fieldOfView[p - WIDTH - 1] = true;
-						fieldOfView[p + WIDTH] = true;
-						fieldOfView[p - WIDTH] = true;
+						senseAround( p );
 					}
 				}
 			}
 			if (c.buff( Awareness.class ) != null) {
 				for (Heap heap : heaps.values()) {
-					int p = heap.pos;
-					fieldOfView[p] = true;
-					fieldOfView[p + 1] = true;
-					fieldOfView[p - 1] = true;
-					fieldOfView[p + WIDTH + 1] = true;
-					fieldOfView[p + WIDTH - 1] = true;
-					fieldOfView[p - WIDTH + 1] = true;
-					fieldOfView[p - WIDTH - 1] = true;
-					fieldOfView[p + WIDTH] = true;
-					fieldOfView[p - WIDTH] = true;
+					senseAround( heap.pos );
 				}
 			}
 		}
@@ -832,6 +905,19 @@ public abstract class Level implements Bundlable {
 		return fieldOfView;
 	}
 	
+	private static void senseAround( int p ) {
+		CellSet fov = fieldOfViewCells;
+		fov.set( p );
+		fov.set( p + 1 );
+		fov.set( p - 1 );
+		fov.set( p + WIDTH + 1 );
+		fov.set( p + WIDTH - 1 );
+		fov.set( p - WIDTH + 1 );
+		fov.set( p - WIDTH - 1 );
+		fov.set( p + WIDTH );
+		fov.set( p - WIDTH );
+	}
+	
 	public static int distance( int a, int b ) {
 		int ax = a % WIDTH;
 		int ay = a / WIDTH;
@@ -21,11 +21,21 @@ import com.watabou.utils.Random;
 
 public class Patch {
 	
-	private static boolean[] cur = new boolean[Level.LENGTH];
-	private static boolean[] off = new boolean[Level.LENGTH];
+	// Levels can be laid out on several threads at once, see Generation
+	private static final ThreadLocal<boolean[][]> maps = new ThreadLocal<boolean[][]>() {
+		@Override
+		protected boolean[][] initialValue() {
+			return new boolean[][]{ new boolean[Level.LENGTH], new boolean[Level.LENGTH] };
+		}
+	};
 	
+	// The patch is only valid until the next one is generated on the same thread
 	public static boolean[] generate( float seed, int nGen ) {
 		
+		boolean[][] maps = Patch.maps.get();
+		boolean[] cur = maps[0];
+		boolean[] off = maps[1];
+		
 		int w = Level.WIDTH;
 		int h = Level.HEIGHT;
 		
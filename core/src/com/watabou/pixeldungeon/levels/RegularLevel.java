@@ -51,6 +51,8 @@ public abstract class RegularLevel extends Level {
 	@Override
 	protected boolean build() {
 		
+		Generation generation = Generation.current();
+		
 		if (!initRooms()) {
 			return false;
 		}
@@ -116,7 +118,7 @@ public abstract class RegularLevel extends Level {
 			}
 		}
 		
-		if (Dungeon.shopOnLevel()) {
+		if (Dungeon.shopOnLevel( generation.depth )) {
 			Room shop = null;
 			for (Room r : roomEntrance.connected.keySet()) {
 				if (r.connected.size() == 1 && r.width() >= 5 && r.height() >= 5) {
@@ -132,8 +134,8 @@ public abstract class RegularLevel extends Level {
 			}
 		}
 		
-		specials = new ArrayList<Room.Type>( Room.SPECIALS );
-		if (Dungeon.bossLevel( Dungeon.depth + 1 )) {
+		specials = new ArrayList<Room.Type>( generation.specials );
+		if (Dungeon.bossLevel( generation.depth + 1 )) {
 			specials.remove( Room.Type.WEAK_FLOOR );
 		}
 		assignRoomType();
@@ -153,6 +155,7 @@ public abstract class RegularLevel extends Level {
 		split( new Rect( 0, 0, WIDTH - 1, HEIGHT - 1 ) );
 
 		if (rooms.size() < 8) {
+			Generation.current().roomFailures++;
 			return false;
 		}
 
@@ -168,6 +171,8 @@ public abstract class RegularLevel extends Level {
 	
 	protected void assignRoomType() {
 		
+		Generation generation = Generation.current();
+		
 		int specialRooms = 0;
 
 		for (Room r : rooms) {
@@ -192,11 +197,11 @@ public abstract class RegularLevel extends Level {
 						specials.remove( Type.VAULT );
 						specials.remove( Type.WEAK_FLOOR );
 						
-					} else if (Dungeon.depth % 5 == 2 && specials.contains( Type.LABORATORY )) {
+					} else if (generation.depth % 5 == 2 && specials.contains( Type.LABORATORY )) {
 						
 						r.type = Type.LABORATORY;
 						
-					} else if (Dungeon.depth >= Dungeon.transmutation && specials.contains( Type.MAGIC_WELL )) {
+					} else if (generation.depth >= generation.transmutation && specials.contains( Type.MAGIC_WELL )) {
 						
 						r.type = Type.MAGIC_WELL;
 						
@@ -205,12 +210,12 @@ public abstract class RegularLevel extends Level {
 						int n = specials.size();
 						r.type = specials.get( Math.min( Random.Int( n ), Random.Int( n ) ) );
 						if (r.type == Type.WEAK_FLOOR) {
-							weakFloorCreated = true;
+							generation.weakFloorCreated = true;
 						}
 
 					}
 					
-					Room.useType( r.type );
+					generation.useType( r.type );
 					specials.remove( r.type );
 					specialRooms++;
 					
@@ -219,7 +224,7 @@ public abstract class RegularLevel extends Level {
 					HashSet<Room> neigbours = new HashSet<Room>();
 					for (Room n : r.neigbours) {
 						if (!r.connected.containsKey( n ) && 
-							!Room.SPECIALS.contains( n.type ) &&
+							!generation.specials.contains( n.type ) &&
 							n.type != Type.PIT) {
 							
 							neigbours.add( n );
@@ -337,7 +342,8 @@ public abstract class RegularLevel extends Level {
 	}
 	
 	protected int nTraps() {
-		return Dungeon.depth <= 1 ? 0 : Random.Int( 1, rooms.size() + Dungeon.depth );
+		int depth = Generation.depth();
+		return depth <= 1 ? 0 : Random.Int( 1, rooms.size() + depth );
 	}
 	
 	protected float[] trapChances() {
@@ -367,7 +373,7 @@ public abstract class RegularLevel extends Level {
 			split( new Rect( rect.left, vh, rect.right, rect.bottom ) );
 			
 		} else 	
-		if ((Math.random() <= (minRoomSize * minRoomSize / rect.square()) && w <= maxRoomSize && h <= maxRoomSize) || w < minRoomSize || h < minRoomSize) {
+		if ((Random.Float() <= (minRoomSize * minRoomSize / rect.square()) && w <= maxRoomSize && h <= maxRoomSize) || w < minRoomSize || h < minRoomSize) {
 
 			rooms.add( (Room)new Room().set( rect ) );
 			
@@ -388,6 +394,8 @@ public abstract class RegularLevel extends Level {
 	
 	protected void paint() {
 		
+		long start = System.nanoTime();
+		
 		for (Room r : rooms) {
 			if (r.type != Type.NULL) {
 				placeDoors( r );
@@ -402,6 +410,8 @@ public abstract class RegularLevel extends Level {
 		for (Room r : rooms) {
 			paintDoors( r );
 		}
+		
+		Generation.current().paintTime += System.nanoTime() - start;
 	}
 	
 	private void placeDoors( Room r ) {
@@ -427,6 +437,7 @@ public abstract class RegularLevel extends Level {
 	}
 	
 	protected void paintDoors( Room r ) {
+		int depth = Generation.depth();
 		for (Room n : r.connected.keySet()) {
 
 			if (joinRooms( r, n )) {
@@ -444,10 +455,10 @@ public abstract class RegularLevel extends Level {
 				map[door] =  tunnelTile();
 				break;
 			case REGULAR:
-				if (Dungeon.depth <= 1) {
+				if (depth <= 1) {
 					map[door] = Terrain.DOOR;
 				} else {
-					boolean secret = (Dungeon.depth < 6 ? Random.Int( 12 - Dungeon.depth ) : Random.Int( 6 )) == 0;
+					boolean secret = (depth < 6 ? Random.Int( 12 - depth ) : Random.Int( 6 )) == 0;
 					map[door] = secret ? Terrain.SECRET_DOOR : Terrain.DOOR;
 					if (secret) {
 						secretDoors++;
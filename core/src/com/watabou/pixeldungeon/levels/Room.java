@@ -93,6 +93,14 @@ public class Room extends Rect implements Graph.Node, Bundlable {
 	
 	public Type type = Type.NULL;
 	
+	// Rooms are kept in hash sets, which have to be iterated in the
+	// same order for a seeded level to come out the same every time.
+	// A room is never moved once it's added to one.
+	@Override
+	public int hashCode() {
+		return left + top * Level.WIDTH;
+	}
+	
 	public int random() {
 		return random( 0 );
 	}
@@ -194,12 +202,6 @@ public class Room extends Rect implements Graph.Node, Bundlable {
 		}
 	}
 	
-	public static void useType( Type type ) {
-		if (SPECIALS.remove( type )) {
-			SPECIALS.add( type );
-		}
-	}
-	
 	private static final String ROOMS	= "rooms";
 	
 	public static void restoreRoomsFromBundle( Bundle bundle ) {
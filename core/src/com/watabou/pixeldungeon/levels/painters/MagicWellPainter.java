@@ -18,11 +18,11 @@
 package com.watabou.pixeldungeon.levels.painters;
 
 import com.badlogic.gdx.utils.reflect.ClassReflection;
-import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.actors.blobs.WaterOfAwareness;
 import com.watabou.pixeldungeon.actors.blobs.WaterOfHealth;
 import com.watabou.pixeldungeon.actors.blobs.WaterOfTransmutation;
 import com.watabou.pixeldungeon.actors.blobs.WellWater;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.levels.Room;
 import com.watabou.pixeldungeon.levels.Terrain;
@@ -42,14 +42,16 @@ public class MagicWellPainter extends Painter {
 		Point c = room.center();
 		set( level, c.x, c.y, Terrain.WELL );
 		
+		Generation generation = Generation.current();
+		
 		@SuppressWarnings("unchecked")
 		Class<? extends WellWater> waterClass = 
-			Dungeon.depth >= Dungeon.transmutation ?
+			generation.depth >= generation.transmutation ?
 			WaterOfTransmutation.class :		
 			(Class<? extends WellWater>)Random.element( WATERS );
 			
 		if (waterClass == WaterOfTransmutation.class) {
-			Dungeon.transmutation = Integer.MAX_VALUE;
+			generation.transmutation = Integer.MAX_VALUE;
 		}
 		
 		WellWater water = (WellWater)level.blobs.get( waterClass );
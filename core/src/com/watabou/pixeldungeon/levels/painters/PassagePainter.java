@@ -26,13 +26,10 @@ import com.watabou.utils.Point;
 
 public class PassagePainter extends Painter {
 
-	private static int pasWidth;
-	private static int pasHeight;
-	
 	public static void paint( Level level, Room room ) {
 		
-		pasWidth = room.width() - 2;
-		pasHeight = room.height() - 2;
+		int pasWidth = room.width() - 2;
+		int pasHeight = room.height() - 2;
 		
 		int floor = level.tunnelTile();
 		
@@ -71,6 +68,10 @@ public class PassagePainter extends Painter {
 	}
 	
 	private static int xy2p( Room room, Point xy ) {
+		
+		int pasWidth = room.width() - 2;
+		int pasHeight = room.height() - 2;
+		
 		if (xy.y == room.top) {
 			
 			return (xy.x - room.left - 1);
@@ -95,6 +96,10 @@ public class PassagePainter extends Painter {
 	}
 	
 	private static Point p2xy( Room room, int p ) {
+		
+		int pasWidth = room.width() - 2;
+		int pasHeight = room.height() - 2;
+		
 		if (p < pasWidth) {
 			
 			return new Point( room.left + 1 + p, room.top + 1);
@@ -19,7 +19,6 @@ package com.watabou.pixeldungeon.levels.painters;
 
 import java.util.ArrayList;
 
-import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.actors.mobs.Mob;
 import com.watabou.pixeldungeon.actors.mobs.npcs.ImpShopkeeper;
 import com.watabou.pixeldungeon.actors.mobs.npcs.Shopkeeper;
@@ -40,6 +39,7 @@ import com.watabou.pixeldungeon.items.scrolls.ScrollOfMagicMapping;
 import com.watabou.pixeldungeon.items.scrolls.ScrollOfRemoveCurse;
 import com.watabou.pixeldungeon.items.weapon.melee.*;
 import com.watabou.pixeldungeon.levels.LastShopLevel;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.levels.Room;
 import com.watabou.pixeldungeon.levels.Terrain;
@@ -48,16 +48,13 @@ import com.watabou.utils.Random;
 
 public class ShopPainter extends Painter {
 
-	private static int pasWidth;
-	private static int pasHeight;
-	
 	public static void paint( Level level, Room room ) {
 		
 		fill( level, room, Terrain.WALL );
 		fill( level, room, 1, Terrain.EMPTY_SP );
 		
-		pasWidth = room.width() - 2;
-		pasHeight = room.height() - 2;
+		int pasWidth = room.width() - 2;
+		int pasHeight = room.height() - 2;
 		int per = pasWidth * 2 + pasHeight * 2;
 		
 		Item[] range = range();
@@ -90,7 +87,7 @@ public class ShopPainter extends Painter {
 		
 		ArrayList<Item> items = new ArrayList<Item>();
 		
-		switch (Dungeon.depth) {
+		switch (Generation.depth()) {
 		
 		case 6:
 			items.add( (Random.Int( 2 ) == 0 ? new Quarterstaff() : new Spear()).identify() );
@@ -173,6 +170,10 @@ public class ShopPainter extends Painter {
 	}
 	
 	private static int xy2p( Room room, Point xy ) {
+		
+		int pasWidth = room.width() - 2;
+		int pasHeight = room.height() - 2;
+		
 		if (xy.y == room.top) {
 			
 			return (xy.x - room.left - 1);
@@ -197,6 +198,10 @@ public class ShopPainter extends Painter {
 	}
 	
 	private static Point p2xy( Room room, int p ) {
+		
+		int pasWidth = room.width() - 2;
+		int pasHeight = room.height() - 2;
+		
 		if (p < pasWidth) {
 			
 			return new Point( room.left + 1 + p, room.top + 1);
@@ -21,6 +21,7 @@ import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.items.Generator;
 import com.watabou.pixeldungeon.items.Gold;
 import com.watabou.pixeldungeon.items.Heap;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.levels.Room;
 import com.watabou.pixeldungeon.levels.Terrain;
@@ -31,12 +32,14 @@ public class StandardPainter extends Painter {
 
 	public static void paint( Level level, Room room ) {
 		
+		int depth = Generation.depth();
+		
 		fill( level, room, Terrain.WALL );
 		for (Room.Door door : room.connected.values()) {
 			door.set( Room.Door.Type.REGULAR );
 		}
 		
-		if (!Dungeon.bossLevel() && Random.Int( 5 ) == 0) {
+		if (!Dungeon.bossLevel( depth ) && Random.Int( 5 ) == 0) {
 			switch (Random.Int( 6 )) {
 			case 0:
 				if (level.feeling != Level.Feeling.GRASS) {
@@ -49,7 +52,7 @@ public class StandardPainter extends Painter {
 					// Burned room
 				}
 			case 1:
-				if (Dungeon.depth > 1) {
+				if (depth > 1) {
 					paintBurned( level, room );
 					return;
 				}
@@ -77,7 +80,7 @@ public class StandardPainter extends Painter {
 					// Fissure
 				}
 			case 5:
-				if (!Dungeon.bossLevel() && !Dungeon.bossLevel( Dungeon.depth + 1 ) && 
+				if (!Dungeon.bossLevel( depth ) && !Dungeon.bossLevel( depth + 1 ) && 
 					Math.min( room.width(), room.height() ) >= 5) {
 					paintFissure( level, room );
 					return;
@@ -165,8 +168,10 @@ public class StandardPainter extends Painter {
 	
 	private static void paintBridge( Level level, Room room ) {
 		
+		int depth = Generation.depth();
+		
 		fill( level, room.left + 1, room.top + 1, room.width() - 1, room.height() - 1 ,  
-			!Dungeon.bossLevel() && !Dungeon.bossLevel( Dungeon.depth + 1 ) && Random.Int( 3 ) == 0 ? 
+			!Dungeon.bossLevel( depth ) && !Dungeon.bossLevel( depth + 1 ) && Random.Int( 3 ) == 0 ? 
 				Terrain.CHASM : 
 				Terrain.WATER );
 		
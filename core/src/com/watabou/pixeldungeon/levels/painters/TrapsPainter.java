@@ -22,6 +22,7 @@ import com.watabou.pixeldungeon.items.Generator;
 import com.watabou.pixeldungeon.items.Heap;
 import com.watabou.pixeldungeon.items.Item;
 import com.watabou.pixeldungeon.items.potions.PotionOfLevitation;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.levels.Room;
 import com.watabou.pixeldungeon.levels.Terrain;
@@ -34,7 +35,7 @@ public class TrapsPainter extends Painter {
 		Integer traps[] = {
 			Terrain.TOXIC_TRAP, Terrain.TOXIC_TRAP, Terrain.TOXIC_TRAP, 
 			Terrain.PARALYTIC_TRAP, Terrain.PARALYTIC_TRAP, 
-			!Dungeon.bossLevel( Dungeon.depth + 1 ) ? Terrain.CHASM : Terrain.SUMMONING_TRAP };
+			!Dungeon.bossLevel( Generation.depth() + 1 ) ? Terrain.CHASM : Terrain.SUMMONING_TRAP };
 		fill( level, room, Terrain.WALL );
 		fill( level, room, 1, Random.element( traps ) );
 		
@@ -0,0 +1,71 @@
+/*
+ * Pixel Dungeon
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+package com.watabou.pixeldungeon.mechanics;
+
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.utils.CellSet;
+
+// Result of the last shadow cast of one viewer. It's cast again only
+// when the position or the distance changes, or when a cell which
+// blocks the line of sight changes in the rows the cast could reach.
+public class FieldOfView {
+	
+	private static final int WIDTH	= Level.WIDTH;
+	private static final int HEIGHT	= Level.HEIGHT;
+	
+	public final CellSet cells = new CellSet( Level.LENGTH );
+	
+	private int pos			= -1;
+	private int distance	= -1;
+	
+	// Line of sight blockers at the moment of the last cast
+	private final long[] blocking = new long[cells.words.length];
+	
+	public CellSet cast( int pos, int distance ) {
+		
+		if (pos != this.pos || distance != this.distance || blockingChanged( pos, distance )) {
+			
+			this.pos = pos;
+			this.distance = distance;
+			System.arraycopy( Level.losBlockingCells.words, 0, blocking, 0, blocking.length );
+			
+			ShadowCaster.castShadow( pos % WIDTH, pos / WIDTH, cells, distance );
+		}
+		
+		return cells;
+	}
+	
+	public void invalidate() {
+		pos = -1;
+	}
+	
+	private boolean blockingChanged( int pos, int distance ) {
+		
+		int y = pos / WIDTH;
+		int from = Math.max( 0, y - distance ) * WIDTH;
+		int to = Math.min( HEIGHT, y + distance + 1 ) * WIDTH;
+		
+		long[] words = Level.losBlockingCells.words;
+		for (int i=from >> 6; i <= (to - 1) >> 6; i++) {
+			if (words[i] != blocking[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Pixel Dungeon
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+package com.watabou.pixeldungeon.mechanics;
+
+import java.util.Arrays;
+
+import com.watabou.pixeldungeon.actors.Actor;
+import com.watabou.pixeldungeon.actors.Char;
+import com.watabou.pixeldungeon.actors.buffs.Amok;
+import com.watabou.pixeldungeon.levels.Level;
+
+// Distances to a single target shared by all the mobs chasing it. 
+// Occupied cells aren't part of the field, each mob checks them
+// against its own field of view when it picks a step.
+public final class FlowField {
+	
+	private static final int WIDTH	= Level.WIDTH;
+	private static final int LENGTH	= Level.LENGTH;
+	
+	private static final int[] DIR = 
+		{-1, +1, -WIDTH, +WIDTH, -WIDTH-1, -WIDTH+1, +WIDTH-1, +WIDTH+1};
+	
+	private static Field walkers	= new Field();
+	private static Field flyers		= new Field();
+	
+	private static int[] queue = new int[LENGTH];
+	
+	// Returns the next step of "ch" from "from" towards "to" or -1
+	// if the field can't tell it and a regular search is needed
+	public static int step( Char ch, int from, int to, boolean[] visible ) {
+		
+		if (Level.adjacent( from, to )) {
+			return -1;
+		}
+		
+		Field field = ch.flying || ch.buff( Amok.class ) != null ? flyers : walkers;
+		field.update( to );
+		
+		int[] distance = field.distance;
+		
+		int minD = distance[from];
+		int best = -1;
+		
+		for (int i=0; i < DIR.length; i++) {
+			int n = from + DIR[i];
+			int d = distance[n];
+			if (d < minD && !(visible[n] && Actor.findChar( n ) != null)) {
+				minD = d;
+				best = n;
+			}
+		}
+		
+		return best;
+	}
+	
+	private static class Field {
+		
+		public int[] distance = new int[LENGTH];
+		
+		private int target = -1;
+		private int version = -1;
+		
+		public void update( int to ) {
+			if (to != target || version != Level.terrainVersion) {
+				target = to;
+				version = Level.terrainVersion;
+				build( this == flyers );
+			}
+		}
+		
+		private void build( boolean flying ) {
+			
+			boolean[] passable = Level.passable;
+			boolean[] avoid = Level.avoid;
+			
+			Arrays.fill( distance, Integer.MAX_VALUE );
+			
+			int head = 0;
+			int tail = 0;
+			
+			queue[tail++] = target;
+			distance[target] = 0;
+			
+			while (head < tail) {
+				
+				int step = queue[head++];
+				int nextDistance = distance[step] + 1;
+				
+				for (int i=0; i < DIR.length; i++) {
+					int n = step + DIR[i];
+					if (n >= 0 && n < LENGTH && 
+						(passable[n] || (flying && avoid[n])) && 
+						distance[n] > nextDistance) {
+						
+						queue[tail++] = n;
+						distance[n] = nextDistance;
+					}
+				}
+			}
+		}
+	}
+}
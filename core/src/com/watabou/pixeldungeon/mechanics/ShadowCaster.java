@@ -17,13 +17,12 @@
  */
 package com.watabou.pixeldungeon.mechanics;
 
-import java.util.Arrays;
-
 import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.utils.CellSet;
 
 public final class ShadowCaster {
 
-	private static final int MAX_DISTANCE = 8;
+	public static final int MAX_DISTANCE = 8;
 	
 	private static final int WIDTH	= Level.WIDTH;
 	private static final int HEIGHT	= Level.HEIGHT;
@@ -32,7 +31,7 @@ public final class ShadowCaster {
 	private static int limits[];
 	
 	private static boolean[] losBlocking;
-	private static boolean[] fieldOfView;
+	private static CellSet fieldOfView;
 	
 	private static int[][] rounding;
 	static {
@@ -47,7 +46,7 @@ public final class ShadowCaster {
 	
 	private static Obstacles obs = new Obstacles();
 	
-	public static void castShadow( int x, int y, boolean[] fieldOfView, int distance ) {
+	public static void castShadow( int x, int y, CellSet fieldOfView, int distance ) {
 
 		losBlocking = Level.losBlocking;
 		
@@ -55,8 +54,8 @@ public final class ShadowCaster {
 		limits = rounding[distance];
 		
 		ShadowCaster.fieldOfView = fieldOfView;
-		Arrays.fill( fieldOfView, false );
-		fieldOfView[y * WIDTH + x] = true;
+		fieldOfView.clear();
+		fieldOfView.set( y * WIDTH + x );
 		
 		scanSector( x, y, +1, +1, 0, 0 );
 		scanSector( x, y, -1, +1, 0, 0 );
@@ -93,7 +92,7 @@ public final class ShadowCaster {
 					if (obs.isBlocked( a0 ) && obs.isBlocked( a1 ) && obs.isBlocked( a2 )) {
 				
 					} else {
-						fieldOfView[pos] = true;
+						fieldOfView.set( pos );
 					}
 					
 					if (losBlocking[pos]) {
@@ -0,0 +1,122 @@
+/*
+ * Pixel Dungeon
+ * Copyright (C) 2012-2014  Oleg Dolya
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+package com.watabou.pixeldungeon.mechanics;
+
+import java.util.Arrays;
+
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.utils.CellSet;
+
+// Shadow casts of a level keyed by the origin and the distance. A cast
+// depends only on the cells which block the line of sight, so an entry
+// stays valid until one of these cells changes within its distance.
+// When the cache is full the least recently used entry is replaced.
+public class VisibilityCache {
+	
+	private static final int WIDTH	= Level.WIDTH;
+	private static final int LENGTH	= Level.LENGTH;
+	
+	private static final int DISTANCES = ShadowCaster.MAX_DISTANCE + 1;
+	
+	private final int capacity;
+	
+	// Slot of each key or -1
+	private final int[] slots;
+	
+	private final int[] keys;
+	private final CellSet[] casts;
+	private final long[] used;
+	private long time = 0;
+	
+	public int hits;
+	public int misses;
+	
+	public VisibilityCache( int capacity ) {
+		
+		this.capacity = capacity;
+		
+		slots = new int[LENGTH * DISTANCES];
+		Arrays.fill( slots, -1 );
+		
+		keys = new int[capacity];
+		Arrays.fill( keys, -1 );
+		casts = new CellSet[capacity];
+		used = new long[capacity];
+	}
+	
+	public CellSet cast( int pos, int distance ) {
+		
+		int key = pos * DISTANCES + distance;
+		
+		int slot = slots[key];
+		if (slot >= 0) {
+			hits++;
+		} else {
+			misses++;
+			slot = leastRecentlyUsed();
+			if (keys[slot] >= 0) {
+				slots[keys[slot]] = -1;
+			}
+			if (casts[slot] == null) {
+				casts[slot] = new CellSet( LENGTH );
+			}
+			keys[slot] = key;
+			slots[key] = slot;
+			
+			ShadowCaster.castShadow( pos % WIDTH, pos / WIDTH, casts[slot], distance );
+		}
+		
+		used[slot] = ++time;
+		return casts[slot];
+	}
+	
+	// Drops the casts which could reach the cell
+	public void invalidate( int cell ) {
+		
+		for (int i=0; i < capacity; i++) {
+			int key = keys[i];
+			if (key >= 0 && Level.distance( key / DISTANCES, cell ) <= key % DISTANCES) {
+				remove( i );
+			}
+		}
+	}
+	
+	public void clear() {
+		for (int i=0; i < capacity; i++) {
+			if (keys[i] >= 0) {
+				remove( i );
+			}
+		}
+	}
+	
+	private void remove( int slot ) {
+		slots[keys[slot]] = -1;
+		keys[slot] = -1;
+		used[slot] = 0;
+	}
+	
+	private int leastRecentlyUsed() {
+		int result = 0;
+		for (int i=1; i < capacity; i++) {
+			if (used[i] < used[result]) {
+				result = i;
+			}
+		}
+		return result;
+	}
+}
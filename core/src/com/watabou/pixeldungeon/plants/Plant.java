@@ -20,8 +20,6 @@ package com.watabou.pixeldungeon.plants;
 import java.util.ArrayList;
 
 import com.badlogic.gdx.utils.reflect.ClassReflection;
-import com.watabou.noosa.audio.Sample;
-import com.watabou.pixeldungeon.Assets;
 import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.actors.Char;
 import com.watabou.pixeldungeon.actors.buffs.Barkskin;
@@ -146,7 +144,6 @@ public class Plant implements Bundlable {
 		
 		public Plant couch( int pos ) {
 			try {
-				Sample.INSTANCE.play( Assets.SND_PLANT );
 				Plant plant = ClassReflection.newInstance(plantClass);
 				plant.pos = pos;
 				return plant;
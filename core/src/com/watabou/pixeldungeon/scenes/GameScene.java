@@ -121,6 +121,9 @@ public class GameScene extends PixelScene {
 	private Toolbar toolbar;
 	private Toast prompt;
 	
+	// Nothing of the scene is ever shown, see headless()
+	private boolean headless;
+	
 	@Override
 	public void create() {
 		
@@ -191,7 +194,7 @@ public class GameScene extends PixelScene {
 		}
 		
 		fog = new FogOfWar( Level.WIDTH, Level.HEIGHT );
-		fog.updateVisibility( Dungeon.visible, Dungeon.level.visited, Dungeon.level.mapped );
+		fog.updateVisibility( Dungeon.visibleCells, Dungeon.level.visitedCells, Dungeon.level.mappedCells );
 		add( fog );
 		
 		brightness( PixelDungeon.brightness() );
@@ -309,6 +312,97 @@ public class GameScene extends PixelScene {
         selectCell( defaultCellListener );
 	}
 	
+	// Scene for running the game without a display: it only has the groups
+	// which sprites and effects are added to, there is no terrain, fog or 
+	// interface. Its update() processes the actors as usual, but someone
+	// else has to call it, as well as to create a new scene on each level.
+	// Textures have to be stand-ins (TextureCache.headless)
+	public static GameScene headless() {
+		GameScene scene = new GameScene();
+		scene.createHeadless();
+		return scene;
+	}
+	
+	private void createHeadless() {
+		
+		scene = this;
+		headless = true;
+		
+		cellSelector = null;
+		
+		ripples = new Group();
+		add( ripples );
+		
+		plants = new Group();
+		add( plants );
+		
+		for (IntMap.Entry<Plant> plant : Dungeon.level.plants) {
+			addPlantSprite( plant.value );
+		}
+		
+		heaps = new Group();
+		add( heaps );
+		
+		for (IntMap.Entry<Heap> heap : Dungeon.level.heaps) {
+			addHeapSprite( heap.value );
+		}
+		
+		emitters = new Group();
+		effects = new Group();
+		emoicons = new Group();
+		
+		mobs = new Group();
+		add( mobs );
+		
+		for (Mob mob : Dungeon.level.mobs) {
+			addMobSprite( mob );
+			if (Statistics.amuletObtained) {
+				mob.beckon( Dungeon.hero.pos );
+			}
+		}
+		
+		add( emitters );
+		add( effects );
+		
+		gases = new Group();
+		add( gases );
+		
+		for (Blob blob : Dungeon.level.blobs.values()) {
+			blob.emitter = null;
+			addBlobSprite( blob );
+		}
+		
+		spells = new Group();
+		add( spells );
+		
+		statuses = new Group();
+		add( statuses );
+		
+		add( emoicons );
+		
+		hero = new HeroSprite();
+		hero.place( Dungeon.hero.pos );
+		mobs.add( hero );
+		
+		switch (InterlevelScene.mode) {
+		case RESURRECT:
+			WandOfBlink.appear( Dungeon.hero, Dungeon.level.entrance );
+			break;
+		case RETURN:
+			WandOfBlink.appear(  Dungeon.hero, Dungeon.hero.pos );
+			break;
+		case FALL:
+			Chasm.heroLand();
+			break;
+		case DESCEND:
+			if (Dungeon.hero.isAlive() && Dungeon.depth != 22) {
+				Badges.validateNoKilling();
+			}
+			break;
+		default:
+		}
+	}
+	
 	public void destroy() {
 		
 		scene = null;
@@ -335,6 +429,11 @@ public class GameScene extends PixelScene {
 			
 		super.update();
 		
+		if (headless) {
+			Actor.process();
+			return;
+		}
+		
 		water.offset( 0, -5 * Game.elapsed );
 		
 		Actor.process();
@@ -501,39 +600,45 @@ public class GameScene extends PixelScene {
 	}
 	
 	public static FloatingText status() {
-		return scene != null ? (FloatingText)scene.statuses.recycle( FloatingText.class ) : null;
+		return shown() ? (FloatingText)scene.statuses.recycle( FloatingText.class ) : null;
 	}
 	
 	public static void pickUp( Item item ) {
-		scene.toolbar.pickup( item );
+		if (shown()) {
+			scene.toolbar.pickup( item );
+		}
 	}
 	
 	public static void updateMap() {
-		if (scene != null) {
+		if (shown()) {
 			scene.tiles.updated.set( 0, 0, Level.WIDTH, Level.HEIGHT );
 		}
 	}
 	
 	public static void updateMap( int cell ) {
-		if (scene != null) {
-			scene.tiles.updated.union( cell % Level.WIDTH, cell / Level.WIDTH );
+		if (shown()) {
+			scene.tiles.updateCell( cell );
 		}
 	}
 	
 	public static void discoverTile( int pos, int oldValue ) {
-		if (scene != null) {
+		if (shown()) {
 			scene.tiles.discover( pos, oldValue );
 		}
 	}
 	
 	public static void show( Window wnd ) {
-		cancelCellSelector();
-		scene.add( wnd );
+		if (shown()) {
+			cancelCellSelector();
+			scene.add( wnd );
+		}
 	}
 	
 	public static void afterObserve() {
 		if (scene != null) {
-			scene.fog.updateVisibility( Dungeon.visible, Dungeon.level.visited, Dungeon.level.mapped );
+			if (!scene.headless) {
+				scene.fog.updateVisibility( Dungeon.visibleCells, Dungeon.level.visitedCells, Dungeon.level.mappedCells );
+			}
 			
 			for (Mob mob : Dungeon.level.mobs) {
 				mob.sprite.visible = Dungeon.visible[mob.pos];
@@ -542,10 +647,16 @@ public class GameScene extends PixelScene {
 	}
 	
 	public static void flash( int color ) {
-		scene.fadeIn( 0xFF000000 | color, true );
+		if (shown()) {
+			scene.fadeIn( 0xFF000000 | color, true );
+		}
 	}
 	
 	public static void gameOver() {
+		if (!shown()) {
+			return;
+		}
+		
 		Banner gameOver = new Banner( BannerSprites.get( BannerSprites.Type.GAME_OVER ) );
 		gameOver.show( 0x000000, 1f );
 		scene.showBanner( gameOver );
@@ -554,7 +665,7 @@ public class GameScene extends PixelScene {
 	}
 	
 	public static void bossSlain() {
-		if (Dungeon.hero.isAlive()) {
+		if (Dungeon.hero.isAlive() && shown()) {
 			Banner bossSlain = new Banner( BannerSprites.get( BannerSprites.Type.BOSS_SLAIN ) );
 			bossSlain.show( 0xFFFFFF, 0.3f, 5f );
 			scene.showBanner( bossSlain );
@@ -568,12 +679,15 @@ public class GameScene extends PixelScene {
 	}
 	
 	public static void selectCell( CellSelector.Listener listener ) {
+		if (!shown()) {
+			return;
+		}
 		cellSelector.listener = listener;
 		scene.prompt( listener.prompt() );
 	}
 	
 	private static boolean cancelCellSelector() {
-		if (cellSelector.listener != null && cellSelector.listener != defaultCellListener) {
+		if (cellSelector != null && cellSelector.listener != null && cellSelector.listener != defaultCellListener) {
 			cellSelector.cancel();
 			return true;
 		} else {
@@ -582,6 +696,10 @@ public class GameScene extends PixelScene {
 	}
 	
 	public static WndBag selectItem( WndBag.Listener listener, WndBag.Mode mode, String title ) {
+		if (!shown()) {
+			return null;
+		}
+		
 		cancelCellSelector();
 		
 		WndBag wnd = mode == Mode.SEED ?
@@ -606,6 +724,11 @@ public class GameScene extends PixelScene {
 		}
 	}
 	
+	// There is a scene and it's not headless()
+	private static boolean shown() {
+		return scene != null && !scene.headless;
+	}
+	
 	public static void ready() {
 		selectCell( defaultCellListener );
 		QuickSlot.cancel();
@@ -29,6 +29,7 @@ import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.Statistics;
 import com.watabou.pixeldungeon.actors.Actor;
 import com.watabou.pixeldungeon.items.Generator;
+import com.watabou.pixeldungeon.levels.Generation;
 import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.windows.WndError;
 import com.watabou.pixeldungeon.windows.WndStory;
@@ -111,8 +112,6 @@ public class InterlevelScene extends PixelScene {
 				
 				try {
 					
-					Generator.reset();
-					
 					Sample.INSTANCE.load( 
 						Assets.SND_OPEN,
 						Assets.SND_UNLOCK,
@@ -155,26 +154,7 @@ public class InterlevelScene extends PixelScene {
 						Assets.SND_SECRET,
 						Assets.SND_BONES );
 					
-					switch (mode) {
-					case DESCEND:
-						descend();
-						break;
-					case ASCEND:
-						ascend();
-						break;
-					case CONTINUE:
-						restore();
-						break;
-					case RESURRECT:
-						resurrect();
-						break;
-					case RETURN:
-						returnTo();
-						break;
-					case FALL:
-						fall();
-						break;
-					}
+					travel();
 					
 					if ((Dungeon.depth % 5) == 0) {
 						Sample.INSTANCE.load( Assets.SND_BOSS );
@@ -244,7 +224,40 @@ public class InterlevelScene extends PixelScene {
 		}
 	}
 	
-	private void descend() throws Exception {
+	// Does what the mode says without showing anything, 
+	// the next level is ready for GameScene when it returns
+	public static void travel() throws Exception {
+		
+		Generator.reset();
+		
+		switch (mode) {
+		case DESCEND:
+			descend();
+			break;
+		case ASCEND:
+			ascend();
+			break;
+		case CONTINUE:
+			restore();
+			break;
+		case RESURRECT:
+			resurrect();
+			break;
+		case RETURN:
+			returnTo();
+			break;
+		case FALL:
+			fall();
+			break;
+		}
+		
+		// The next depth is laid out while this one is played
+		if (Dungeon.depth == Statistics.deepestFloor) {
+			Generation.prepare( Dungeon.depth + 1 );
+		}
+	}
+	
+	private static void descend() throws Exception {
 		
 		Actor.fixTime();
 		if (Dungeon.hero == null) {
@@ -267,7 +280,7 @@ public class InterlevelScene extends PixelScene {
 		Dungeon.switchLevel( level, level.entrance );
 	}
 	
-	private void fall() throws Exception {
+	private static void fall() throws Exception {
 		
 		Actor.fixTime();
 		Dungeon.saveLevel();
@@ -282,7 +295,7 @@ public class InterlevelScene extends PixelScene {
 		Dungeon.switchLevel( level, fallIntoPit ? level.pitCell() : level.randomRespawnCell() );
 	}
 	
-	private void ascend() throws Exception {
+	private static void ascend() throws Exception {
 		Actor.fixTime();
 		
 		Dungeon.saveLevel();
@@ -291,7 +304,7 @@ public class InterlevelScene extends PixelScene {
 		Dungeon.switchLevel( level, level.exit );
 	}
 	
-	private void returnTo() throws Exception {
+	private static void returnTo() throws Exception {
 		
 		Actor.fixTime();
 		
@@ -301,7 +314,7 @@ public class InterlevelScene extends PixelScene {
 		Dungeon.switchLevel( level, Level.resizingNeeded ? level.adjustPos( returnPos ) : returnPos );
 	}
 	
-	private void restore() throws Exception {
+	private static void restore() throws Exception {
 		
 		Actor.fixTime();
 		
@@ -315,7 +328,7 @@ public class InterlevelScene extends PixelScene {
 		}
 	}
 	
-	private void resurrect() throws Exception {
+	private static void resurrect() throws Exception {
 		
 		Actor.fixTime(); 
 		
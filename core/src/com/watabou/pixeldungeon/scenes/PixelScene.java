@@ -17,7 +17,6 @@
  */
 package com.watabou.pixeldungeon.scenes;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.input.NoosaInputProcessor;
 import com.watabou.noosa.*;
@@ -249,6 +248,11 @@ public class PixelScene extends Scene {
 	}
 	
 	public static void showBadge( Badges.Badge badge ) {
+		if (Game.scene() == null) {
+			// The game runs without a display
+			return;
+		}
+		
 		BadgeBanner banner = BadgeBanner.show( badge.image );
 		banner.camera = uiCamera;
 		banner.x = align( banner.camera, (banner.camera.width - banner.width) / 2 );
@@ -291,9 +295,9 @@ public class PixelScene extends Scene {
 		@Override
 		public void draw() {
 			if (light) {
-				Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+				NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 				super.draw();
-				Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+				NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 			} else {
 				super.draw();
 			}
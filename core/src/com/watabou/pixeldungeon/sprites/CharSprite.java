@@ -24,6 +24,7 @@ import com.watabou.noosa.particles.Emitter;
 import com.watabou.noosa.tweeners.PosTweener;
 import com.watabou.noosa.tweeners.Tweener;
 import com.watabou.pixeldungeon.Assets;
+import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.DungeonTilemap;
 import com.watabou.pixeldungeon.actors.Char;
 import com.watabou.pixeldungeon.effects.EmoIcon;
@@ -394,23 +395,31 @@ public class CharSprite extends MovieClip implements Tweener.Listener, MovieClip
 	@Override
 	public void onComplete( Animation anim ) {
 		
-		if (animCallback != null) {
-			animCallback.call();
-			animCallback = null;
-		} else {
+		// The attacks are resolved here, with the stream of the fights
+		Random.pushGenerator( Dungeon.combat );
+		try {
 			
-			if (anim == attack) {
-				
-				idle();
-				ch.onAttackComplete();
-				
-			} else if (anim == operate) {
+			if (animCallback != null) {
+				animCallback.call();
+				animCallback = null;
+			} else {
 				
-				idle();
-				ch.onOperateComplete();
+				if (anim == attack) {
+					
+					idle();
+					ch.onAttackComplete();
+					
+				} else if (anim == operate) {
+					
+					idle();
+					ch.onOperateComplete();
+					
+				}
 				
 			}
 			
+		} finally {
+			Random.popGenerator();
 		}
 	}
 }
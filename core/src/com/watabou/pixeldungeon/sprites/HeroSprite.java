@@ -32,6 +32,7 @@ import com.watabou.pixeldungeon.levels.Level;
 import com.watabou.pixeldungeon.scenes.GameScene;
 import com.watabou.utils.Callback;
 import com.watabou.utils.PointF;
+import com.watabou.utils.Random;
 import com.watabou.utils.RectF;
 
 public class HeroSprite extends CharSprite {
@@ -119,7 +120,12 @@ public class HeroSprite extends CharSprite {
 				GameScene.ripple( ch.pos );
 			}
 			if (jumpCallback != null) {
-				jumpCallback.call();
+				Random.pushGenerator( Dungeon.combat );
+				try {
+					jumpCallback.call();
+				} finally {
+					Random.popGenerator();
+				}
 			}
 			
 		} else {
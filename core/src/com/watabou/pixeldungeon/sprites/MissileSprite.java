@@ -19,10 +19,12 @@ package com.watabou.pixeldungeon.sprites;
 
 import com.watabou.noosa.tweeners.PosTweener;
 import com.watabou.noosa.tweeners.Tweener;
+import com.watabou.pixeldungeon.Dungeon;
 import com.watabou.pixeldungeon.DungeonTilemap;
 import com.watabou.pixeldungeon.items.Item;
 import com.watabou.utils.Callback;
 import com.watabou.utils.PointF;
+import com.watabou.utils.Random;
 
 public class MissileSprite extends ItemSprite implements Tweener.Listener {
 
@@ -76,7 +78,13 @@ public class MissileSprite extends ItemSprite implements Tweener.Listener {
 	public void onComplete( Tweener tweener ) {
 		kill();
 		if (callback != null) {
-			callback.call();
+			// The missile hits, with the stream of the fights
+			Random.pushGenerator( Dungeon.combat );
+			try {
+				callback.call();
+			} finally {
+				Random.popGenerator();
+			}
 		}
 	}
 }
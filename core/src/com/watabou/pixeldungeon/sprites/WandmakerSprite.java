@@ -17,9 +17,9 @@
  */
 package com.watabou.pixeldungeon.sprites;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.watabou.noosa.Game;
+import com.watabou.noosa.NoosaScript;
 import com.watabou.noosa.TextureFilm;
 import com.watabou.pixeldungeon.Assets;
 import com.watabou.pixeldungeon.actors.Char;
@@ -105,9 +105,9 @@ public class WandmakerSprite extends MobSprite {
 		
 		@Override
 		public void draw() {
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE );
 			super.draw();
-			Gdx.gl.glBlendFunc( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
+			NoosaScript.batch().blend( GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA );
 		}
 		
 		public void putOut() {
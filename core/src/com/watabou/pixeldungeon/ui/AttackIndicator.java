@@ -161,12 +161,16 @@ public class AttackIndicator extends Tag {
 	
 	public static void target( Char target ) {
 		lastTarget = (Mob)target;
-		instance.updateImage();
-		
-		HealthIndicator.instance.target( target );
+		if (instance != null) {
+			instance.updateImage();
+			
+			HealthIndicator.instance.target( target );
+		}
 	}
 	
 	public static void updateState() {
-		instance.checkEnemies();
+		if (instance != null) {
+			instance.checkEnemies();
+		}
 	}
 }
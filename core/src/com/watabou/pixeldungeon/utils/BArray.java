@@ -17,6 +17,8 @@
  */
 package com.watabou.pixeldungeon.utils;
 
+import com.watabou.utils.CellSet;
+
 public class BArray {
 
 	public static boolean[] and( boolean[] a, boolean[] b, boolean[] result ) {
@@ -64,6 +66,44 @@ public class BArray {
 		return result;
 	}
 	
+	// The same operations on packed sets, a word of 64 cells at a time
+	
+	public static CellSet and( CellSet a, CellSet b, CellSet result ) {
+		
+		if (result == null) {
+			result = new CellSet( a.size );
+		}
+		
+		return result.and( a, b );
+	}
+	
+	public static CellSet or( CellSet a, CellSet b, CellSet result ) {
+		
+		if (result == null) {
+			result = new CellSet( a.size );
+		}
+		
+		return result.or( a, b );
+	}
+	
+	public static CellSet andNot( CellSet a, CellSet b, CellSet result ) {
+		
+		if (result == null) {
+			result = new CellSet( a.size );
+		}
+		
+		return result.andNot( a, b );
+	}
+	
+	public static CellSet not( CellSet a, CellSet result ) {
+		
+		if (result == null) {
+			result = new CellSet( a.size );
+		}
+		
+		return result.not( a );
+	}
+	
 	public static boolean[] is( int[] a, boolean[] result, int v1 ) {
 		
 		int length = a.length;
@@ -17,10 +17,9 @@
  */
 package com.watabou.pixeldungeon.utils;
 
+import net.whitegem.pixeldungeon.FormatTemplate;
 import net.whitegem.pixeldungeon.LanguageFactory;
 
-import java.util.Locale;
-
 public class Utils {
 
 	public static String capitalize( String str ) {
@@ -28,7 +27,7 @@ public class Utils {
 	}
 	
 	public static String format( String format, Object...args ) {
-		String result = String.format( Locale.ENGLISH, format, args );
+		String result = FormatTemplate.of( format ).format( args );
 		LanguageFactory.INSTANCE.addFormatTranslation(result, format, args);
 		return result;
 	}
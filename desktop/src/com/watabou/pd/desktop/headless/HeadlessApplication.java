@@ -0,0 +1,181 @@
+package com.watabou.pd.desktop.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.LifecycleListener;
+import com.badlogic.gdx.Net;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.badlogic.gdx.backends.lwjgl.LwjglPreferences;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Clipboard;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Just enough of an application for the game to run on a plain JVM: files 
+ * and preferences, which are kept in the given directory. There is no 
+ * graphics, audio or input, GL calls go to a StubGL20.
+ */
+public class HeadlessApplication implements Application {
+
+	private final ApplicationListener listener;
+	private final File directory;
+	private final Files files = new LwjglFiles();
+	private final Map<String, Preferences> preferences = new HashMap<String, Preferences>();
+
+	private int logLevel = LOG_ERROR;
+
+	public HeadlessApplication( ApplicationListener listener, File directory ) {
+		this.listener = listener;
+		this.directory = directory;
+
+		Gdx.app = this;
+		Gdx.files = files;
+		Gdx.gl = Gdx.gl20 = StubGL20.create();
+	}
+
+	@Override
+	public ApplicationListener getApplicationListener() {
+		return listener;
+	}
+
+	@Override
+	public Graphics getGraphics() {
+		return null;
+	}
+
+	@Override
+	public Audio getAudio() {
+		return null;
+	}
+
+	@Override
+	public Input getInput() {
+		return null;
+	}
+
+	@Override
+	public Files getFiles() {
+		return files;
+	}
+
+	@Override
+	public Net getNet() {
+		return null;
+	}
+
+	@Override
+	public void log( String tag, String message ) {
+		if (logLevel >= LOG_INFO) {
+			System.out.println( tag + ": " + message );
+		}
+	}
+
+	@Override
+	public void log( String tag, String message, Throwable exception ) {
+		if (logLevel >= LOG_INFO) {
+			System.out.println( tag + ": " + message );
+			exception.printStackTrace( System.out );
+		}
+	}
+
+	@Override
+	public void error( String tag, String message ) {
+		if (logLevel >= LOG_ERROR) {
+			System.err.println( tag + ": " + message );
+		}
+	}
+
+	@Override
+	public void error( String tag, String message, Throwable exception ) {
+		if (logLevel >= LOG_ERROR) {
+			System.err.println( tag + ": " + message );
+			exception.printStackTrace( System.err );
+		}
+	}
+
+	@Override
+	public void debug( String tag, String message ) {
+		if (logLevel >= LOG_DEBUG) {
+			System.out.println( tag + ": " + message );
+		}
+	}
+
+	@Override
+	public void debug( String tag, String message, Throwable exception ) {
+		if (logLevel >= LOG_DEBUG) {
+			System.out.println( tag + ": " + message );
+			exception.printStackTrace( System.out );
+		}
+	}
+
+	@Override
+	public void setLogLevel( int logLevel ) {
+		this.logLevel = logLevel;
+	}
+
+	@Override
+	public int getLogLevel() {
+		return logLevel;
+	}
+
+	@Override
+	public ApplicationType getType() {
+		return ApplicationType.HeadlessDesktop;
+	}
+
+	@Override
+	public int getVersion() {
+		return 0;
+	}
+
+	@Override
+	public long getJavaHeap() {
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+
+	@Override
+	public long getNativeHeap() {
+		return getJavaHeap();
+	}
+
+	@Override
+	public Preferences getPreferences( String name ) {
+		Preferences prefs = preferences.get( name );
+		if (prefs == null) {
+			prefs = new LwjglPreferences( new FileHandle( new File( directory, name ) ) );
+			preferences.put( name, prefs );
+		}
+		return prefs;
+	}
+
+	@Override
+	public Clipboard getClipboard() {
+		return null;
+	}
+
+	@Override
+	public void postRunnable( Runnable runnable ) {
+		runnable.run();
+	}
+
+	@Override
+	public void exit() {
+	}
+
+	@Override
+	public void addLifecycleListener( LifecycleListener listener ) {
+	}
+
+	@Override
+	public void removeLifecycleListener( LifecycleListener listener ) {
+	}
+}
@@ -0,0 +1,163 @@
+package com.watabou.pd.desktop.headless;
+
+import com.watabou.gltextures.TextureCache;
+import com.watabou.noosa.Camera;
+import com.watabou.noosa.Game;
+import com.watabou.noosa.NoosaScript;
+import com.watabou.noosa.WriteQueue;
+import com.watabou.noosa.audio.Music;
+import com.watabou.noosa.audio.Sample;
+import com.watabou.pd.desktop.DesktopInputProcessor;
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.PixelDungeon;
+import com.watabou.pixeldungeon.Preferences;
+import com.watabou.pixeldungeon.actors.hero.HeroClass;
+import com.watabou.pixeldungeon.input.GameAction;
+import com.watabou.pixeldungeon.scenes.GameScene;
+import com.watabou.pixeldungeon.scenes.InterlevelScene;
+import com.watabou.pixeldungeon.scenes.StartScene;
+import com.watabou.utils.PDPlatformSupport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/*
+ * The game without a display. Levels are entered the way InterlevelScene does
+ * it, each of them gets a GameScene.headless() which step() updates with a time
+ * long enough for every animation to be over, so the actors never wait for the
+ * sprites. Saved games, rankings and preferences go to the given directory.
+ */
+public class HeadlessGame extends PixelDungeon {
+
+	public static final String VERSION = "headless";
+
+	// Seconds of each step
+	public static final float STEP = 1f;
+
+	private final File directory;
+
+	private GameScene scene;
+
+	public HeadlessGame( File directory ) {
+		super( new PDPlatformSupport<GameAction>( VERSION, null, new DesktopInputProcessor() ) );
+
+		this.directory = directory;
+		directory.mkdirs();
+
+		new HeadlessApplication( this, directory );
+		instance = this;
+
+		TextureCache.headless = true;
+
+		Music.INSTANCE.enable( false );
+		Sample.INSTANCE.enable( false );
+
+		Game.width = Preferences.DEFAULT_WINDOW_WIDTH;
+		Game.height = Preferences.DEFAULT_WINDOW_HEIGHT;
+		Camera.reset();
+	}
+
+	public void start( HeroClass cl ) throws Exception {
+		StartScene.curClass = cl;
+		Dungeon.hero = null;
+		travel( InterlevelScene.Mode.DESCEND );
+	}
+
+	// Saves the game and loads it back, as if it was continued later
+	public void reload() throws Exception {
+		Dungeon.saveAll();
+		travel( InterlevelScene.Mode.CONTINUE );
+	}
+
+	// Enters the level the hero is going to
+	public void travel() throws Exception {
+		travel( InterlevelScene.mode );
+	}
+
+	private void travel( InterlevelScene.Mode mode ) throws Exception {
+		requestedReset = false;
+
+		if (scene != null) {
+			scene.destroy();
+			scene = null;
+		}
+
+		InterlevelScene.mode = mode;
+		InterlevelScene.travel();
+		scene = GameScene.headless();
+	}
+
+	public void step() {
+		Game.elapsed = STEP;
+		scene.update();
+	}
+
+	// Draws the scene as render() does, with or without batching, and
+	// returns the number of draw calls it took, see StubGL20
+	public int frame( boolean batching ) {
+		boolean wasBatching = NoosaScript.batching;
+		NoosaScript.batching = batching;
+
+		int calls = StubGL20.drawCalls;
+		NoosaScript.get().resetCamera();
+		scene.draw();
+		NoosaScript.batch().flush();
+
+		NoosaScript.batching = wasBatching;
+		return StubGL20.drawCalls - calls;
+	}
+
+	// The hero has taken the stairs or fallen, travel() should be next
+	public boolean leaving() {
+		return requestedReset && sceneClass == InterlevelScene.class;
+	}
+
+	// The hero is dead or out of the dungeon
+	public boolean over() {
+		return !Dungeon.hero.isAlive() || (requestedReset && sceneClass != InterlevelScene.class);
+	}
+
+	@Override
+	public boolean deleteFile( String fileName ) {
+		WriteQueue.await();
+		File file = new File( directory, fileName );
+		return file.exists() && file.delete();
+	}
+
+	@Override
+	public InputStream openFileInput( String fileName ) throws IOException {
+		WriteQueue.await();
+		File file = new File( directory, fileName );
+		if (!file.exists()) {
+			throw new IOException( "File " + fileName + " doesn't exist" );
+		}
+		return new FileInputStream( file );
+	}
+
+	@Override
+	public OutputStream openFileOutput( String fileName ) {
+		try {
+			return new FileOutputStream( new File( directory, fileName ) );
+		} catch (FileNotFoundException e) {
+			throw new RuntimeException( e );
+		}
+	}
+
+	@Override
+	public boolean renameFile( String from, String to ) {
+		try {
+			Files.move( new File( directory, from ).toPath(), new File( directory, to ).toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.watabou.pd.desktop.headless;
+
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.actors.hero.HeroClass;
+
+import java.io.File;
+import java.util.Locale;
+
+/*
+ * Plays whole games with the scripted hero and nothing on the screen, then
+ * reports how fast the turns went, how long the levels took to generate and
+ * how long saving and loading took. With --frames, every that many steps the
+ * scene is drawn with and without batching, see HeadlessGame.frame(), and
+ * the draw calls per frame are reported too. Runs from the assets directory:
+ * 
+ *   HeadlessLauncher [--class warrior] [--games 1] [--turns 20000] [--frames 0] [--dir headless]
+ */
+public class HeadlessLauncher {
+
+	public static void main( String[] args ) throws Exception {
+
+		HeroClass cl = HeroClass.WARRIOR;
+		int games = 1;
+		float maxTurns = 20000;
+		int frameSteps = 0;
+		File directory = new File( "headless" );
+
+		for (int i=0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			if (args[i].equals( "--class" )) {
+				cl = HeroClass.valueOf( value.toUpperCase( Locale.ENGLISH ) );
+			} else if (args[i].equals( "--games" )) {
+				games = Integer.parseInt( value );
+			} else if (args[i].equals( "--turns" )) {
+				maxTurns = Float.parseFloat( value );
+			} else if (args[i].equals( "--frames" )) {
+				frameSteps = Integer.parseInt( value );
+			} else if (args[i].equals( "--dir" )) {
+				directory = new File( value );
+			} else {
+				throw new IllegalArgumentException( "Unknown option " + args[i] );
+			}
+		}
+
+		HeadlessGame game = new HeadlessGame( directory );
+
+		float totalTurns = 0;
+		long totalPlayTime = 0;
+		long totalTravelTime = 0;
+		int totalLevels = 0;
+
+		for (int i=0; i < games; i++) {
+
+			long travelTime = 0;
+			long saveTime = 0;
+			long playTime = 0;
+			int levels = 0;
+			int steps = 0;
+			int frames = 0;
+			long batchedCalls = 0;
+			long unbatchedCalls = 0;
+
+			long start = System.nanoTime();
+			game.start( cl );
+			travelTime += System.nanoTime() - start;
+			levels++;
+
+			ScriptedHero hero = new ScriptedHero();
+			boolean stuck = false;
+
+			while (!game.over() && ScriptedHero.time() < maxTurns) {
+
+				if (game.leaving()) {
+
+					start = System.nanoTime();
+					game.travel();
+					travelTime += System.nanoTime() - start;
+					levels++;
+
+					start = System.nanoTime();
+					game.reload();
+					saveTime += System.nanoTime() - start;
+
+				} else {
+
+					start = System.nanoTime();
+					if (!hero.act()) {
+						stuck = true;
+						break;
+					}
+					game.step();
+					playTime += System.nanoTime() - start;
+					steps++;
+
+					if (frameSteps > 0 && steps % frameSteps == 0) {
+						unbatchedCalls += game.frame( false );
+						batchedCalls += game.frame( true );
+						frames++;
+					}
+				}
+			}
+
+			float turns = ScriptedHero.time();
+			System.out.println( String.format( Locale.ENGLISH,
+				"game %d: %s, depth %d, %s after %.0f turns (%d steps)",
+				i + 1, cl.name().toLowerCase( Locale.ENGLISH ), Dungeon.depth,
+				Dungeon.hero.isAlive() ? (stuck ? "stuck" : "alive") : "dead", turns, steps ) );
+			System.out.println( String.format( Locale.ENGLISH,
+				"  %.0f turns/s, %.1f ms per level (%d), %.1f ms per save and load",
+				turns / (playTime * 1e-9), travelTime * 1e-6 / levels, levels,
+				levels > 1 ? saveTime * 1e-6 / (levels - 1) : 0.0 ) );
+			if (frames > 0) {
+				System.out.println( String.format( Locale.ENGLISH,
+					"  %.1f draw calls per frame, %.1f without batching (%d frames)",
+					(float)batchedCalls / frames, (float)unbatchedCalls / frames, frames ) );
+			}
+
+			totalTurns += turns;
+			totalPlayTime += playTime;
+			totalTravelTime += travelTime;
+			totalLevels += levels;
+		}
+
+		if (games > 1) {
+			System.out.println( String.format( Locale.ENGLISH,
+				"total: %.0f turns, %.0f turns/s, %.1f ms per level (%d)",
+				totalTurns, totalTurns / (totalPlayTime * 1e-9),
+				totalTravelTime * 1e-6 / totalLevels, totalLevels ) );
+		}
+	}
+}
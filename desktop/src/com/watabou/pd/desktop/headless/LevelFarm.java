@@ -0,0 +1,275 @@
+package com.watabou.pd.desktop.headless;
+
+import com.badlogic.gdx.utils.IntMap;
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.actors.Actor;
+import com.watabou.pixeldungeon.actors.hero.HeroClass;
+import com.watabou.pixeldungeon.actors.mobs.Mob;
+import com.watabou.pixeldungeon.actors.mobs.npcs.Blacksmith;
+import com.watabou.pixeldungeon.actors.mobs.npcs.Ghost;
+import com.watabou.pixeldungeon.actors.mobs.npcs.Imp;
+import com.watabou.pixeldungeon.actors.mobs.npcs.Wandmaker;
+import com.watabou.pixeldungeon.items.Heap;
+import com.watabou.pixeldungeon.levels.Generation;
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.pixeldungeon.scenes.StartScene;
+import com.watabou.utils.Bundle;
+import com.watabou.utils.Random;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*
+ * Generates levels of every depth on all the cores and reports how fast it
+ * went, how many times the levels had to be laid out again and what ended
+ * up in them. There is no scene and nothing is rendered. Each level is laid
+ * out from a seed of its own against the state of a new game, see Generation,
+ * in a fork-join pool. Its mobs and items are created afterwards on the main
+ * thread, since that needs the static state of the game. Runs from the assets
+ * directory:
+ *
+ *   LevelFarm [--levels 100] [--threads cores] [--seed random] [--out dir] [--dir headless]
+ */
+public class LevelFarm {
+
+	private static final int DEPTHS = 26;
+
+	// Item kinds listed for each depth, the most frequent ones
+	private static final int ITEM_KINDS = 8;
+
+	// One level laid out by a worker
+	private static class Sample implements Callable<Sample> {
+
+		final Generation generation;
+
+		Level level;
+		long time;
+		long allocated;
+
+		Sample( Generation generation ) {
+			this.generation = generation;
+		}
+
+		@Override
+		public Sample call() {
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+
+			level = Dungeon.emptyLevel( generation.depth );
+			generation.layOut( level );
+
+			time = System.nanoTime() - start;
+			this.allocated = allocated >= 0 ? allocatedBytes() - allocated : -1;
+			return this;
+		}
+	}
+
+	public static void main( String[] args ) throws Exception {
+
+		int levels = 100;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		File output = null;
+		File directory = new File( "headless" );
+
+		for (int i=0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			if (args[i].equals( "--levels" )) {
+				levels = Integer.parseInt( value );
+			} else if (args[i].equals( "--threads" )) {
+				threads = Integer.parseInt( value );
+			} else if (args[i].equals( "--seed" )) {
+				seed = Long.parseLong( value );
+			} else if (args[i].equals( "--out" )) {
+				output = new File( value );
+				output.mkdirs();
+			} else if (args[i].equals( "--dir" )) {
+				directory = new File( value );
+			} else {
+				throw new IllegalArgumentException( "Unknown option " + args[i] );
+			}
+		}
+
+		// Files and preferences only, the game is never started. The new
+		// game is seeded too, it decides the order of the special rooms.
+		new HeadlessGame( directory );
+		StartScene.curClass = HeroClass.WARRIOR;
+		Random.pushGenerator( seed );
+		Dungeon.init();
+		Random.popGenerator();
+
+		System.out.println( String.format( Locale.ENGLISH,
+			"%d levels of each depth on %d threads, seed %d", levels, threads, seed ) );
+
+		ForkJoinPool pool = new ForkJoinPool( threads );
+
+		long[] allTimes = new long[levels * DEPTHS];
+		int generated = 0;
+		int failed = 0;
+		long wallTime = 0;
+		long populateTime = 0;
+
+		for (int depth=1; depth <= DEPTHS; depth++) {
+
+			// The state is copied on this thread, while nothing changes it
+			List<Sample> samples = new ArrayList<Sample>();
+			for (int i=0; i < levels; i++) {
+				samples.add( new Sample( new Generation( depth, Random.seed( seed, depth * levels + i ) ) ) );
+			}
+
+			long start = System.nanoTime();
+			List<Future<Sample>> results = pool.invokeAll( samples );
+			wallTime += System.nanoTime() - start;
+
+			long[] times = new long[levels];
+			int count = 0;
+			long allocated = 0;
+			long paintTime = 0;
+			int roomFailures = 0;
+			TreeMap<Integer, Integer> attempts = new TreeMap<Integer, Integer>();
+			Map<String, Integer> mobs = new HashMap<String, Integer>();
+			Map<String, Integer> items = new HashMap<String, Integer>();
+
+			for (int i=0; i < levels; i++) {
+
+				Sample sample;
+				try {
+					sample = results.get( i ).get();
+				} catch (Exception e) {
+					System.out.println( String.format( Locale.ENGLISH,
+						"depth %d, level %d: %s", depth, i, e.getCause() ) );
+					failed++;
+					continue;
+				}
+
+				Generation generation = sample.generation;
+				times[count] = allTimes[generated] = sample.time;
+				count++;
+				generated++;
+				allocated += sample.allocated;
+				paintTime += generation.paintTime;
+				roomFailures += generation.roomFailures;
+				increment( attempts, generation.attempts );
+
+				start = System.nanoTime();
+				populate( sample );
+				populateTime += System.nanoTime() - start;
+
+				for (Mob mob : sample.level.mobs) {
+					increment( mobs, mob.getClass().getSimpleName() );
+				}
+				for (IntMap.Entry<Heap> heap : sample.level.heaps) {
+					if (!heap.value.isEmpty()) {
+						increment( items, heap.value.peek().getClass().getSimpleName() );
+					}
+				}
+
+				if (output != null) {
+					write( sample.level, new File( output, String.format( Locale.ENGLISH, "depth%d-%d.dat", depth, i ) ) );
+				}
+			}
+
+			if (count == 0) {
+				continue;
+			}
+
+			Arrays.sort( times, 0, count );
+			System.out.println( String.format( Locale.ENGLISH,
+				"depth %d: p50 %.2f ms, p99 %.2f ms, painting %.2f ms, %.0f KB allocated, %d room failures, attempts %s",
+				depth, percentile( times, count, 50 ) * 1e-6, percentile( times, count, 99 ) * 1e-6,
+				paintTime * 1e-6 / count, allocated / 1024.0 / count, roomFailures, attempts ) );
+			System.out.println( "  mobs: " + distribution( mobs, count, Integer.MAX_VALUE ) );
+			System.out.println( "  items: " + distribution( items, count, ITEM_KINDS ) );
+		}
+
+		pool.shutdown();
+
+		Arrays.sort( allTimes, 0, generated );
+		System.out.println( String.format( Locale.ENGLISH,
+			"total: %d levels, %d failed, %.0f levels/s, p50 %.2f ms, p99 %.2f ms, %.2f ms per level to populate",
+			generated, failed, generated / (wallTime * 1e-9),
+			percentile( allTimes, generated, 50 ) * 1e-6, percentile( allTimes, generated, 99 ) * 1e-6,
+			generated > 0 ? populateTime * 1e-6 / generated : 0.0 ) );
+	}
+
+	// Creates the mobs and items as if the game had just got to the depth
+	private static void populate( Sample sample ) {
+
+		Dungeon.depth = sample.generation.depth;
+		Dungeon.visibleCells.clear();
+		Dungeon.dewVial = true;
+		Actor.clear();
+
+		Ghost.Quest.reset();
+		Wandmaker.Quest.reset();
+		Blacksmith.Quest.reset();
+		Imp.Quest.reset();
+
+		sample.generation.populate( sample.level );
+	}
+
+	private static void write( Level level, File file ) throws Exception {
+		FileOutputStream output = new FileOutputStream( file );
+		Bundle bundle = Bundle.writer( output );
+		bundle.put( "level", level );
+		bundle.close();
+		output.close();
+	}
+
+	// Bytes allocated by the calling thread so far, or -1 if the VM can't tell
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)threads).getThreadAllocatedBytes( Thread.currentThread().getId() );
+		} else {
+			return -1;
+		}
+	}
+
+	private static long percentile( long[] sorted, int count, int percent ) {
+		return count > 0 ? sorted[(count - 1) * percent / 100] : 0;
+	}
+
+	private static <K> void increment( Map<K, Integer> counts, K key ) {
+		Integer count = counts.get( key );
+		counts.put( key, count == null ? 1 : count + 1 );
+	}
+
+	// The kinds from the most frequent one, with their numbers per level
+	private static String distribution( Map<String, Integer> counts, int levels, int limit ) {
+
+		List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>( counts.entrySet() );
+		Collections.sort( entries, new Comparator<Map.Entry<String, Integer>>() {
+			@Override
+			public int compare( Map.Entry<String, Integer> a, Map.Entry<String, Integer> b ) {
+				return b.getValue() - a.getValue();
+			}
+		} );
+
+		StringBuilder sb = new StringBuilder();
+		for (int i=0; i < entries.size() && i < limit; i++) {
+			if (i > 0) {
+				sb.append( ", " );
+			}
+			sb.append( String.format( Locale.ENGLISH, "%s %.2f", entries.get( i ).getKey(), (float)entries.get( i ).getValue() / levels ) );
+		}
+		if (entries.size() > limit) {
+			sb.append( String.format( Locale.ENGLISH, " (%d more kinds)", entries.size() - limit ) );
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,167 @@
+package com.watabou.pd.desktop.headless;
+
+import com.watabou.pixeldungeon.Dungeon;
+import com.watabou.pixeldungeon.Statistics;
+import com.watabou.pixeldungeon.actors.Actor;
+import com.watabou.pixeldungeon.actors.buffs.Hunger;
+import com.watabou.pixeldungeon.actors.hero.Hero;
+import com.watabou.pixeldungeon.actors.mobs.Mob;
+import com.watabou.pixeldungeon.actors.mobs.Piranha;
+import com.watabou.pixeldungeon.actors.mobs.npcs.NPC;
+import com.watabou.pixeldungeon.items.Heap;
+import com.watabou.pixeldungeon.items.food.Food;
+import com.watabou.pixeldungeon.levels.Level;
+import com.watabou.pixeldungeon.levels.Terrain;
+import com.watabou.utils.PathFinder;
+
+import java.util.Arrays;
+
+/*
+ * Plays the hero with nobody at the controls: it fights the enemies in sight,
+ * picks up what lies around, explores the level and takes the stairs down once
+ * there is nothing left to see or it has been there for too long. Orders are
+ * given the same way a tap on the cell does, and only depend on the state of
+ * the game, ties are broken by the lowest cell.
+ */
+public class ScriptedHero {
+
+	// Turns on a level after which the hero goes for the exit
+	// as soon as it knows the way there
+	public static final float TURNS_PER_LEVEL = 2000;
+
+	private final boolean[] passable = new boolean[Level.LENGTH];
+
+	// Cells which the hero was sent to, but didn't even start going,
+	// since the last order which took any time
+	private final boolean[] unreachable = new boolean[Level.LENGTH];
+
+	private Level level;
+	private float arrived;
+
+	private int target = -1;
+	private float ordered;
+
+	public static float time() {
+		return Statistics.duration + Actor.now();
+	}
+
+	// Gives the hero an order if it waits for one,
+	// returns false if there is nothing left to do
+	public boolean act() {
+
+		Hero hero = Dungeon.hero;
+		if (!hero.ready) {
+			return true;
+		}
+
+		float now = time();
+
+		if (level != Dungeon.level) {
+			level = Dungeon.level;
+			arrived = now;
+			target = -1;
+			Arrays.fill( unreachable, false );
+		} else if (target != -1 && now == ordered) {
+			unreachable[target] = true;
+		} else if (now > ordered) {
+			// Whatever was in the way could have moved since
+			Arrays.fill( unreachable, false );
+		}
+		ordered = now;
+		target = -1;
+
+		Hunger hunger = hero.buff( Hunger.class );
+		Food food = hero.belongings.getItem( Food.class );
+		if (hunger != null && hunger.isStarving() && food != null) {
+			food.execute( hero, Food.AC_EAT );
+			return true;
+		}
+
+		for (int i=0; i < Level.LENGTH; i++) {
+			passable[i] = Level.passable[i] && (level.visited[i] || level.mapped[i]);
+		}
+		PathFinder.buildDistanceMap( hero.pos, passable, Integer.MAX_VALUE );
+
+		int cell = enemy();
+		if (cell == -1 && hero.HP < hero.HT * 2 / 3) {
+			hero.rest( true );
+			return true;
+		}
+		if (cell == -1 && now - arrived >= TURNS_PER_LEVEL && isFree( level.exit ) &&
+			PathFinder.distance[level.exit] != Integer.MAX_VALUE) {
+			cell = level.exit;
+		}
+		if (cell == -1) {
+			cell = closest( true );
+		}
+		if (cell == -1) {
+			cell = closest( false );
+		}
+		if (cell == -1 && isFree( level.exit )) {
+			cell = level.exit;
+		}
+		if (cell == -1) {
+			return false;
+		}
+
+		target = cell;
+		if (hero.handle( cell )) {
+			hero.next();
+		}
+		return true;
+	}
+
+	private int enemy() {
+		int result = -1;
+		int best = Integer.MAX_VALUE;
+		for (Mob mob : level.mobs) {
+			// Piranhas are better left alone
+			int pos = mob.pos;
+			if (Level.fieldOfView[pos] && mob.hostile && !(mob instanceof NPC) && !(mob instanceof Piranha) && !unreachable[pos] &&
+				(PathFinder.distance[pos] < best || (PathFinder.distance[pos] == best && pos < result))) {
+
+				result = pos;
+				best = PathFinder.distance[pos];
+			}
+		}
+		return result;
+	}
+
+	// The closest heap to pick up or chest to open, or the
+	// closest cell next to the ones which are still unknown
+	private int closest( boolean heaps ) {
+		int result = -1;
+		int best = Integer.MAX_VALUE;
+		for (int i=0; i < Level.LENGTH; i++) {
+			int distance = PathFinder.distance[i];
+			if (distance < best && isFree( i ) && (heaps ? isLoot( i ) : isFrontier( i ))) {
+				result = i;
+				best = distance;
+			}
+		}
+		return result;
+	}
+
+	private boolean isFree( int cell ) {
+		// Stepping on a cell with somebody in it is talking or fighting
+		return !unreachable[cell] && Actor.findChar( cell ) == null;
+	}
+
+	private boolean isLoot( int cell ) {
+		Heap heap = level.heaps.get( cell );
+		return heap != null && heap.type != Heap.Type.FOR_SALE;
+	}
+
+	private boolean isFrontier( int cell ) {
+		if (level.map[cell] == Terrain.SIGN) {
+			return false;
+		}
+		for (int i=0; i < Level.NEIGHBOURS8.length; i++) {
+			int n = cell + Level.NEIGHBOURS8[i];
+			if (n >= 0 && n < Level.LENGTH && !level.visited[n] && !level.mapped[n]) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,50 @@
+package com.watabou.pd.desktop.headless;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/*
+ * GL20 which does nothing but count the draw calls, so frames can be drawn
+ * and measured without a display. Shaders always compile and programs always
+ * link, every other call returns zero, false or an empty string.
+ */
+public class StubGL20 implements InvocationHandler {
+
+	// Calls of glDrawElements() and glDrawArrays() so far
+	public static int drawCalls = 0;
+
+	private int handles = 0;
+
+	public static GL20 create() {
+		return (GL20)Proxy.newProxyInstance(
+			GL20.class.getClassLoader(), new Class<?>[]{GL20.class}, new StubGL20() );
+	}
+
+	@Override
+	public Object invoke( Object proxy, Method method, Object[] args ) {
+
+		String name = method.getName();
+		if (name.equals( "glDrawElements" ) || name.equals( "glDrawArrays" )) {
+			drawCalls++;
+		} else if (name.equals( "glGetShaderiv" ) || name.equals( "glGetProgramiv" )) {
+			((IntBuffer)args[2]).put( 0, GL20.GL_TRUE );
+		} else if (name.equals( "glCreateShader" ) || name.equals( "glCreateProgram" )) {
+			return ++handles;
+		}
+
+		Class<?> type = method.getReturnType();
+		if (type == int.class) {
+			return 0;
+		} else if (type == boolean.class) {
+			return false;
+		} else if (type == String.class) {
+			return "";
+		} else {
+			return null;
+		}
+	}
+}